@@ -6,8 +6,8 @@
 package org.kurento.client;
 
 import org.kurento.client.internal.client.DefaultContinuation;
+import org.kurento.client.internal.client.KurentoObjectFactory;
 import org.kurento.client.internal.client.RemoteObject;
-import org.kurento.client.internal.client.RemoteObjectInvocationHandler;
 import org.kurento.client.internal.client.RomManager;
 import org.kurento.jsonrpc.Props;
 
@@ -31,8 +31,7 @@ public class AbstractBuilder<T> {
 
 		this.props = new Props();
 		this.clazz = clazz;
-		this.manager = RemoteObjectInvocationHandler.getFor(kurentoObject)
-				.getRomManager();
+		this.manager = KurentoObjectFactory.getRomManager(kurentoObject);
 	}
 
 	public AbstractBuilder(Class<?> clazz, RomManager manager) {
@@ -54,8 +53,7 @@ public class AbstractBuilder<T> {
 		RemoteObject remoteObject = manager
 				.create(clazz.getSimpleName(), props);
 
-		return (T) RemoteObjectInvocationHandler.newProxy(remoteObject,
-				manager, clazz);
+		return (T) KurentoObjectFactory.create(remoteObject, manager, clazz);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -64,8 +62,7 @@ public class AbstractBuilder<T> {
 		RemoteObject remoteObject = manager.create(clazz.getSimpleName(),
 				props, transaction);
 
-		return (T) RemoteObjectInvocationHandler.newProxy(remoteObject,
-				manager, clazz);
+		return (T) KurentoObjectFactory.create(remoteObject, manager, clazz);
 	}
 
 	/**
@@ -87,10 +84,8 @@ public class AbstractBuilder<T> {
 					@Override
 					public void onSuccess(RemoteObject remoteObject) {
 						try {
-							continuation
-									.onSuccess((T) RemoteObjectInvocationHandler
-											.newProxy(remoteObject, manager,
-													clazz));
+							continuation.onSuccess((T) KurentoObjectFactory
+									.create(remoteObject, manager, clazz));
 						} catch (Exception e) {
 							log.warn(
 									"[Continuation] error invoking onSuccess implemented by client",
@@ -15,6 +15,7 @@
 package org.kurento.client;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PreDestroy;
 
@@ -87,6 +88,20 @@ public class KurentoClient {
 				.build(tx);
 	}
 
+	/**
+	 * Sets the executor where event listeners are called, so slow listeners
+	 * don't delay the reception of other messages from the media server.
+	 * Events of a media object are delivered in order. By default, listeners
+	 * are called in the thread receiving the events.
+	 *
+	 * @param executor
+	 *            The executor for event listeners, or null to call them in
+	 *            the receiving thread
+	 */
+	public void setEventExecutor(Executor executor) {
+		manager.setEventExecutor(executor);
+	}
+
 	@PreDestroy
 	public void destroy() {
 		manager.destroy();
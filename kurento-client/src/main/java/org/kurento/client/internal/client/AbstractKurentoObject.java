@@ -0,0 +1,126 @@
+package org.kurento.client.internal.client;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.Executor;
+
+import org.kurento.client.Continuation;
+import org.kurento.client.Event;
+import org.kurento.client.EventListener;
+import org.kurento.client.KurentoObject;
+import org.kurento.client.ListenerSubscription;
+import org.kurento.client.TFuture;
+import org.kurento.client.Transaction;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * Base class of the implementations of remote classes generated for the
+ * client. Generated classes build the params of each method and call the
+ * remote object directly, without the reflection needed by
+ * {@link RemoteObjectInvocationHandler}.
+ */
+public abstract class AbstractKurentoObject implements KurentoObject {
+
+	private final RemoteObject remoteObject;
+	private final RomManager manager;
+
+	public AbstractKurentoObject(RemoteObject remoteObject, RomManager manager) {
+		this.remoteObject = remoteObject;
+		this.manager = manager;
+		remoteObject.setKurentoObject(this);
+	}
+
+	public RemoteObject getRemoteObject() {
+		return remoteObject;
+	}
+
+	public RomManager getRomManager() {
+		return manager;
+	}
+
+	@Override
+	public boolean isCommited() {
+		return remoteObject.isCommited();
+	}
+
+	@Override
+	public void waitCommited() throws InterruptedException {
+		remoteObject.waitCommited();
+	}
+
+	@Override
+	public void whenCommited(Continuation<?> continuation) {
+		remoteObject.whenCommited(continuation);
+	}
+
+	@Override
+	public void whenCommited(Continuation<?> continuation, Executor executor) {
+		remoteObject.whenCommited(continuation, executor);
+	}
+
+	@Override
+	public void release() {
+		remoteObject.release();
+	}
+
+	@Override
+	public void release(Continuation<Void> continuation) {
+		remoteObject.release(continuation);
+	}
+
+	@Override
+	public void release(Transaction tx) {
+		remoteObject.release(tx);
+	}
+
+	protected Object invoke(String method, Props params, Type type) {
+		return remoteObject.invoke(method, params, type);
+	}
+
+	protected void invoke(String method, Props params, Type type,
+			Continuation<?> cont) {
+		remoteObject.invoke(method, params, type, cont);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected <E> TFuture<E> invoke(String method, Props params, Type type,
+			Transaction tx) {
+		return (TFuture) remoteObject.invoke(method, params, type, tx);
+	}
+
+	protected <E extends Event> ListenerSubscription addEventListener(
+			String eventName, Class<E> eventClass, EventListener<E> listener) {
+		return remoteObject.addEventListener(eventName,
+				new EventListenerAdapter(this, eventClass, listener));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected <E extends Event> void addEventListener(String eventName,
+			Class<E> eventClass, EventListener<E> listener,
+			Continuation<ListenerSubscription> cont) {
+		remoteObject.addEventListener(eventName, new EventListenerAdapter(this,
+				eventClass, listener), (Continuation) cont);
+	}
+
+	@Override
+	public String toString() {
+		return "[RemoteObject: type=" + remoteObject.getType() + " remoteRef="
+				+ remoteObject.getObjectRef() + "";
+	}
+
+	@Override
+	public int hashCode() {
+		return remoteObject.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		return remoteObject.equals(KurentoObjectFactory.getRemoteObject(obj));
+	}
+
+}
@@ -0,0 +1,73 @@
+package org.kurento.client.internal.client;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.kurento.client.Event;
+import org.kurento.client.internal.ParamAnnotationUtils;
+import org.kurento.client.internal.server.ProtocolException;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * Creates the events of a class from the data received from the media
+ * server. The constructor of the class and the names of its params are looked
+ * up once per class.
+ * <p>
+ * The first param of the constructor is the source of the event.
+ */
+public class EventFactory {
+
+	private static final ConcurrentMap<Class<? extends Event>, EventFactory> factories = new ConcurrentHashMap<>();
+
+	private final Class<? extends Event> eventClass;
+	private final Constructor<?> constructor;
+	private final String[] paramNames;
+
+	public static EventFactory getFor(Class<? extends Event> eventClass) {
+
+		EventFactory factory = factories.get(eventClass);
+
+		if (factory == null) {
+			factory = new EventFactory(eventClass);
+			EventFactory oldFactory = factories.putIfAbsent(eventClass, factory);
+			if (oldFactory != null) {
+				factory = oldFactory;
+			}
+		}
+
+		return factory;
+	}
+
+	private EventFactory(Class<? extends Event> eventClass) {
+
+		this.eventClass = eventClass;
+		this.constructor = eventClass.getConstructors()[0];
+
+		List<String> names = ParamAnnotationUtils.getParamNames(constructor);
+		this.paramNames = names.toArray(new String[names.size()]);
+	}
+
+	public Class<? extends Event> getEventClass() {
+		return eventClass;
+	}
+
+	public Event createEvent(Object source, Props data) {
+
+		Object[] params = new Object[paramNames.length];
+		for (int i = 1; i < paramNames.length; i++) {
+			params[i] = data.getProp(paramNames[i]);
+		}
+		params[0] = source;
+
+		try {
+			return (Event) constructor.newInstance(params);
+		} catch (Exception e) {
+			throw new ProtocolException("Exception while creating an event '"
+					+ eventClass.getSimpleName() + "' with params '" + data
+					+ "'", e);
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.kurento.client.internal.client;
+
+import org.kurento.client.Event;
+import org.kurento.client.EventListener;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * Propagates the events of a remote object to an {@link EventListener} of the
+ * client.
+ * <p>
+ * {@link RemoteObject} creates only one event for all the adapters of an
+ * event type, and calls {@link #fireEvent(Event)} on each of them. So,
+ * listeners receive the same event instance and shouldn't modify it.
+ */
+public class EventListenerAdapter implements RemoteObjectEventListener {
+
+	private final Object source;
+	private final EventFactory eventFactory;
+	private final EventListener<?> listener;
+
+	public EventListenerAdapter(Object source,
+			Class<? extends Event> eventClass, EventListener<?> listener) {
+		this.source = source;
+		this.eventFactory = EventFactory.getFor(eventClass);
+		this.listener = listener;
+	}
+
+	public Event createEvent(Props data) {
+		return eventFactory.createEvent(source, data);
+	}
+
+	/**
+	 * Returns true if this adapter propagates events like the given one.
+	 */
+	public boolean accepts(Event event) {
+		return event.getClass() == eventFactory.getEventClass();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void fireEvent(Event event) {
+		((EventListener) listener).onEvent(event);
+	}
+
+	@Override
+	public void onEvent(String eventType, Props data) {
+		fireEvent(createEvent(data));
+	}
+
+}
@@ -0,0 +1,133 @@
+package org.kurento.client.internal.client;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.kurento.client.internal.server.ProtocolException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the objects the client uses to call remote objects. The class
+ * generated for a remote class (its name followed by {@value #IMPL_SUFFIX},
+ * in the same package) is used when it exists. Otherwise, a dynamic proxy
+ * handled by {@link RemoteObjectInvocationHandler} is created.
+ */
+public class KurentoObjectFactory {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(KurentoObjectFactory.class);
+
+	public static final String IMPL_SUFFIX = "Impl";
+
+	private static class ImplConstructor {
+
+		private final Constructor<?> constructor;
+
+		public ImplConstructor(Constructor<?> constructor) {
+			this.constructor = constructor;
+		}
+	}
+
+	private static final ConcurrentMap<Class<?>, ImplConstructor> implConstructors = new ConcurrentHashMap<>();
+
+	@SuppressWarnings("unchecked")
+	public static <E> E create(RemoteObject remoteObject, RomManager manager,
+			Class<E> clazz) {
+
+		Constructor<?> constructor = getImplConstructor(clazz);
+
+		if (constructor == null) {
+			return RemoteObjectInvocationHandler.newProxy(remoteObject,
+					manager, clazz);
+		}
+
+		try {
+			return (E) constructor.newInstance(remoteObject, manager);
+		} catch (Exception e) {
+			throw new ProtocolException("Exception while creating an object "
+					+ "for the remote class '" + clazz.getSimpleName() + "'", e);
+		}
+	}
+
+	/**
+	 * Returns the remote object of an object created by this factory, or null
+	 * if it has not been created by it.
+	 */
+	public static RemoteObject getRemoteObject(Object kurentoObject) {
+
+		if (kurentoObject instanceof AbstractKurentoObject) {
+			return ((AbstractKurentoObject) kurentoObject).getRemoteObject();
+		}
+
+		RemoteObjectInvocationHandler handler = getInvocationHandler(kurentoObject);
+		return handler != null ? handler.getRemoteObject() : null;
+	}
+
+	public static RomManager getRomManager(Object kurentoObject) {
+
+		if (kurentoObject instanceof AbstractKurentoObject) {
+			return ((AbstractKurentoObject) kurentoObject).getRomManager();
+		}
+
+		RemoteObjectInvocationHandler handler = getInvocationHandler(kurentoObject);
+		return handler != null ? handler.getRomManager() : null;
+	}
+
+	private static RemoteObjectInvocationHandler getInvocationHandler(
+			Object object) {
+
+		if (object instanceof Proxy) {
+			InvocationHandler handler = Proxy.getInvocationHandler(object);
+			if (handler instanceof RemoteObjectInvocationHandler) {
+				return (RemoteObjectInvocationHandler) handler;
+			}
+		}
+
+		return null;
+	}
+
+	private static Constructor<?> getImplConstructor(Class<?> clazz) {
+
+		ImplConstructor implConstructor = implConstructors.get(clazz);
+
+		if (implConstructor == null) {
+			implConstructor = new ImplConstructor(findImplConstructor(clazz));
+			implConstructors.putIfAbsent(clazz, implConstructor);
+		}
+
+		return implConstructor.constructor;
+	}
+
+	private static Constructor<?> findImplConstructor(Class<?> clazz) {
+
+		Class<?> implClass;
+		try {
+			implClass = Class.forName(clazz.getName() + IMPL_SUFFIX, true,
+					clazz.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			log.debug("No implementation class for {}. Using a proxy",
+					clazz.getName());
+			return null;
+		}
+
+		if (!clazz.isAssignableFrom(implClass)
+				|| !AbstractKurentoObject.class.isAssignableFrom(implClass)) {
+			return null;
+		}
+
+		try {
+			return implClass.getConstructor(RemoteObject.class,
+					RomManager.class);
+		} catch (NoSuchMethodException e) {
+			log.warn("Class {} has no constructor ({}, {}). Using a proxy",
+					implClass.getName(), RemoteObject.class.getSimpleName(),
+					RomManager.class.getSimpleName());
+			return null;
+		}
+	}
+
+}
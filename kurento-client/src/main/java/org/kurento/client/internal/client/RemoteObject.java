@@ -1,10 +1,17 @@
 package org.kurento.client.internal.client;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.kurento.client.Continuation;
+import org.kurento.client.Event;
 import org.kurento.client.KurentoObject;
 import org.kurento.client.TFuture;
 import org.kurento.client.Transaction;
@@ -34,6 +41,17 @@ public class RemoteObject {
 
 	private static ParamsFlattener FLATTENER = ParamsFlattener.getInstance();
 
+	private static class ReceivedEvent {
+
+		private final String type;
+		private final Props data;
+
+		public ReceivedEvent(String type, Props data) {
+			this.type = type;
+			this.data = data;
+		}
+	}
+
 	private String objectRef;
 	private final String type;
 	private ObjectStatus objectStatus;
@@ -51,6 +69,9 @@ public class RemoteObject {
 
 	private TransactionExecutionException transactionException;
 
+	private final Queue<ReceivedEvent> receivedEvents = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean firingEvents = new AtomicBoolean();
+
 	public RemoteObject(String objectRef, String type, RomManager manager) {
 		this(objectRef, type, true, manager);
 	}
@@ -276,15 +297,78 @@ public class RemoteObject {
 	}
 
 	public void fireEvent(String type, Props data) {
-		for (RemoteObjectEventListener eventListener : this.listeners.get(type)) {
+
+		List<RemoteObjectEventListener> eventListeners;
+		synchronized (listeners) {
+			eventListeners = new ArrayList<>(listeners.get(type));
+		}
+
+		// The event is created once and shared by all the listeners
+		Event event = null;
+
+		for (RemoteObjectEventListener eventListener : eventListeners) {
 			try {
-				eventListener.onEvent(type, data);
+				if (eventListener instanceof EventListenerAdapter) {
+					EventListenerAdapter adapter = (EventListenerAdapter) eventListener;
+					if (event == null || !adapter.accepts(event)) {
+						event = adapter.createEvent(data);
+					}
+					adapter.fireEvent(event);
+				} else {
+					eventListener.onEvent(type, data);
+				}
 			} catch (Exception e) {
 				LOG.error("Exception executing event listener", e);
 			}
 		}
 	}
 
+	/**
+	 * Fires the event in the given executor. Events of this object are fired
+	 * one at a time, in the order they are received.
+	 */
+	public void fireEvent(String type, Props data, Executor executor) {
+		receivedEvents.add(new ReceivedEvent(type, data));
+		if (firingEvents.compareAndSet(false, true)) {
+			executeFireEvents(executor);
+		}
+	}
+
+	private void executeFireEvents(final Executor executor) {
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					fireReceivedEvents(executor);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Firing them in this thread could break their order, so they are
+			// dropped. The executor rejects tasks once the client is closed
+			int numEvents = 0;
+			while (receivedEvents.poll() != null) {
+				numEvents++;
+			}
+			firingEvents.set(false);
+			LOG.warn("Event executor rejected events of object {}. "
+					+ "Dropping {} events", objectRef, numEvents);
+		}
+	}
+
+	private void fireReceivedEvents(Executor executor) {
+
+		ReceivedEvent event;
+		while ((event = receivedEvents.poll()) != null) {
+			fireEvent(event.type, event.data);
+		}
+
+		firingEvents.set(false);
+
+		if (!receivedEvents.isEmpty() && firingEvents.compareAndSet(false, true)) {
+			executeFireEvents(executor);
+		}
+	}
+
 	public Transaction beginTransaction() {
 		return new TransactionImpl(manager);
 	}
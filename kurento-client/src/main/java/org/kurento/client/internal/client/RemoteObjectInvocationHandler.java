@@ -1,6 +1,5 @@
 package org.kurento.client.internal.client;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
@@ -18,16 +17,11 @@ import org.kurento.client.Transaction;
 import org.kurento.client.internal.ParamAnnotationUtils;
 import org.kurento.client.internal.server.EventSubscription;
 import org.kurento.jsonrpc.Props;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
 
 public class RemoteObjectInvocationHandler extends DefaultInvocationHandler {
 
-	private static final Logger LOG = LoggerFactory
-			.getLogger(RemoteObjectInvocationHandler.class);
-
 	private static final Set<String> REMOTE_OBJECT_METHODS = ImmutableSet.of(
 			"isCommited", "waitCommited", "whenCommited", "beginTransaction");
 
@@ -167,13 +161,8 @@ public class RemoteObjectInvocationHandler extends DefaultInvocationHandler {
 		String eventName = eventClass.getSimpleName().substring(0,
 				eventClass.getSimpleName().length() - "Event".length());
 
-		RemoteObjectEventListener listener = new RemoteObjectEventListener() {
-			@Override
-			public void onEvent(String eventType, Props data) {
-				propagateEventTo(proxy, eventClass, data,
-						(EventListener<?>) args[0]);
-			}
-		};
+		RemoteObjectEventListener listener = new EventListenerAdapter(proxy,
+				eventClass, (EventListener<?>) args[0]);
 
 		if (cont != null) {
 			remoteObject.addEventListener(eventName, listener,
@@ -186,34 +175,6 @@ public class RemoteObjectInvocationHandler extends DefaultInvocationHandler {
 		}
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	protected void propagateEventTo(Object object,
-			Class<? extends Event> eventClass, Props data,
-			EventListener<?> listener) {
-
-		// TODO Optimize this to create only one event for all listeners
-
-		try {
-
-			Constructor<?> constructor = eventClass.getConstructors()[0];
-
-			Object[] params = ParamAnnotationUtils.extractEventParams(
-					constructor.getParameterAnnotations(), data);
-
-			params[0] = object;
-
-			Event e = (Event) constructor.newInstance(params);
-
-			((EventListener) listener).onEvent(e);
-
-		} catch (Exception e) {
-			LOG.error(
-					"Exception while processing event '"
-							+ eventClass.getSimpleName() + "' with params '"
-							+ data + "'", e);
-		}
-	}
-
 	public RemoteObject getRemoteObject() {
 		return remoteObject;
 	}
@@ -249,18 +210,15 @@ public class RemoteObjectInvocationHandler extends DefaultInvocationHandler {
 		if (obj == null) {
 			return false;
 		}
-		RemoteObjectInvocationHandler other = getFor(obj);
-		if (other == null) {
+		RemoteObject otherRemoteObject = KurentoObjectFactory
+				.getRemoteObject(obj);
+		if (otherRemoteObject == null) {
 			return false;
 		}
 		if (remoteObject == null) {
-			if (other.remoteObject != null) {
-				return false;
-			}
-		} else if (!remoteObject.equals(other.remoteObject)) {
 			return false;
 		}
-		return true;
+		return remoteObject.equals(otherRemoteObject);
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.kurento.client.internal.client;
 
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 import org.kurento.client.internal.transport.serialization.ObjectRefsManager;
 import org.kurento.jsonrpc.Props;
@@ -20,6 +21,8 @@ public class RomClientObjectManager implements RomEventHandler,
 
 	private final RomClient client;
 
+	private volatile Executor eventExecutor;
+
 	public RomClientObjectManager(RomClient client) {
 		this.client = client;
 	}
@@ -28,6 +31,18 @@ public class RomClientObjectManager implements RomEventHandler,
 		return client;
 	}
 
+	/**
+	 * Sets the executor where event listeners are called. If null, they are
+	 * called in the thread receiving the events.
+	 */
+	public void setEventExecutor(Executor eventExecutor) {
+		this.eventExecutor = eventExecutor;
+	}
+
+	public Executor getEventExecutor() {
+		return eventExecutor;
+	}
+
 	@Override
 	public void processEvent(String objectRef, String subscription,
 			String type, Props data) {
@@ -39,7 +54,12 @@ public class RomClientObjectManager implements RomEventHandler,
 			return;
 		}
 
-		object.fireEvent(type, data);
+		Executor executor = eventExecutor;
+		if (executor != null) {
+			object.fireEvent(type, data, executor);
+		} else {
+			object.fireEvent(type, data);
+		}
 	}
 
 	public void registerObject(String objectRef, RemoteObject remoteObject) {
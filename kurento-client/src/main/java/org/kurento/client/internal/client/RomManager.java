@@ -2,6 +2,7 @@ package org.kurento.client.internal.client;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.kurento.client.Continuation;
 import org.kurento.client.Transaction;
@@ -152,6 +153,16 @@ public class RomManager implements ObjectRefsManager {
 		this.manager.registerObject(objectRef, remoteObject);
 	}
 
+	/**
+	 * Sets the executor where event listeners are called, so slow listeners
+	 * don't delay the reception of messages. Events of an object are fired
+	 * in order. If null (the default), listeners are called in the thread
+	 * receiving the events.
+	 */
+	public void setEventExecutor(Executor eventExecutor) {
+		manager.setEventExecutor(eventExecutor);
+	}
+
 	public RomClientObjectManager getObjectManager() {
 		return manager;
 	}
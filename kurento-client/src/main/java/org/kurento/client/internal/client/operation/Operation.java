@@ -2,8 +2,8 @@ package org.kurento.client.internal.client.operation;
 
 import org.kurento.client.TransactionExecutionException;
 import org.kurento.client.internal.TFutureImpl;
+import org.kurento.client.internal.client.KurentoObjectFactory;
 import org.kurento.client.internal.client.RemoteObject;
-import org.kurento.client.internal.client.RemoteObjectInvocationHandler;
 import org.kurento.client.internal.client.RomManager;
 import org.kurento.client.internal.transport.jsonrpc.RomClientJsonRpcClient;
 import org.kurento.client.internal.transport.jsonrpc.RomClientJsonRpcClient.RequestAndResponseType;
@@ -32,7 +32,7 @@ public abstract class Operation {
 	}
 
 	protected RemoteObject getRemoteObject(Object object) {
-		return RemoteObjectInvocationHandler.getFor(object).getRemoteObject();
+		return KurentoObjectFactory.getRemoteObject(object);
 	}
 
 	public void rollback(TransactionExecutionException e) {
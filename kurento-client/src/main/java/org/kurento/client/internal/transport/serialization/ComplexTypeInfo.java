@@ -0,0 +1,132 @@
+package org.kurento.client.internal.transport.serialization;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.kurento.client.internal.ParamAnnotationUtils;
+
+/**
+ * Reflection data of a complex type needed to flatten and unflatten its
+ * values. It is built once per class by {@link ParamsFlattener}, so the
+ * methods and constructor of the class are not looked up on each value.
+ */
+public class ComplexTypeInfo {
+
+	public static class Property {
+
+		private final String name;
+		private final Method getter;
+
+		public Property(String name, Method getter) {
+			this.name = name;
+			this.getter = getter;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Object getValue(Object object) throws Exception {
+			return getter.invoke(object);
+		}
+	}
+
+	private final Class<?> clazz;
+	private final List<Property> properties;
+
+	private final Constructor<?> constructor;
+	private final List<String> constructorParamNames;
+	private final Class<?>[] constructorParamTypes;
+
+	public ComplexTypeInfo(Class<?> clazz) {
+
+		this.clazz = clazz;
+		this.properties = findProperties(clazz);
+
+		Constructor<?>[] constructors = clazz.getConstructors();
+		if (constructors.length > 0) {
+			this.constructor = constructors[0];
+			this.constructorParamNames = ParamAnnotationUtils
+					.getParamNames(constructor);
+			this.constructorParamTypes = constructor.getParameterTypes();
+		} else {
+			this.constructor = null;
+			this.constructorParamNames = null;
+			this.constructorParamTypes = null;
+		}
+	}
+
+	public Class<?> getType() {
+		return clazz;
+	}
+
+	/**
+	 * Bean properties of the class, read with its "get" and "is" methods.
+	 */
+	public List<Property> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * The constructor used to create values of the class, or null if it has
+	 * no public constructor. Its params are annotated with the names of the
+	 * properties.
+	 */
+	public Constructor<?> getConstructor() {
+		return constructor;
+	}
+
+	public List<String> getConstructorParamNames() {
+		return constructorParamNames;
+	}
+
+	public Class<?>[] getConstructorParamTypes() {
+		return constructorParamTypes;
+	}
+
+	private static List<Property> findProperties(Class<?> clazz) {
+
+		List<Property> properties = new ArrayList<>();
+
+		for (Method method : clazz.getMethods()) {
+
+			if (method.getParameterTypes().length != 0
+					|| Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+
+			String propName = null;
+
+			String methodName = method.getName();
+			if (methodName.startsWith("is") && methodName.length() > 2) {
+				propName = methodName.substring(2, methodName.length());
+			} else if (methodName.startsWith("get") && methodName.length() > 3
+					&& !methodName.equals("getClass")) {
+				propName = methodName.substring(3, methodName.length());
+			}
+
+			if (propName != null) {
+
+				propName = Character.toLowerCase(propName.charAt(0))
+						+ propName.substring(1);
+
+				// Avoids the access checks of public methods of non public
+				// classes
+				try {
+					method.setAccessible(true);
+				} catch (SecurityException e) {
+					// Access is checked on each call
+				}
+
+				properties.add(new Property(propName, method));
+			}
+		}
+
+		return Collections.unmodifiableList(properties);
+	}
+
+}
@@ -3,7 +3,6 @@ package org.kurento.client.internal.transport.serialization;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
@@ -11,15 +10,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.kurento.client.TransactionNotCommitedException;
 import org.kurento.client.internal.ParamAnnotationUtils;
 import org.kurento.client.internal.RemoteClass;
+import org.kurento.client.internal.client.AbstractKurentoObject;
+import org.kurento.client.internal.client.KurentoObjectFactory;
 import org.kurento.client.internal.client.RemoteObject;
 import org.kurento.client.internal.client.RemoteObjectInvocationHandler;
 import org.kurento.client.internal.client.RomManager;
 import org.kurento.client.internal.server.ProtocolException;
 import org.kurento.client.internal.server.RemoteObjectManager;
+import org.kurento.client.internal.transport.serialization.ComplexTypeInfo.Property;
 import org.kurento.jsonrpc.Prop;
 import org.kurento.jsonrpc.Props;
 import org.slf4j.Logger;
@@ -61,6 +65,8 @@ public class ParamsFlattener {
 
 	private static final ParamsFlattener INSTANCE = new ParamsFlattener();
 
+	private final ConcurrentMap<Class<?>, ComplexTypeInfo> complexTypes = new ConcurrentHashMap<>();
+
 	public static ParamsFlattener getInstance() {
 		return INSTANCE;
 	}
@@ -139,6 +145,11 @@ public class ParamsFlattener {
 
 			processedParam = flattenRemoteObject((RemoteObject) param, inTx);
 
+		} else if (param instanceof AbstractKurentoObject) {
+
+			processedParam = flattenRemoteObject(
+					((AbstractKurentoObject) param).getRemoteObject(), inTx);
+
 		} else if (param instanceof Proxy) {
 
 			InvocationHandler handler = Proxy.getInvocationHandler(param);
@@ -211,31 +222,20 @@ public class ParamsFlattener {
 	private Object extractResultAsProps(Object result,
 			RemoteObjectManager manager) {
 
-		Map<String, Object> propsMap = new HashMap<>();
-		for (Method method : result.getClass().getMethods()) {
-
-			String propName = null;
-
-			String methodName = method.getName();
-			if (methodName.startsWith("is")) {
-				propName = methodName.substring(2, methodName.length());
-			} else if (methodName.startsWith("get")
-					&& !methodName.equals("getClass")) {
-				propName = methodName.substring(3, methodName.length());
-			}
+		List<Property> properties = getComplexTypeInfo(result.getClass())
+				.getProperties();
 
-			if (propName != null) {
-				try {
-					propName = Character.toLowerCase(propName.charAt(0))
-							+ propName.substring(1);
-					Object value = flattenResult(method.invoke(result), manager);
-					propsMap.put(propName, value);
-
-				} catch (Exception e) {
-					log.warn(
-							"Exception while accessing prop '{}' in param object: {}",
-							propName, result, e);
-				}
+		Map<String, Object> propsMap = new HashMap<>();
+		for (Property property : properties) {
+			try {
+				Object value = flattenResult(property.getValue(result),
+						manager);
+				propsMap.put(property.getName(), value);
+
+			} catch (Exception e) {
+				log.warn(
+						"Exception while accessing prop '{}' in param object: {}",
+						property.getName(), result, e);
 			}
 		}
 
@@ -262,31 +262,19 @@ public class ParamsFlattener {
 	 */
 	private Object extractParamAsProps(Object param, boolean inTx) {
 
-		Map<String, Object> propsMap = new HashMap<>();
-		for (Method method : param.getClass().getMethods()) {
-
-			String propName = null;
-
-			String methodName = method.getName();
-			if (methodName.startsWith("is")) {
-				propName = methodName.substring(2, methodName.length());
-			} else if (methodName.startsWith("get")
-					&& !methodName.equals("getClass")) {
-				propName = methodName.substring(3, methodName.length());
-			}
+		List<Property> properties = getComplexTypeInfo(param.getClass())
+				.getProperties();
 
-			if (propName != null) {
-				try {
-					propName = Character.toLowerCase(propName.charAt(0))
-							+ propName.substring(1);
-					Object value = flattenParam(method.invoke(param), inTx);
-					propsMap.put(propName, value);
-
-				} catch (Exception e) {
-					log.warn(
-							"Exception while accessing prop '{}' in param object: {}",
-							propName, param, e);
-				}
+		Map<String, Object> propsMap = new HashMap<>();
+		for (Property property : properties) {
+			try {
+				Object value = flattenParam(property.getValue(param), inTx);
+				propsMap.put(property.getName(), value);
+
+			} catch (Exception e) {
+				log.warn(
+						"Exception while accessing prop '{}' in param object: {}",
+						property.getName(), param, e);
 			}
 		}
 
@@ -368,13 +356,18 @@ public class ParamsFlattener {
 	private Object unflattedComplexType(Class<?> clazz, Props props,
 			ObjectRefsManager manager) {
 
-		Constructor<?> constructor = clazz.getConstructors()[0];
+		ComplexTypeInfo typeInfo = getComplexTypeInfo(clazz);
 
-		Object[] constParams = new Object[constructor.getParameterTypes().length];
+		Constructor<?> constructor = typeInfo.getConstructor();
+		if (constructor == null) {
+			throw new ProtocolException("The class '" + clazz.getSimpleName()
+					+ "' has no public constructor");
+		}
+
+		List<String> paramNames = typeInfo.getConstructorParamNames();
+		Class<?>[] constClasses = typeInfo.getConstructorParamTypes();
 
-		List<String> paramNames = ParamAnnotationUtils
-				.getParamNames(constructor);
-		Class<?>[] constClasses = constructor.getParameterTypes();
+		Object[] constParams = new Object[constClasses.length];
 
 		for (int i = 0; i < constParams.length; i++) {
 			String paramName = paramNames.get(i);
@@ -416,7 +409,8 @@ public class ParamsFlattener {
 				RemoteObject newRemoteObject = new RemoteObject(value,
 						((Class<?>) type).getSimpleName(), clientManager);
 				clientManager.registerObject(value, newRemoteObject);
-				return newRemoteObject;
+				return KurentoObjectFactory.create(newRemoteObject,
+						clientManager, (Class<?>) type);
 
 			}
 
@@ -446,6 +440,22 @@ public class ParamsFlattener {
 				+ "' not found in enumType '" + type.toString() + "'");
 	}
 
+	private ComplexTypeInfo getComplexTypeInfo(Class<?> clazz) {
+
+		ComplexTypeInfo typeInfo = complexTypes.get(clazz);
+
+		if (typeInfo == null) {
+			typeInfo = new ComplexTypeInfo(clazz);
+			ComplexTypeInfo oldTypeInfo = complexTypes.putIfAbsent(clazz,
+					typeInfo);
+			if (oldTypeInfo != null) {
+				typeInfo = oldTypeInfo;
+			}
+		}
+
+		return typeInfo;
+	}
+
 	public Type calculateFlattenType(Type type) {
 		switch (getRomType(type)) {
 		case BOOLEAN:
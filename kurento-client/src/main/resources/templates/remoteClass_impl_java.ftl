@@ -0,0 +1,109 @@
+${packageToFolder(module.code.api.java.packageName)}/${remoteClass.name}Impl.java
+<#include "macros.ftm" >
+<#macro type type><#assign t = getJavaObjectType(type,true)><#if t?contains("<")>new com.google.gson.reflect.TypeToken<${t}>() {}.getType()<#else>${t}.class</#if></#macro>
+<#macro props params><#if params?size == 0>null<#else>new org.kurento.jsonrpc.Props()<#list params as param>.add("${param.name}", ${param.name})</#list></#if></#macro>
+/**
+ * This file is generated with Kurento-maven-plugin.
+ * Please don't edit.
+ */
+package ${module.code.api.java.packageName};
+
+<#if module.code.api.java.packageName != "org.kurento.client">
+import org.kurento.client.*;
+</#if>
+
+/**
+ *
+ * Client implementation of {@link ${remoteClass.name}}. Instances are created
+ * by the client; applications should only use the interface.
+ *
+ **/
+@SuppressWarnings("unchecked")
+public class ${remoteClass.name}Impl extends <#if remoteClass.extends??>${remoteClass.extends.name}Impl<#else>org.kurento.client.internal.client.AbstractKurentoObject</#if> implements ${remoteClass.name} {
+
+   <#list remoteClass.properties as property>
+  private static final java.lang.reflect.Type GET_${property.name?upper_case}_TYPE = <@type property.type />;
+   </#list>
+   <#list remoteClass.methods as method>
+  private static final java.lang.reflect.Type ${method.name?upper_case}_${method_index}_TYPE = <@type method.return />;
+   </#list>
+
+  public ${remoteClass.name}Impl(org.kurento.client.internal.client.RemoteObject remoteObject, org.kurento.client.internal.client.RomManager manager) {
+    super(remoteObject, manager);
+  }
+
+   <#list remoteClass.properties as property>
+     <#assign type = getJavaObjectType(property.type,false)>
+     <#assign objectType = getJavaObjectType(property.type,true)>
+  @Override
+  public ${type} get${property.name?cap_first}() {
+    return (${objectType}) invoke("get${property.name?cap_first}", null, GET_${property.name?upper_case}_TYPE);
+  }
+
+  @Override
+  public void get${property.name?cap_first}(Continuation<${objectType}> cont) {
+    invoke("get${property.name?cap_first}", null, GET_${property.name?upper_case}_TYPE, cont);
+  }
+
+  @Override
+  public TFuture<${objectType}> get${property.name?cap_first}(Transaction tx) {
+    return invoke("get${property.name?cap_first}", null, GET_${property.name?upper_case}_TYPE, tx);
+  }
+
+     <#if !property.readOnly>
+  @Override
+  public void set${property.name?cap_first}(${type} ${property.name}) {
+    invoke("set${property.name?cap_first}", new org.kurento.jsonrpc.Props("${property.name}", ${property.name}), Void.class);
+  }
+
+  @Override
+  public void set${property.name?cap_first}(${type} ${property.name}, Continuation<Void> cont) {
+    invoke("set${property.name?cap_first}", new org.kurento.jsonrpc.Props("${property.name}", ${property.name}), Void.class, cont);
+  }
+
+  @Override
+  public void set${property.name?cap_first}(${type} ${property.name}, Transaction tx) {
+    invoke("set${property.name?cap_first}", new org.kurento.jsonrpc.Props("${property.name}", ${property.name}), Void.class, tx);
+  }
+
+     </#if>
+   </#list>
+   <#list remoteClass.methods as method>
+     <#assign returnType = getJavaObjectType(method.return,false)>
+     <#assign objectType = getJavaObjectType(method.return,true)>
+  @Override
+  public ${returnType} ${method.name}(<#list method.params as param>${getJavaObjectType(param.type,false)} ${param.name}<#if param_has_next>, </#if></#list>) {
+    <#if returnType != "void">return (${objectType}) </#if>invoke("${method.name}", <@props method.params />, ${method.name?upper_case}_${method_index}_TYPE);
+  }
+
+  @Override
+  public void ${method.name}(<#list method.params as param>${getJavaObjectType(param.type,false)} ${param.name}, </#list>Continuation<${objectType}> cont) {
+    invoke("${method.name}", <@props method.params />, ${method.name?upper_case}_${method_index}_TYPE, cont);
+  }
+
+  @Override
+  public <#if objectType == "Void">void<#else>TFuture<${objectType}></#if> ${method.name}(Transaction tx<#list method.params as param>, ${getJavaObjectType(param.type,false)} ${param.name}</#list>) {
+    <#if objectType != "Void">return </#if>invoke("${method.name}", <@props method.params />, ${method.name?upper_case}_${method_index}_TYPE, tx);
+  }
+
+   </#list>
+   <#list remoteClass.events as event>
+  @Override
+  public ListenerSubscription add${event.name}Listener(EventListener<${event.name}Event> listener) {
+    return addEventListener("${event.name}", ${event.name}Event.class, listener);
+  }
+
+  @Override
+  public void add${event.name}Listener(EventListener<${event.name}Event> listener, Continuation<ListenerSubscription> cont) {
+    addEventListener("${event.name}", ${event.name}Event.class, listener, cont);
+  }
+
+   </#list>
+   <#if remoteClass.name == "MediaPipeline">
+  @Override
+  public Transaction beginTransaction() {
+    return getRemoteObject().beginTransaction();
+  }
+
+   </#if>
+}
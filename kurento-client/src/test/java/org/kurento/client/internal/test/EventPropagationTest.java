@@ -0,0 +1,174 @@
+package org.kurento.client.internal.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.kurento.client.Event;
+import org.kurento.client.EventListener;
+import org.kurento.client.internal.client.EventListenerAdapter;
+import org.kurento.client.internal.client.KurentoObjectFactory;
+import org.kurento.client.internal.client.RemoteObject;
+import org.kurento.client.internal.client.RomManager;
+import org.kurento.client.internal.server.Param;
+import org.kurento.client.internal.test.model.client.SampleClass;
+import org.kurento.jsonrpc.Props;
+
+public class EventPropagationTest {
+
+	public static class ValueEvent implements Event {
+
+		private final SampleClass source;
+		private final String value;
+
+		public ValueEvent(@Param("source") SampleClass source,
+				@Param("value") String value) {
+			this.source = source;
+			this.value = value;
+		}
+
+		public SampleClass getSource() {
+			return source;
+		}
+
+		public String getValue() {
+			return value;
+		}
+	}
+
+	private static class RecordingListener implements
+			EventListener<ValueEvent> {
+
+		private final List<ValueEvent> events = new ArrayList<>();
+		private final List<Thread> threads = new ArrayList<>();
+		private final CountDownLatch latch;
+
+		public RecordingListener(int numEvents) {
+			this.latch = new CountDownLatch(numEvents);
+		}
+
+		@Override
+		public synchronized void onEvent(ValueEvent event) {
+			events.add(event);
+			threads.add(Thread.currentThread());
+			latch.countDown();
+		}
+	}
+
+	private final RomManager manager = new RomManager(StubRomClient.create());
+
+	private final SampleClass object = new SampleClass.Builder("XXX", false,
+			manager).build();
+
+	private final RemoteObject remoteObject = KurentoObjectFactory
+			.getRemoteObject(object);
+
+	private void addListener(EventListener<ValueEvent> listener) {
+		remoteObject.addEventListener("Value", new EventListenerAdapter(
+				object, ValueEvent.class, listener));
+	}
+
+	private void fireEvent(String value) {
+		manager.getObjectManager().processEvent(remoteObject.getObjectRef(),
+				"subscription", "Value", new Props("value", value));
+	}
+
+	@Test
+	public void sharedEventTest() {
+
+		RecordingListener listener1 = new RecordingListener(1);
+		RecordingListener listener2 = new RecordingListener(1);
+		addListener(listener1);
+		addListener(listener2);
+
+		fireEvent("value1");
+		fireEvent("value2");
+
+		assertEquals(2, listener1.events.size());
+		assertEquals(2, listener2.events.size());
+
+		ValueEvent event = listener1.events.get(0);
+		assertSame(object, event.getSource());
+		assertEquals("value1", event.getValue());
+
+		// Listeners receive the same instance of each event
+		assertSame(event, listener2.events.get(0));
+		assertSame(listener1.events.get(1), listener2.events.get(1));
+		assertNotSame(event, listener1.events.get(1));
+	}
+
+	@Test
+	public void executorTest() throws InterruptedException {
+
+		int numEvents = 1000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		manager.setEventExecutor(executor);
+
+		try {
+			RecordingListener listener = new RecordingListener(numEvents);
+			addListener(listener);
+
+			for (int i = 0; i < numEvents; i++) {
+				fireEvent("value" + i);
+			}
+
+			assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+
+			synchronized (listener) {
+				for (int i = 0; i < numEvents; i++) {
+					// Events of an object are fired in order
+					assertEquals("value" + i, listener.events.get(i).getValue());
+					assertTrue(listener.threads.get(i) != Thread.currentThread());
+				}
+			}
+
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void rejectedExecutionTest() throws InterruptedException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		executor.shutdown();
+		manager.setEventExecutor(executor);
+
+		RecordingListener listener = new RecordingListener(1);
+		addListener(listener);
+
+		// Events are dropped instead of fired in the thread receiving them
+		fireEvent("value1");
+		fireEvent("value2");
+
+		assertTrue(listener.events.isEmpty());
+
+		ExecutorService newExecutor = Executors.newFixedThreadPool(1);
+		manager.setEventExecutor(newExecutor);
+
+		try {
+			fireEvent("value3");
+
+			assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+
+			synchronized (listener) {
+				assertEquals(1, listener.events.size());
+				assertEquals("value3", listener.events.get(0).getValue());
+			}
+
+		} finally {
+			newExecutor.shutdown();
+		}
+	}
+
+}
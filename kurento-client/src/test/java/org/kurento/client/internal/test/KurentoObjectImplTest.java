@@ -0,0 +1,114 @@
+package org.kurento.client.internal.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.kurento.client.Continuation;
+import org.kurento.client.Transaction;
+import org.kurento.client.internal.client.KurentoObjectFactory;
+import org.kurento.client.internal.client.RemoteObject;
+import org.kurento.client.internal.client.RemoteObjectInvocationHandler;
+import org.kurento.client.internal.client.RomManager;
+import org.kurento.client.internal.test.model.client.SampleClass;
+import org.kurento.client.internal.test.model.client.SampleClassImpl;
+import org.kurento.client.internal.test.model.client.SampleEnum;
+import org.kurento.jsonrpc.Props;
+
+public class KurentoObjectImplTest {
+
+	private final RomManager manager = new RomManager(StubRomClient.create());
+
+	private SampleClass createProxy() {
+		RemoteObject remoteObject = manager.create("SampleClass", new Props());
+		return RemoteObjectInvocationHandler.newProxy(remoteObject, manager,
+				SampleClass.class);
+	}
+
+	@Test
+	public void implTest() {
+
+		SampleClass obj = new SampleClass.Builder("XXX", false, manager)
+				.build();
+
+		assertTrue(obj instanceof SampleClassImpl);
+		assertEquals("XXX", obj.getAtt1());
+		assertEquals(22, obj.getAtt4());
+		assertEquals(SampleEnum.CONSTANT_2, obj.echoEnum(SampleEnum.CONSTANT_2));
+
+		RemoteObject remoteObject = KurentoObjectFactory.getRemoteObject(obj);
+		assertSame(obj, remoteObject.getKurentoObject());
+		assertSame(manager, KurentoObjectFactory.getRomManager(obj));
+	}
+
+	@Test
+	public void proxyTest() {
+
+		SampleClass obj = createProxy();
+
+		assertTrue(Proxy.isProxyClass(obj.getClass()));
+		assertEquals("XXX", obj.getAtt1());
+		assertEquals(22, obj.getAtt4());
+		assertEquals(SampleEnum.CONSTANT_2, obj.echoEnum(SampleEnum.CONSTANT_2));
+
+		SampleClass impl = new SampleClass.Builder("XXX", false, manager)
+				.build();
+		assertFalse(obj.equals(impl));
+		assertFalse(impl.equals(obj));
+		assertSame(manager, KurentoObjectFactory.getRomManager(obj));
+	}
+
+	/**
+	 * MediaElement has overloads of connect, so its implementation is
+	 * generated with a return type field for each one of them.
+	 */
+	@Test
+	public void overloadedMethodsTest() throws Exception {
+
+		Class<?> iface = Class.forName("org.kurento.client.MediaElement");
+		Class<?> impl = Class.forName("org.kurento.client.MediaElementImpl");
+
+		int numConnects = 0;
+		for (Method method : iface.getMethods()) {
+			assertFalse(Modifier.isAbstract(impl.getMethod(method.getName(),
+					method.getParameterTypes()).getModifiers()));
+			if (method.getName().equals("connect") && isSync(method)) {
+				numConnects++;
+			}
+		}
+
+		Set<Object> connectTypes = new HashSet<>();
+		for (Field field : impl.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers())
+					&& field.getName().matches("CONNECT_\\d+_TYPE")) {
+				field.setAccessible(true);
+				connectTypes.add(field.getName());
+				assertTrue(field.get(null) instanceof Type);
+			}
+		}
+
+		assertTrue(numConnects > 1);
+		assertEquals(numConnects, connectTypes.size());
+	}
+
+	private boolean isSync(Method method) {
+		for (Class<?> paramType : method.getParameterTypes()) {
+			if (paramType == Continuation.class
+					|| paramType == Transaction.class) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
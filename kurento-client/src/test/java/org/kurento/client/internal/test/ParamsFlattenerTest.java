@@ -0,0 +1,53 @@
+package org.kurento.client.internal.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.kurento.client.internal.test.model.client.ComplexParam;
+import org.kurento.client.internal.transport.serialization.ParamsFlattener;
+import org.kurento.jsonrpc.Props;
+
+public class ParamsFlattenerTest {
+
+	private final ParamsFlattener flattener = ParamsFlattener.getInstance();
+
+	@Test
+	public void complexTypeTest() {
+
+		ComplexParam param = new ComplexParam("value1", 2);
+		param.setProp4(0.5f);
+
+		Props props = (Props) flattener.flattenParams(
+				new Props("param", param)).getProp("param");
+
+		assertEquals("value1", props.getProp("prop1"));
+		assertEquals(2, props.getProp("prop2"));
+		assertNull(props.getProp("prop3"));
+		assertEquals(0.5f, props.getProp("prop4"));
+		assertEquals(false, props.hasProp("class"));
+
+		ComplexParam value = (ComplexParam) flattener.unflattenValue("param",
+				ComplexParam.class, props, null);
+
+		assertEquals("value1", value.getProp1());
+		assertEquals(2, value.getProp2());
+	}
+
+	@Test
+	public void complexTypeListTest() {
+
+		List<ComplexParam> params = Arrays.asList(new ComplexParam("value1",
+				1), new ComplexParam("value2", 2));
+
+		List<?> list = (List<?>) flattener.flattenParams(
+				new Props("param", params)).getProp("param");
+
+		assertEquals(2, list.size());
+		assertEquals("value2", ((Props) list.get(1)).getProp("prop1"));
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.kurento.client.internal.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kurento.client.internal.client.RomClient;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * RomClient answering the invocations of SampleClass without a server, so
+ * only the client side of the invocations is exercised.
+ */
+public class StubRomClient implements InvocationHandler {
+
+	private final AtomicInteger numObjects = new AtomicInteger();
+
+	public static RomClient create() {
+		return (RomClient) Proxy.newProxyInstance(
+				StubRomClient.class.getClassLoader(),
+				new Class<?>[] { RomClient.class }, new StubRomClient());
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+			throws Throwable {
+
+		switch (method.getName()) {
+		case "create":
+			return "object" + numObjects.incrementAndGet();
+		case "invoke":
+			return invoke((String) args[1], (Props) args[2]);
+		default:
+			return null;
+		}
+	}
+
+	private Object invoke(String method, Props params) {
+		switch (method) {
+		case "getAtt1":
+			return "XXX";
+		case "getAtt4":
+			return 22;
+		case "echoEnum":
+			return params.getProp("param").toString();
+		default:
+			return null;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package org.kurento.client.internal.test.model.client;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.kurento.client.Continuation;
+import org.kurento.client.EventListener;
+import org.kurento.client.ListenerSubscription;
+import org.kurento.client.internal.client.AbstractKurentoObject;
+import org.kurento.client.internal.client.RemoteObject;
+import org.kurento.client.internal.client.RomManager;
+import org.kurento.client.internal.test.model.client.events.SampleEvent;
+import org.kurento.jsonrpc.Props;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Client implementation of {@link SampleClass}, as generated by the
+ * remoteClass_impl_java template.
+ */
+@SuppressWarnings("unchecked")
+public class SampleClassImpl extends AbstractKurentoObject implements
+		SampleClass {
+
+	private static final Type GET_ATT1_TYPE = String.class;
+	private static final Type GET_ATT2_TYPE = Boolean.class;
+	private static final Type GET_ATT3_TYPE = Float.class;
+	private static final Type GET_ATT4_TYPE = Integer.class;
+	private static final Type STARTTESTEVENTS_0_TYPE = Void.class;
+	private static final Type ECHOENUM_1_TYPE = SampleEnum.class;
+	private static final Type ECHOREGISTER_2_TYPE = ComplexParam.class;
+	private static final Type ECHOLISTENUM_3_TYPE = new TypeToken<List<SampleEnum>>() {
+	}.getType();
+	private static final Type ECHOLISTREGISTER_4_TYPE = new TypeToken<List<ComplexParam>>() {
+	}.getType();
+	private static final Type ECHOOBJECTREF_5_TYPE = SampleClass.class;
+	private static final Type ECHOOBJECTREFLIST_6_TYPE = new TypeToken<List<SampleClass>>() {
+	}.getType();
+
+	public SampleClassImpl(RemoteObject remoteObject, RomManager manager) {
+		super(remoteObject, manager);
+	}
+
+	@Override
+	public String getAtt1() {
+		return (String) invoke("getAtt1", null, GET_ATT1_TYPE);
+	}
+
+	@Override
+	public void getAtt1(Continuation<String> cont) {
+		invoke("getAtt1", null, GET_ATT1_TYPE, cont);
+	}
+
+	@Override
+	public boolean getAtt2() {
+		return (Boolean) invoke("getAtt2", null, GET_ATT2_TYPE);
+	}
+
+	@Override
+	public void getAtt2(Continuation<Boolean> cont) {
+		invoke("getAtt2", null, GET_ATT2_TYPE, cont);
+	}
+
+	@Override
+	public float getAtt3() {
+		return (Float) invoke("getAtt3", null, GET_ATT3_TYPE);
+	}
+
+	@Override
+	public void getAtt3(Continuation<Float> cont) {
+		invoke("getAtt3", null, GET_ATT3_TYPE, cont);
+	}
+
+	@Override
+	public int getAtt4() {
+		return (Integer) invoke("getAtt4", null, GET_ATT4_TYPE);
+	}
+
+	@Override
+	public void getAtt4(Continuation<Integer> cont) {
+		invoke("getAtt4", null, GET_ATT4_TYPE, cont);
+	}
+
+	@Override
+	public void startTestEvents(int numEvents) {
+		invoke("startTestEvents", new Props().add("numEvents", numEvents),
+				STARTTESTEVENTS_0_TYPE);
+	}
+
+	@Override
+	public void startTestEvents(int numEvents, Continuation<Void> cont) {
+		invoke("startTestEvents", new Props().add("numEvents", numEvents),
+				STARTTESTEVENTS_0_TYPE, cont);
+	}
+
+	@Override
+	public SampleEnum echoEnum(SampleEnum param) {
+		return (SampleEnum) invoke("echoEnum", new Props().add("param", param),
+				ECHOENUM_1_TYPE);
+	}
+
+	@Override
+	public void echoEnum(SampleEnum param, Continuation<SampleEnum> cont) {
+		invoke("echoEnum", new Props().add("param", param), ECHOENUM_1_TYPE,
+				cont);
+	}
+
+	@Override
+	public ComplexParam echoRegister(ComplexParam param) {
+		return (ComplexParam) invoke("echoRegister",
+				new Props().add("param", param), ECHOREGISTER_2_TYPE);
+	}
+
+	@Override
+	public void echoRegister(ComplexParam param,
+			Continuation<ComplexParam> cont) {
+		invoke("echoRegister", new Props().add("param", param),
+				ECHOREGISTER_2_TYPE, cont);
+	}
+
+	@Override
+	public List<SampleEnum> echoListEnum(List<SampleEnum> param) {
+		return (List<SampleEnum>) invoke("echoListEnum",
+				new Props().add("param", param), ECHOLISTENUM_3_TYPE);
+	}
+
+	@Override
+	public void echoListEnum(List<SampleEnum> param,
+			Continuation<List<SampleEnum>> cont) {
+		invoke("echoListEnum", new Props().add("param", param),
+				ECHOLISTENUM_3_TYPE, cont);
+	}
+
+	@Override
+	public List<ComplexParam> echoListRegister(List<ComplexParam> param) {
+		return (List<ComplexParam>) invoke("echoListRegister",
+				new Props().add("param", param), ECHOLISTREGISTER_4_TYPE);
+	}
+
+	@Override
+	public void echoListRegister(List<ComplexParam> param,
+			Continuation<List<ComplexParam>> cont) {
+		invoke("echoListRegister", new Props().add("param", param),
+				ECHOLISTREGISTER_4_TYPE, cont);
+	}
+
+	@Override
+	public SampleClass echoObjectRef(SampleClass param) {
+		return (SampleClass) invoke("echoObjectRef",
+				new Props().add("param", param), ECHOOBJECTREF_5_TYPE);
+	}
+
+	@Override
+	public void echoObjectRef(SampleClass param,
+			Continuation<SampleClass> cont) {
+		invoke("echoObjectRef", new Props().add("param", param),
+				ECHOOBJECTREF_5_TYPE, cont);
+	}
+
+	@Override
+	public List<SampleClass> echoObjectRefList(List<SampleClass> param) {
+		return (List<SampleClass>) invoke("echoObjectRefList",
+				new Props().add("param", param), ECHOOBJECTREFLIST_6_TYPE);
+	}
+
+	@Override
+	public void echoObjectRefList(List<SampleClass> param,
+			Continuation<List<SampleClass>> cont) {
+		invoke("echoObjectRefList", new Props().add("param", param),
+				ECHOOBJECTREFLIST_6_TYPE, cont);
+	}
+
+	@Override
+	public ListenerSubscription addSampleListener(
+			EventListener<SampleEvent> listener) {
+		return addEventListener("Sample", SampleEvent.class, listener);
+	}
+
+	@Override
+	public void addSampleListener(EventListener<SampleEvent> listener,
+			Continuation<ListenerSubscription> cont) {
+		addEventListener("Sample", SampleEvent.class, listener, cont);
+	}
+
+}
@@ -0,0 +1,42 @@
+package org.kurento.client.internal.test.sandbox;
+
+import org.kurento.client.internal.test.model.client.ComplexParam;
+import org.kurento.client.internal.transport.serialization.ParamsFlattener;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * Measures the time to flatten a complex type param and unflatten it back.
+ */
+public class FlattenTimeBenchmark {
+
+	private static final int NUM_VALUES = 200000;
+
+	private static final ParamsFlattener flattener = ParamsFlattener
+			.getInstance();
+
+	public static void main(String[] args) {
+
+		// Warm up
+		flatten();
+
+		long time = flatten();
+
+		System.out.println("Flatten and unflatten time: " + time / NUM_VALUES
+				+ " ns/op");
+	}
+
+	private static long flatten() {
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < NUM_VALUES; i++) {
+			Props props = (Props) flattener.flattenParams(
+					new Props("param", new ComplexParam("value", i))).getProp(
+					"param");
+			flattener.unflattenValue("param", ComplexParam.class, props, null);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+}
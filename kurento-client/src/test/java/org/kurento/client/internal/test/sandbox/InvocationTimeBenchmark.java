@@ -0,0 +1,54 @@
+package org.kurento.client.internal.test.sandbox;
+
+import org.kurento.client.internal.client.RemoteObject;
+import org.kurento.client.internal.client.RemoteObjectInvocationHandler;
+import org.kurento.client.internal.client.RomManager;
+import org.kurento.client.internal.test.StubRomClient;
+import org.kurento.client.internal.test.model.client.SampleClass;
+import org.kurento.client.internal.test.model.client.SampleEnum;
+import org.kurento.jsonrpc.Props;
+
+/**
+ * Compares the client side time of invocations through the generated
+ * implementation class and through the RemoteObjectInvocationHandler proxy.
+ */
+public class InvocationTimeBenchmark {
+
+	private static final int NUM_INVOCATIONS = 200000;
+
+	public static void main(String[] args) {
+
+		RomManager manager = new RomManager(StubRomClient.create());
+
+		SampleClass impl = new SampleClass.Builder("XXX", false, manager)
+				.build();
+
+		RemoteObject remoteObject = manager.create("SampleClass", new Props());
+		SampleClass proxy = RemoteObjectInvocationHandler.newProxy(
+				remoteObject, manager, SampleClass.class);
+
+		// Warm up
+		invoke(impl);
+		invoke(proxy);
+
+		long implTime = invoke(impl);
+		long proxyTime = invoke(proxy);
+
+		System.out.println("Invocation time: " + implTime / NUM_INVOCATIONS
+				+ " ns/op with generated class, " + proxyTime
+				/ NUM_INVOCATIONS + " ns/op with proxy");
+	}
+
+	private static long invoke(SampleClass obj) {
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < NUM_INVOCATIONS; i++) {
+			obj.getAtt4();
+			obj.echoEnum(SampleEnum.CONSTANT_1);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+}
@@ -24,6 +24,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import org.kurento.client.internal.transport.jsonrpc.JsonResponseUtils;
+import org.kurento.control.server.KmsConnectionPool.Kms;
 import org.kurento.control.server.exceptions.KurentoControlServerTransportException;
 import org.kurento.control.server.exceptions.ResponsePropagationException;
 import org.kurento.jsonrpc.DefaultJsonRpcHandler;
@@ -34,7 +35,7 @@ import org.kurento.jsonrpc.Session;
 import org.kurento.jsonrpc.Transaction;
 import org.kurento.jsonrpc.TransportException;
 import org.kurento.jsonrpc.client.Continuation;
-import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.internal.server.RawMessageSender;
 import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
 import org.slf4j.Logger;
@@ -59,13 +60,14 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 	private static final String VALUE_PROPERTY = "value";
 
 	private static final String SUBSCRIBE_METHOD = "subscribe";
+	private static final String ONEVENT_METHOD = "onEvent";
 	private static final String TRANSACTION_METHOD = "transaction";
 
 	private static final Logger log = LoggerFactory
 			.getLogger(JsonRpcHandler.class);
 
 	@Autowired
-	private JsonRpcClient client;
+	private KmsConnectionPool kmsPool;
 
 	private final SubscriptionsManager subsManager = new SubscriptionsManager();
 
@@ -73,20 +75,27 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 
 	@PostConstruct
 	public void init() {
-		client.setServerRequestHandler(new DefaultJsonRpcHandler<JsonObject>() {
+
+		// Events from all media servers are merged and sent to the sessions
+		// subscribed to them
+		DefaultJsonRpcHandler<JsonObject> eventHandler = new DefaultJsonRpcHandler<JsonObject>() {
 
 			@Override
 			public void handleRequest(Transaction transaction,
 					Request<JsonObject> request) throws Exception {
 				internalEventJsonRpc(request);
 			}
-		});
+		};
+
+		for (Kms kms : kmsPool.getKmss()) {
+			kms.getClient().setServerRequestHandler(eventHandler);
+		}
 	}
 
 	@PreDestroy
 	private void destroy() throws IOException {
-		if (client != null) {
-			client.close();
+		if (kmsPool != null) {
+			kmsPool.close();
 		}
 	}
 
@@ -122,7 +131,8 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 
 		} else {
 			try {
-				sendRequest(transaction, request, true);
+				sendRequest(transaction, request, kmsPool.getKms(request),
+						true);
 			} catch (KurentoControlServerTransportException e) {
 				throw new TransportException(e);
 			}
@@ -130,15 +140,17 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 	}
 
 	private void sendRequest(final Transaction transaction,
-			final Request<JsonObject> request, final boolean retry) {
+			final Request<JsonObject> request, final Kms kms,
+			final boolean retry) {
 
 		try {
 
-			client.sendRequest(request.getMethod(), request.getParams(),
-					new Continuation<JsonElement>() {
+			kms.getClient().sendRequest(request.getMethod(),
+					request.getParams(), new Continuation<JsonElement>() {
 
 						@Override
 						public void onSuccess(JsonElement result) {
+							kmsPool.requestCompleted(kms, request, result);
 							if (request.getId() != null) {
 								processIfSubscribeResponse(
 										transaction.getSession(), request,
@@ -152,14 +164,17 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 
 							log.error("Error sending request " + request, cause);
 							if (retry && cause instanceof ConnectException) {
-								sendRequest(transaction, request, false);
+								sendRequest(transaction, request, kms, false);
 							} else {
+								kmsPool.requestFailed(kms, request);
 								requestOnError(cause, transaction);
 							}
 						}
 					});
 
 		} catch (Exception e) {
+			// The pipeline counted by getKms is not going to be created
+			kmsPool.requestFailed(kms, request);
 			throw new KurentoControlServerTransportException(
 					"Exception while executing a command"
 							+ " in Kurento Media Server", e);
@@ -255,8 +270,15 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 			}
 
 			if (!sessions.isEmpty()) {
+
+				// The notification is the same for all the sessions, so it is
+				// serialized only once
+				String notificationJson = JsonUtils.toJson(new Request<>(
+						ONEVENT_METHOD, request.getParams()));
+
 				for (Session session : sessions) {
-					sendNotificationToClient(request, session);
+					sendNotificationToClient(request, notificationJson,
+							session);
 				}
 			} else {
 				log.error("Received event but no client interested in it: {}",
@@ -270,10 +292,16 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 	}
 
 	private void sendNotificationToClient(Request<JsonObject> request,
-			Session session) {
+			String notificationJson, Session session) {
 
 		try {
-			session.sendNotification("onEvent", request.getParams());
+			if (session instanceof RawMessageSender) {
+				// Queued in the session, so a slow client doesn't delay the
+				// events sent to the other ones
+				((RawMessageSender) session).sendMessage(notificationJson);
+			} else {
+				session.sendNotification(ONEVENT_METHOD, request.getParams());
+			}
 		} catch (IOException e) {
 			log.error("Exception while sending event from KMS to the client", e);
 		}
@@ -282,65 +310,68 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 	private void processTransactionRequest(Transaction transaction,
 			Request<JsonObject> request) {
 
-		List<JsonElement> operations = new ArrayList<>();
+		List<Request<JsonObject>> operations = new ArrayList<>();
 		for (JsonElement operation : (JsonArray) request.getParams().get(
 				OPERATIONS_PROPERTY)) {
-			operations.add(operation);
+			operations.add(JsonUtils.fromJsonRequest((JsonObject) operation,
+					JsonObject.class));
 		}
 
-		processTransactionOperations(transaction, operations,
-				new ArrayList<Response<JsonElement>>(),
-				new TransactionManager());
+		TransactionManager txManager = new TransactionManager(operations);
+
+		if (txManager.isCompleted()) {
+			sendTransactionResponse(transaction, txManager);
+		} else {
+			processTransactionOperations(transaction, txManager);
+		}
 	}
 
 	private void processTransactionOperations(final Transaction transaction,
-			final List<JsonElement> operations,
-			final List<Response<JsonElement>> responses,
 			final TransactionManager txManager) {
 
-		if (operations.isEmpty()) {
-
-			try {
-				transaction.sendResponse(responses);
-			} catch (IOException e) {
-				throw new ResponsePropagationException(
-						"Could not send response to client", e);
-			}
-
-		} else {
+		for (int index : txManager.getReadyOperations()) {
+			processTransactionOperation(transaction, index, txManager);
+		}
+	}
 
-			JsonElement atomicRequestJson = operations.remove(0);
+	private void processTransactionOperation(final Transaction transaction,
+			final int index, final TransactionManager txManager) {
 
-			final Request<JsonObject> atomicRequest = JsonUtils
-					.fromJsonRequest((JsonObject) atomicRequestJson,
-							JsonObject.class);
+		final Request<JsonObject> atomicRequest = txManager
+				.updateOperation(index);
 
-			txManager.updateRequest(atomicRequest);
+		final Integer origId = atomicRequest.getId();
+		atomicRequest.setId(null);
 
-			final Integer origId = atomicRequest.getId();
-			atomicRequest.setId(null);
+		final Kms kms = kmsPool.getKms(atomicRequest);
 
-			try {
-
-				client.sendRequest(atomicRequest,
-						new Continuation<Response<JsonElement>>() {
+		try {
 
-							@Override
-							public void onSuccess(Response<JsonElement> response) {
-								txManager.updateResponse(response);
-								processIfSubscribeResponse(
-										transaction.getSession(),
-										atomicRequest, response.getResult());
+			kms.getClient().sendRequest(atomicRequest,
+					new Continuation<Response<JsonElement>>() {
 
-								response.setId(origId);
-								responses.add(response);
+						@Override
+						public void onSuccess(Response<JsonElement> response) {
+							kmsPool.requestCompleted(kms, atomicRequest,
+									response.getResult());
+							processIfSubscribeResponse(
+									transaction.getSession(), atomicRequest,
+									response.getResult());
+
+							response.setId(origId);
+							if (txManager.operationCompleted(index, response)) {
+								sendTransactionResponse(transaction, txManager);
+							} else {
 								processTransactionOperations(transaction,
-										operations, responses, txManager);
+										txManager);
 							}
+						}
 
-							@Override
-							public void onError(Throwable cause) {
-								// TODO Add retry
+						@Override
+						public void onError(Throwable cause) {
+							// TODO Add retry
+							kmsPool.requestFailed(kms, atomicRequest);
+							if (txManager.operationFailed()) {
 								try {
 									transaction.sendError(cause);
 								} catch (IOException e) {
@@ -349,9 +380,12 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 											e);
 								}
 							}
-						});
+						}
+					});
 
-			} catch (IOException e) {
+		} catch (IOException e) {
+			kmsPool.requestFailed(kms, atomicRequest);
+			if (txManager.operationFailed()) {
 				try {
 					transaction.sendError(e);
 				} catch (IOException e1) {
@@ -363,4 +397,15 @@ public final class JsonRpcHandler extends DefaultJsonRpcHandler<JsonObject> {
 			}
 		}
 	}
+
+	private void sendTransactionResponse(Transaction transaction,
+			TransactionManager txManager) {
+
+		try {
+			transaction.sendResponse(txManager.getResponses());
+		} catch (IOException e) {
+			throw new ResponsePropagationException(
+					"Could not send response to client", e);
+		}
+	}
 }
@@ -3,6 +3,9 @@ package org.kurento.control.server;
 import static org.kurento.commons.PropertiesManager.getProperty;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.kurento.jsonrpc.client.JsonRpcClient;
 import org.kurento.jsonrpc.client.JsonRpcClientWebSocket;
@@ -15,6 +18,13 @@ public class KmsConnectionHelper {
 	public static final String KMS_WEBSOCKETS_PORT_PROPERTY = "mediaServer.net.websocket.port";
 	public static final String KMS_WEBSOCKETS_PATH_PROPERTY = "mediaServer.net.websocket.path";
 
+	/**
+	 * Comma separated list of media server ws uris. When set, the control
+	 * server connects to all of them instead of the single media server given
+	 * by host, port and path properties.
+	 */
+	public static final String KMS_WEBSOCKETS_URIS_PROPERTY = "mediaServer.net.websocket.uris";
+
 	public static final String KMS_WEBSOCKETS_HOST_DEFAULT = "localhost";
 	public static final String KMS_WEBSOCKETS_PORT_DEFAULT = "8888";
 	public static final String KMS_WEBSOCKETS_PATH_DEFAULT = "kurento";
@@ -34,6 +44,25 @@ public class KmsConnectionHelper {
 	private static final Logger log = LoggerFactory
 			.getLogger(KmsConnectionHelper.class);
 
+	public static List<JsonRpcClient> createJsonRpcClients() {
+
+		String wsUris = getProperty(KMS_WEBSOCKETS_URIS_PROPERTY);
+		if (wsUris == null || getProperty(RABBITMQ_HOST_PROPERTY) != null) {
+			return Arrays.asList(createJsonRpcClient());
+		}
+
+		List<JsonRpcClient> clients = new ArrayList<>();
+		for (String wsUri : wsUris.split(",")) {
+			wsUri = wsUri.trim();
+			if (!wsUri.isEmpty()) {
+				log.info("KMS ws uri: " + wsUri);
+				clients.add(new JsonRpcClientWebSocket(wsUri));
+			}
+		}
+
+		return clients;
+	}
+
 	public static JsonRpcClient createJsonRpcClient() {
 
 		String rabbitMqHost = getProperty(RABBITMQ_HOST_PROPERTY);
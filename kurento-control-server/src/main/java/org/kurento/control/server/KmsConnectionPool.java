@@ -0,0 +1,200 @@
+package org.kurento.control.server;
+
+import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.CREATE_CONSTRUCTOR_PARAMS;
+import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.CREATE_METHOD;
+import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.CREATE_TYPE;
+import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.INVOKE_OBJECT;
+import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.RELEASE_METHOD;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kurento.client.internal.transport.jsonrpc.JsonResponseUtils;
+import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.message.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Connections to the media servers fronted by the control server.
+ * <p>
+ * The media server of a new MediaPipeline is chosen by a
+ * {@link KmsSelectionPolicy}. Requests over an object are sent to the media
+ * server owning its pipeline, which is found from the object reference prefix
+ * (the pipeline reference, up to the first '/'). Requests not related to a
+ * known pipeline are sent to the first media server.
+ */
+public class KmsConnectionPool {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(KmsConnectionPool.class);
+
+	private static final String MEDIA_PIPELINE_TYPE = "MediaPipeline";
+	private static final String MEDIA_PIPELINE_PARAM = "mediaPipeline";
+
+	public static class Kms {
+
+		private final JsonRpcClient client;
+		private final AtomicInteger numPipelines = new AtomicInteger();
+
+		public Kms(JsonRpcClient client) {
+			this.client = client;
+		}
+
+		public JsonRpcClient getClient() {
+			return client;
+		}
+
+		/**
+		 * Number of pipelines created or being created in this media server.
+		 */
+		public int getNumPipelines() {
+			return numPipelines.get();
+		}
+	}
+
+	private final List<Kms> kmss;
+	private final KmsSelectionPolicy selectionPolicy;
+	private final ConcurrentMap<String, Kms> kmsByPipeline = new ConcurrentHashMap<>();
+
+	public KmsConnectionPool(List<JsonRpcClient> clients,
+			KmsSelectionPolicy selectionPolicy) {
+
+		if (clients.isEmpty()) {
+			throw new IllegalArgumentException(
+					"At least one media server connection is needed");
+		}
+
+		List<Kms> kmss = new ArrayList<>(clients.size());
+		for (JsonRpcClient client : clients) {
+			kmss.add(new Kms(client));
+		}
+
+		this.kmss = Collections.unmodifiableList(kmss);
+		this.selectionPolicy = selectionPolicy;
+	}
+
+	public List<Kms> getKmss() {
+		return kmss;
+	}
+
+	/**
+	 * Returns the media server the request has to be sent to. When the
+	 * request creates a MediaPipeline, the media server is chosen by the
+	 * selection policy and the pipeline is counted in it until
+	 * {@link #requestFailed(Kms, Request)} is called.
+	 */
+	public Kms getKms(Request<JsonObject> request) {
+
+		if (isMediaPipelineCreation(request)) {
+			Kms kms = selectionPolicy.selectKms(kmss);
+			kms.numPipelines.incrementAndGet();
+			return kms;
+		}
+
+		String objectRef = getObjectRef(request);
+		if (objectRef != null) {
+			Kms kms = kmsByPipeline.get(getPipelineRef(objectRef));
+			if (kms != null) {
+				return kms;
+			}
+		}
+
+		return kmss.get(0);
+	}
+
+	/**
+	 * Updates the routes with the result of a request sent to the given media
+	 * server.
+	 */
+	public void requestCompleted(Kms kms, Request<JsonObject> request,
+			JsonElement result) {
+
+		if (isMediaPipelineCreation(request)) {
+
+			String pipelineRef = result != null ? JsonResponseUtils
+					.<String> convertFromResult(result, String.class) : null;
+
+			if (pipelineRef != null) {
+				kmsByPipeline.put(pipelineRef, kms);
+			} else {
+				requestFailed(kms, request);
+			}
+
+		} else if (RELEASE_METHOD.equals(request.getMethod())) {
+
+			String objectRef = getObjectRef(request);
+			if (objectRef != null && kmsByPipeline.remove(objectRef, kms)) {
+				kms.numPipelines.decrementAndGet();
+			}
+		}
+	}
+
+	public void requestFailed(Kms kms, Request<JsonObject> request) {
+		if (isMediaPipelineCreation(request)) {
+			kms.numPipelines.decrementAndGet();
+		}
+	}
+
+	public void close() {
+		for (Kms kms : kmss) {
+			try {
+				kms.getClient().close();
+			} catch (Exception e) {
+				log.warn("Exception closing connection with media server", e);
+			}
+		}
+	}
+
+	private boolean isMediaPipelineCreation(Request<JsonObject> request) {
+		return CREATE_METHOD.equals(request.getMethod())
+				&& MEDIA_PIPELINE_TYPE.equals(getStringParam(
+						request.getParams(), CREATE_TYPE));
+	}
+
+	private String getObjectRef(Request<JsonObject> request) {
+
+		JsonObject params = request.getParams();
+
+		if (CREATE_METHOD.equals(request.getMethod())) {
+			JsonElement constructorParams = params != null ? params
+					.get(CREATE_CONSTRUCTOR_PARAMS) : null;
+			if (constructorParams instanceof JsonObject) {
+				return getStringParam((JsonObject) constructorParams,
+						MEDIA_PIPELINE_PARAM);
+			}
+			return null;
+		}
+
+		return getStringParam(params, INVOKE_OBJECT);
+	}
+
+	private String getPipelineRef(String objectRef) {
+		int index = objectRef.indexOf('/');
+		return index < 0 ? objectRef : objectRef.substring(0, index);
+	}
+
+	private String getStringParam(JsonObject params, String propertyName) {
+
+		if (params == null) {
+			return null;
+		}
+
+		JsonElement value = params.get(propertyName);
+		if (value instanceof JsonPrimitive
+				&& ((JsonPrimitive) value).isString()) {
+			return value.getAsString();
+		}
+
+		return null;
+	}
+
+}
@@ -0,0 +1,15 @@
+package org.kurento.control.server;
+
+import java.util.List;
+
+import org.kurento.control.server.KmsConnectionPool.Kms;
+
+/**
+ * Chooses the media server where a new MediaPipeline is created. All the
+ * objects of the pipeline are created afterwards in the same media server.
+ */
+public interface KmsSelectionPolicy {
+
+	Kms selectKms(List<Kms> kmss);
+
+}
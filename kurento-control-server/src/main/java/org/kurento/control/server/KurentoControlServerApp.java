@@ -4,6 +4,8 @@ import static org.kurento.commons.PropertiesManager.getProperty;
 import static org.kurento.commons.PropertiesManager.getPropertyOrException;
 
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.catalina.connector.Connector;
@@ -52,22 +54,50 @@ public class KurentoControlServerApp implements JsonRpcConfigurer {
 	private static final String LOG_CONFIG_FILE_PROPERTY = "controlServer.logConfigFile";
 	private static final String LOG_CONFIG_FILE_DEFAULT = null;
 
+	public static final String KMS_SELECTION_POLICY_PROPERTY = "controlServer.kmsSelectionPolicy";
+	public static final String KMS_SELECTION_POLICY_LEAST_PIPELINES = "leastPipelines";
+	public static final String KMS_SELECTION_POLICY_ROUND_ROBIN = "roundRobin";
+
 	private static final Logger log = LoggerFactory
 			.getLogger(KurentoControlServerApp.class);
 
-	private static JsonRpcClient client;
+	private static List<JsonRpcClient> clients;
 
 	public static void setJsonRpcClient(JsonRpcClient client) {
-		KurentoControlServerApp.client = client;
+		setJsonRpcClients(Arrays.asList(client));
+	}
+
+	public static void setJsonRpcClients(List<JsonRpcClient> clients) {
+		KurentoControlServerApp.clients = clients;
 	}
 
 	@Bean
-	public JsonRpcClient client() {
+	public KmsConnectionPool kmsConnectionPool() {
+
+		List<JsonRpcClient> kmsClients = clients;
+		if (kmsClients == null) {
+			kmsClients = KmsConnectionHelper.createJsonRpcClients();
+		}
+
+		return new KmsConnectionPool(kmsClients, createKmsSelectionPolicy());
+	}
 
-		if (client != null) {
-			return client;
-		} else {
-			return KmsConnectionHelper.createJsonRpcClient();
+	private KmsSelectionPolicy createKmsSelectionPolicy() {
+
+		String policy = getProperty(KMS_SELECTION_POLICY_PROPERTY,
+				KMS_SELECTION_POLICY_LEAST_PIPELINES);
+
+		switch (policy) {
+		case KMS_SELECTION_POLICY_LEAST_PIPELINES:
+			return new LeastPipelinesKmsSelectionPolicy();
+		case KMS_SELECTION_POLICY_ROUND_ROBIN:
+			return new RoundRobinKmsSelectionPolicy();
+		default:
+			throw new IllegalArgumentException("Property '"
+					+ KMS_SELECTION_POLICY_PROPERTY + "' with value '"
+					+ policy + "' is not valid. Valid values are '"
+					+ KMS_SELECTION_POLICY_LEAST_PIPELINES + "' and '"
+					+ KMS_SELECTION_POLICY_ROUND_ROBIN + "'");
 		}
 	}
 
@@ -0,0 +1,27 @@
+package org.kurento.control.server;
+
+import java.util.List;
+
+import org.kurento.control.server.KmsConnectionPool.Kms;
+
+/**
+ * Selects the media server with fewer pipelines. Pipelines being created are
+ * also counted, so a burst of creations is spread among media servers.
+ */
+public class LeastPipelinesKmsSelectionPolicy implements KmsSelectionPolicy {
+
+	@Override
+	public Kms selectKms(List<Kms> kmss) {
+
+		Kms selected = null;
+		for (Kms kms : kmss) {
+			if (selected == null
+					|| kms.getNumPipelines() < selected.getNumPipelines()) {
+				selected = kms;
+			}
+		}
+
+		return selected;
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.kurento.control.server;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kurento.control.server.KmsConnectionPool.Kms;
+
+/**
+ * Selects each media server in turn.
+ */
+public class RoundRobinKmsSelectionPolicy implements KmsSelectionPolicy {
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	@Override
+	public Kms selectKms(List<Kms> kmss) {
+		int index = next.getAndIncrement() & Integer.MAX_VALUE;
+		return kmss.get(index % kmss.size());
+	}
+
+}
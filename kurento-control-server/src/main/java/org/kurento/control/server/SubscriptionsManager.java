@@ -1,39 +1,70 @@
 package org.kurento.control.server;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.Striped;
 
 import org.kurento.jsonrpc.Session;
 
+/**
+ * Keeps the sessions interested in each subscription and in each
+ * object/event type pair.
+ * <p>
+ * Lookups done when an event arrives don't take any lock and return live
+ * views of the concurrent sets, so no copy is made per event. Each session
+ * keeps the keys it is subscribed to, so removing it doesn't need to walk the
+ * subscriptions of other sessions. Changes to the set of sessions of an
+ * object/event type are done under a lock striped by key, so that an empty
+ * set is never removed while another session is being added to it.
+ * <p>
+ * Subscriptions of a session are added and removed holding the lock of its
+ * {@link SessionSubscriptions}, so a subscription added while the session is
+ * being removed is either removed with it or discarded.
+ */
 public class SubscriptionsManager {
 
+	private static final int NUM_LOCK_STRIPES = 64;
+
 	private final ConcurrentMap<String, Session> sessionsBySubsId = new ConcurrentHashMap<>();
 
-	private final Multimap<String, Session> sessionsByObjAndType = Multimaps
-			.synchronizedSetMultimap(HashMultimap.<String, Session> create());
+	private final ConcurrentMap<String, Set<Session>> sessionsByObjAndType = new ConcurrentHashMap<>();
 
-	public void removeSession(Session session) {
-		removeSessionFromIterator(sessionsByObjAndType.entries().iterator(),
-				session);
-		removeSessionFromIterator(sessionsBySubsId.entrySet().iterator(),
-				session);
+	private final ConcurrentMap<Session, SessionSubscriptions> subscriptionsBySession = new ConcurrentHashMap<>();
+
+	private final Striped<Lock> objAndTypeLocks = Striped
+			.lock(NUM_LOCK_STRIPES);
+
+	private static class SessionSubscriptions {
+
+		private final Set<String> subscriptionIds = newConcurrentSet();
+		private final Set<String> objAndTypes = newConcurrentSet();
+		private boolean removed;
 	}
 
-	private void removeSessionFromIterator(Iterator<Entry<String, Session>> it,
-			Session session) {
-		while (it.hasNext()) {
-			Entry<String, Session> value = it.next();
-			if (value.getValue() == session) {
-				it.remove();
+	public void removeSession(Session session) {
+
+		SessionSubscriptions subscriptions = subscriptionsBySession
+				.remove(session);
+
+		if (subscriptions == null) {
+			return;
+		}
+
+		synchronized (subscriptions) {
+
+			subscriptions.removed = true;
+
+			for (String subscriptionId : subscriptions.subscriptionIds) {
+				sessionsBySubsId.remove(subscriptionId, session);
+			}
+
+			for (String objectAndType : subscriptions.objAndTypes) {
+				removeSessionByObjAndType(objectAndType, session);
 			}
 		}
 	}
@@ -41,12 +72,43 @@ public class SubscriptionsManager {
 	public void addSubscription(String subscriptionId, String objectAndType,
 			Session session) {
 
-		sessionsBySubsId.put(subscriptionId, session);
-		sessionsByObjAndType.put(objectAndType, session);
+		SessionSubscriptions subscriptions = getSessionSubscriptions(session);
+
+		synchronized (subscriptions) {
+
+			if (subscriptions.removed) {
+				// The session has been removed meanwhile
+				return;
+			}
+
+			subscriptions.subscriptionIds.add(subscriptionId);
+			subscriptions.objAndTypes.add(objectAndType);
+
+			sessionsBySubsId.put(subscriptionId, session);
+
+			Lock lock = objAndTypeLocks.get(objectAndType);
+			lock.lock();
+			try {
+				Set<Session> sessions = sessionsByObjAndType
+						.get(objectAndType);
+				if (sessions == null) {
+					sessions = newConcurrentSet();
+					sessionsByObjAndType.put(objectAndType, sessions);
+				}
+				sessions.add(session);
+			} finally {
+				lock.unlock();
+			}
+		}
 	}
 
 	public Collection<Session> getSessionsByObjAndType(String objectAndType) {
-		return sessionsByObjAndType.get(objectAndType);
+		Set<Session> sessions = sessionsByObjAndType.get(objectAndType);
+		if (sessions == null) {
+			return Collections.emptySet();
+		} else {
+			return Collections.unmodifiableSet(sessions);
+		}
 	}
 
 	public Collection<Session> getSessionsBySubscription(String subscriptionId) {
@@ -54,7 +116,45 @@ public class SubscriptionsManager {
 		if (session == null) {
 			return Collections.emptyList();
 		} else {
-			return Arrays.asList(session);
+			return Collections.singletonList(session);
+		}
+	}
+
+	private SessionSubscriptions getSessionSubscriptions(Session session) {
+
+		SessionSubscriptions subscriptions = subscriptionsBySession
+				.get(session);
+
+		if (subscriptions == null) {
+			SessionSubscriptions newSubscriptions = new SessionSubscriptions();
+			subscriptions = subscriptionsBySession.putIfAbsent(session,
+					newSubscriptions);
+			if (subscriptions == null) {
+				subscriptions = newSubscriptions;
+			}
+		}
+
+		return subscriptions;
+	}
+
+	private void removeSessionByObjAndType(String objectAndType,
+			Session session) {
+
+		Lock lock = objAndTypeLocks.get(objectAndType);
+		lock.lock();
+		try {
+			Set<Session> sessions = sessionsByObjAndType.get(objectAndType);
+			if (sessions != null && sessions.remove(session)
+					&& sessions.isEmpty()) {
+				sessionsByObjAndType.remove(objectAndType);
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
+
+	private static <T> Set<T> newConcurrentSet() {
+		return Collections
+				.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+	}
 }
@@ -10,9 +10,15 @@ import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.
 import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.SUBSCRIBE_METHOD;
 import static org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants.SUBSCRIBE_OBJECT;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.kurento.client.internal.transport.jsonrpc.JsonResponseUtils;
 import org.kurento.jsonrpc.message.Request;
@@ -23,48 +29,214 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
+/**
+ * Resolves the "newref:" references between the operations of a transaction.
+ * <p>
+ * When created with the list of operations, it also builds the dependency
+ * graph among them, so that operations that don't depend on others still in
+ * progress can be sent to the media server at the same time. An operation
+ * depends on:
+ * <ul>
+ * <li>the operations that create the objects it references with "newref:"</li>
+ * <li>the previous operation over the same object</li>
+ * <li>the previous operations mentioning its object in their params (e.g. a
+ * connect to it, before releasing it)</li>
+ * <li>the previous operation over each object mentioned in its params</li>
+ * </ul>
+ * Responses are kept in the order of the operations.
+ */
 public class TransactionManager {
 
-	private int numRequest = 0;
-	private Map<Integer, String> newObjectRefsByReqNum = new HashMap<Integer, String>();
-	private boolean lastRequestIsCreate = false;
+	private static final String NEWREF_PREFIX = "newref:";
 
-	public void updateRequest(Request<JsonObject> request) {
+	private Map<Integer, String> newObjectRefsByReqNum = new ConcurrentHashMap<Integer, String>();
+
+	private final List<Request<JsonObject>> operations;
+	private final int[] pendingDependencies;
+	private final List<List<Integer>> dependentOperations;
+	private final List<Response<JsonElement>> responses;
+	private final List<Integer> readyOperations = new ArrayList<>();
+	private int numCompletedOperations = 0;
+	private boolean failed = false;
+
+	public TransactionManager(List<Request<JsonObject>> operations) {
+
+		int numOperations = operations.size();
+
+		this.operations = operations;
+		this.pendingDependencies = new int[numOperations];
+		this.dependentOperations = new ArrayList<>(numOperations);
+		this.responses = new ArrayList<>(Collections
+				.<Response<JsonElement>> nCopies(numOperations, null));
+
+		Map<String, Integer> lastOperationByObject = new HashMap<>();
+		Map<String, List<Integer>> paramOperationsByObject = new HashMap<>();
+
+		for (int i = 0; i < numOperations; i++) {
+
+			Request<JsonObject> operation = operations.get(i);
+
+			// Any string param may be a reference to an object, created in
+			// this transaction ("newref:") or before it
+			Set<String> objectRefs = new HashSet<>();
+			collectObjectRefs(operation.getParams(), objectRefs);
+
+			Set<Integer> dependencies = new HashSet<>();
+			for (String objectRef : objectRefs) {
+				if (isNewRef(objectRef)) {
+					int numReq = getNewRefReqNum(objectRef);
+					if (numReq < i) {
+						dependencies.add(numReq);
+					}
+				}
+
+				Integer previous = lastOperationByObject.get(objectRef);
+				if (previous != null) {
+					dependencies.add(previous);
+				}
+			}
+
+			String object = getTargetObject(operation);
+			if (object != null) {
+
+				Integer previous = lastOperationByObject.put(object, i);
+				if (previous != null) {
+					dependencies.add(previous);
+				}
+
+				// Later operations over the object depend on this one, so they
+				// are ordered after these operations too
+				List<Integer> referencing = paramOperationsByObject
+						.remove(object);
+				if (referencing != null) {
+					dependencies.addAll(referencing);
+				}
+
+				// The target is collected with the params
+				objectRefs.remove(object);
+			}
+
+			for (String objectRef : objectRefs) {
+				List<Integer> referencing = paramOperationsByObject
+						.get(objectRef);
+				if (referencing == null) {
+					referencing = new ArrayList<>();
+					paramOperationsByObject.put(objectRef, referencing);
+				}
+				referencing.add(i);
+			}
+
+			dependentOperations.add(new ArrayList<Integer>());
+			for (int dependency : dependencies) {
+				dependentOperations.get(dependency).add(i);
+			}
+
+			pendingDependencies[i] = dependencies.size();
+			if (dependencies.isEmpty()) {
+				readyOperations.add(i);
+			}
+		}
+	}
+
+	/**
+	 * Returns the operations whose dependencies have been completed and removes
+	 * them from the ready list, so each operation is returned only once.
+	 */
+	public synchronized List<Integer> getReadyOperations() {
+		if (failed || readyOperations.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Integer> ready = new ArrayList<>(readyOperations);
+		readyOperations.clear();
+		return ready;
+	}
+
+	/**
+	 * Returns the operation with the given index, with the references to
+	 * objects created in previous operations already resolved.
+	 */
+	public Request<JsonObject> updateOperation(int index) {
+		Request<JsonObject> operation = operations.get(index);
+		updateRequest(operation);
+		return operation;
+	}
+
+	/**
+	 * Records the response of an operation and makes ready the operations that
+	 * were waiting only for it.
+	 *
+	 * @return true if this was the last operation of the transaction
+	 */
+	public synchronized boolean operationCompleted(int index,
+			Response<JsonElement> response) {
+
+		if (failed) {
+			return false;
+		}
+
+		if (CREATE_METHOD.equals(operations.get(index).getMethod())) {
+			newObjectRefsByReqNum.put(
+					index,
+					JsonResponseUtils.<String> convertFromResult(
+							response.getResult(), String.class));
+		}
+
+		responses.set(index, response);
+
+		for (int dependent : dependentOperations.get(index)) {
+			if (--pendingDependencies[dependent] == 0) {
+				readyOperations.add(dependent);
+			}
+		}
+
+		return ++numCompletedOperations == operations.size();
+	}
+
+	/**
+	 * Marks the transaction as failed. No more operations are made ready and
+	 * the responses of the operations in progress are discarded.
+	 *
+	 * @return true if this is the first failure of the transaction, so the
+	 *         error has to be reported to the client
+	 */
+	public synchronized boolean operationFailed() {
+		if (failed) {
+			return false;
+		}
+		failed = true;
+		return true;
+	}
+
+	public synchronized boolean isCompleted() {
+		return numCompletedOperations == operations.size();
+	}
+
+	public synchronized List<Response<JsonElement>> getResponses() {
+		return new ArrayList<>(responses);
+	}
+
+	private void updateRequest(Request<JsonObject> request) {
 
 		JsonObject params = request.getParams();
 
 		switch (request.getMethod()) {
 		case CREATE_METHOD:
 			updateRecursive(params, CREATE_CONSTRUCTOR_PARAMS);
-			lastRequestIsCreate = true;
 			break;
 		case INVOKE_METHOD:
 			updateRecursive(params, INVOKE_OPERATION_PARAMS);
 			updateSimple(params, INVOKE_OBJECT);
-			lastRequestIsCreate = false;
 			break;
 		case RELEASE_METHOD:
 			updateSimple(params, RELEASE_OBJECT);
-			lastRequestIsCreate = false;
 			break;
 		case SUBSCRIBE_METHOD:
 			updateSimple(params, SUBSCRIBE_OBJECT);
-			lastRequestIsCreate = false;
 			break;
 		}
 
 	}
 
-	public void updateResponse(Response<JsonElement> response) {
-		if (lastRequestIsCreate) {
-			newObjectRefsByReqNum.put(
-					numRequest,
-					JsonResponseUtils.<String> convertFromResult(
-							response.getResult(), String.class));
-		}
-		numRequest++;
-	}
-
 	private void updateSimple(JsonObject params, String propertyName) {
 		String param = params.get(propertyName).getAsString();
 		if (isNewRef(param)) {
@@ -74,12 +246,55 @@ public class TransactionManager {
 	}
 
 	private boolean isNewRef(String param) {
-		return param.startsWith("newref:");
+		return param.startsWith(NEWREF_PREFIX);
+	}
+
+	private int getNewRefReqNum(String param) {
+		return Integer.parseInt(param.substring(NEWREF_PREFIX.length()));
 	}
 
 	private String convertValue(String param) {
-		int numReq = Integer.parseInt(param.substring(7));
-		return newObjectRefsByReqNum.get(numReq);
+		return newObjectRefsByReqNum.get(getNewRefReqNum(param));
+	}
+
+	private String getTargetObject(Request<JsonObject> request) {
+
+		String propertyName;
+		switch (request.getMethod()) {
+		case INVOKE_METHOD:
+			propertyName = INVOKE_OBJECT;
+			break;
+		case RELEASE_METHOD:
+			propertyName = RELEASE_OBJECT;
+			break;
+		case SUBSCRIBE_METHOD:
+			propertyName = SUBSCRIBE_OBJECT;
+			break;
+		default:
+			return null;
+		}
+
+		JsonElement object = request.getParams().get(propertyName);
+		return object instanceof JsonPrimitive ? object.getAsString() : null;
+	}
+
+	private void collectObjectRefs(JsonElement element, Set<String> objectRefs) {
+
+		if (element instanceof JsonPrimitive) {
+			JsonPrimitive value = (JsonPrimitive) element;
+			if (value.isString()) {
+				objectRefs.add(value.getAsString());
+			}
+		} else if (element instanceof JsonObject) {
+			for (Entry<String, JsonElement> prop : ((JsonObject) element)
+					.entrySet()) {
+				collectObjectRefs(prop.getValue(), objectRefs);
+			}
+		} else if (element instanceof JsonArray) {
+			for (JsonElement arrayValue : (JsonArray) element) {
+				collectObjectRefs(arrayValue, objectRefs);
+			}
+		}
 	}
 
 	private void updateRecursive(JsonObject params, String prop) {
@@ -126,7 +341,7 @@ public class TransactionManager {
 						}
 					}
 				} else {
-					updateRecursiveComplex(propValue);
+					updateRecursiveComplex(arrayValue);
 				}
 			}
 		}
@@ -0,0 +1,144 @@
+package org.kurento.control.server;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.kurento.client.internal.transport.jsonrpc.JsonResponseUtils;
+import org.kurento.client.internal.transport.jsonrpc.RomClientJsonRpcClient;
+import org.kurento.control.server.KmsConnectionPool.Kms;
+import org.kurento.jsonrpc.DefaultJsonRpcHandler;
+import org.kurento.jsonrpc.Props;
+import org.kurento.jsonrpc.Transaction;
+import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.client.JsonRpcClientLocal;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.message.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+public class KmsConnectionPoolTest {
+
+	/**
+	 * Stub media server that creates objects with references prefixed by the
+	 * pipeline reference, as the media server does.
+	 */
+	private static class StubKmsHandler extends DefaultJsonRpcHandler<JsonObject> {
+
+		private final String name;
+		private final AtomicInteger numObjects = new AtomicInteger();
+
+		public StubKmsHandler(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void handleRequest(Transaction transaction,
+				Request<JsonObject> request) throws Exception {
+
+			String objectId = name + "_" + numObjects.incrementAndGet();
+
+			JsonObject params = request.getParams();
+			if (!"MediaPipeline".equals(params.get("type").getAsString())) {
+				objectId = params.getAsJsonObject("constructorParams")
+						.get("mediaPipeline").getAsString()
+						+ "/" + objectId;
+			}
+
+			transaction.sendResponse(new Props("value", objectId));
+		}
+	}
+
+	private final RomClientJsonRpcClient rom = new RomClientJsonRpcClient(null);
+
+	private KmsConnectionPool createPool(KmsSelectionPolicy policy) {
+
+		List<JsonRpcClient> clients = new ArrayList<>();
+		for (String name : Arrays.asList("kms1", "kms2", "kms3")) {
+			clients.add(new JsonRpcClientLocal(new StubKmsHandler(name)));
+		}
+
+		return new KmsConnectionPool(clients, policy);
+	}
+
+	private String create(KmsConnectionPool pool, Request<JsonObject> request)
+			throws IOException {
+
+		Kms kms = pool.getKms(request);
+		Response<JsonElement> response = kms.getClient().sendRequest(request);
+		pool.requestCompleted(kms, request, response.getResult());
+
+		return JsonResponseUtils.convertFromResult(response.getResult(),
+				String.class);
+	}
+
+	private String createPipeline(KmsConnectionPool pool) throws IOException {
+		return create(pool,
+				rom.createCreateRequest("MediaPipeline", null, false).request);
+	}
+
+	private String createElement(KmsConnectionPool pool, String pipelineRef)
+			throws IOException {
+		return create(pool, rom.createCreateRequest("PlayerEndpoint",
+				new Props("mediaPipeline", pipelineRef), false).request);
+	}
+
+	@Test
+	public void leastPipelinesTest() throws IOException {
+
+		KmsConnectionPool pool = createPool(new LeastPipelinesKmsSelectionPolicy());
+
+		List<String> pipelines = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			pipelines.add(createPipeline(pool));
+		}
+
+		for (Kms kms : pool.getKmss()) {
+			assertEquals(2, kms.getNumPipelines());
+		}
+
+		// Releasing a pipeline makes its media server the least loaded one
+		Request<JsonObject> release = rom.createReleaseRequest(pipelines
+				.get(1)).request;
+		Kms releasedKms = pool.getKms(release);
+		pool.requestCompleted(releasedKms, release, null);
+
+		assertEquals(1, releasedKms.getNumPipelines());
+		assertThat(pool.getKms(rom.createCreateRequest("MediaPipeline",
+				null, false).request), is(sameInstance(releasedKms)));
+	}
+
+	@Test
+	public void routingTest() throws IOException {
+
+		KmsConnectionPool pool = createPool(new RoundRobinKmsSelectionPolicy());
+
+		String pipeline1 = createPipeline(pool);
+		String pipeline2 = createPipeline(pool);
+
+		Kms kms1 = pool.getKms(rom.createReleaseRequest(pipeline1).request);
+		Kms kms2 = pool.getKms(rom.createReleaseRequest(pipeline2).request);
+		assertThat(kms1, is(not(sameInstance(kms2))));
+
+		// Elements are created in the media server of their pipeline
+		String player = createElement(pool, pipeline2);
+		assertThat(player.startsWith(pipeline2 + "/"), is(true));
+
+		// And requests over them go to the same media server
+		assertThat(pool.getKms(rom.createInvokeRequest(player, "play", null,
+				null, false).request), is(sameInstance(kms2)));
+		assertThat(pool.getKms(rom.createSubscribeRequest(player,
+				"EndOfStream").request), is(sameInstance(kms2)));
+	}
+
+}
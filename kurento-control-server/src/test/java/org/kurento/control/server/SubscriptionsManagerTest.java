@@ -0,0 +1,133 @@
+package org.kurento.control.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.Session;
+
+public class SubscriptionsManagerTest {
+
+	private static final int NUM_ITERATIONS = 1000;
+
+	public static Session createSession(final String sessionId) {
+		return (Session) Proxy.newProxyInstance(
+				Session.class.getClassLoader(),
+				new Class<?>[] { Session.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method,
+							Object[] args) {
+						switch (method.getName()) {
+						case "getSessionId":
+						case "toString":
+							return sessionId;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							throw new UnsupportedOperationException(method
+									.getName());
+						}
+					}
+				});
+	}
+
+	@Test
+	public void removeSessionTest() {
+
+		SubscriptionsManager subsManager = new SubscriptionsManager();
+
+		Session session1 = createSession("session1");
+		Session session2 = createSession("session2");
+
+		subsManager.addSubscription("subs1", "obj1/EndOfStream", session1);
+		subsManager.addSubscription("subs2", "obj1/EndOfStream", session2);
+		subsManager.addSubscription("subs3", "obj2/EndOfStream", session1);
+
+		assertEquals(2, subsManager.getSessionsByObjAndType("obj1/EndOfStream")
+				.size());
+
+		subsManager.removeSession(session1);
+
+		Collection<Session> sessions = subsManager
+				.getSessionsByObjAndType("obj1/EndOfStream");
+		assertEquals(1, sessions.size());
+		assertTrue(sessions.contains(session2));
+		assertTrue(subsManager.getSessionsByObjAndType("obj2/EndOfStream")
+				.isEmpty());
+		assertTrue(subsManager.getSessionsBySubscription("subs1").isEmpty());
+		assertTrue(subsManager.getSessionsBySubscription("subs3").isEmpty());
+		assertEquals(1, subsManager.getSessionsBySubscription("subs2").size());
+
+		// Removing twice or a session without subscriptions is harmless
+		subsManager.removeSession(session1);
+		subsManager.removeSession(createSession("session3"));
+	}
+
+	/**
+	 * Adds a subscription while its session is being removed. The subscription
+	 * must be removed with the session or discarded, but never left behind.
+	 */
+	@Test
+	public void addWhileRemovingTest() throws InterruptedException {
+
+		final SubscriptionsManager subsManager = new SubscriptionsManager();
+
+		for (int i = 0; i < NUM_ITERATIONS; i++) {
+
+			final Session session = createSession("session" + i);
+			subsManager.addSubscription("subs" + i + "_0", "obj/EndOfStream",
+					session);
+
+			final CountDownLatch start = new CountDownLatch(1);
+			final String subscriptionId = "subs" + i + "_1";
+
+			Thread subscriber = new Thread() {
+				@Override
+				public void run() {
+					awaitUninterruptibly(start);
+					subsManager.addSubscription(subscriptionId,
+							"obj/EndOfStream", session);
+				}
+			};
+			Thread remover = new Thread() {
+				@Override
+				public void run() {
+					awaitUninterruptibly(start);
+					subsManager.removeSession(session);
+				}
+			};
+
+			subscriber.start();
+			remover.start();
+			start.countDown();
+			subscriber.join();
+			remover.join();
+
+			// A subscription added after the removal is still known, so
+			// removing the session again cleans it
+			subsManager.removeSession(session);
+
+			assertTrue(subsManager.getSessionsByObjAndType("obj/EndOfStream")
+					.isEmpty());
+			assertTrue(subsManager.getSessionsBySubscription(subscriptionId)
+					.isEmpty());
+		}
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -1,46 +1,151 @@
 package org.kurento.control.server;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 import org.kurento.client.internal.transport.jsonrpc.RomClientJsonRpcClient;
-import org.kurento.client.internal.transport.jsonrpc.RomClientJsonRpcClient.RequestAndResponseType;
 import org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants;
 import org.kurento.jsonrpc.Props;
+import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
 public class TransactionManagerTest {
 
 	@Test
-	public void test() {
+	public void releaseTest() {
+
+		RomClientJsonRpcClient rom = new RomClientJsonRpcClient(null);
+
+		// Objects created before the transaction
+		TransactionManager txManager = new TransactionManager(Arrays.asList(
+				rom.createInvokeRequest("PLA", "connect",
+						new Props("sink", "REC"), null, true).request,
+				rom.createInvokeRequest("HTTP", "getUrl", null, null, true).request,
+				rom.createReleaseRequest("REC").request));
+
+		// The release waits for the connect that references the sink
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(0, 1)));
+		assertFalse(txManager.operationCompleted(1, createResponse("URL")));
+		assertThat(txManager.getReadyOperations(),
+				is(Collections.<Integer> emptyList()));
+		assertFalse(txManager.operationCompleted(0, createResponse(null)));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(2)));
+		assertTrue(txManager.operationCompleted(2, createResponse(null)));
+	}
+
+	@Test
+	public void paramReferencesTest() {
+
+		RomClientJsonRpcClient rom = new RomClientJsonRpcClient(null);
+
+		// Objects created before the transaction
+		TransactionManager txManager = new TransactionManager(Arrays.asList(
+				rom.createInvokeRequest("PLA", "connect",
+						new Props("sink", "REC"), null, true).request,
+				rom.createInvokeRequest("REC", "record", null, null, true).request,
+				rom.createInvokeRequest("HTTP", "connect",
+						new Props("sink", "REC"), null, true).request));
+
+		// Invoking the sink waits for the connect that references it, and the
+		// next connect to it waits for the invocation
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(0)));
+		assertFalse(txManager.operationCompleted(0, createResponse(null)));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(1)));
+		assertFalse(txManager.operationCompleted(1, createResponse(null)));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(2)));
+		assertTrue(txManager.operationCompleted(2, createResponse(null)));
+	}
+
+	@Test
+	public void dependenciesTest() {
 
-		TransactionManager txManager = new TransactionManager();
 		RomClientJsonRpcClient rom = new RomClientJsonRpcClient(null);
 
-		String mediaPipelineRef = "MPR";
+		List<Request<JsonObject>> operations = Arrays.asList(
+				rom.createCreateRequest("MediaPipeline", null, true).request,
+				rom.createCreateRequest("PlayerEndpoint",
+						new Props("mediaPipeline", "newref:0"), true).request,
+				rom.createCreateRequest("RecorderEndpoint",
+						new Props("mediaPipeline", "newref:0"), true).request,
+				rom.createInvokeRequest("newref:1", "connect",
+						new Props("sink", "newref:2"), null, true).request,
+				rom.createInvokeRequest("newref:1", "play", null, null, true).request,
+				rom.createReleaseRequest("newref:1").request);
 
-		RequestAndResponseType createMediaPipelineRequest = rom
-				.createCreateRequest("MediaPipeline", null, false);
-		txManager.updateRequest(createMediaPipelineRequest.request);
+		TransactionManager txManager = new TransactionManager(operations);
 
-		Response<JsonElement> response = new Response<JsonElement>(null,
-				new JsonPrimitive(mediaPipelineRef));
-		txManager.updateResponse(response);
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(0)));
+		assertThat(txManager.getReadyOperations(),
+				is(Collections.<Integer> emptyList()));
 
-		RequestAndResponseType createMediaElementRequest = rom
-				.createCreateRequest("PlayerEndpoint", new Props(
-						"mediaPipeline", "newref:0").add("uri", "http://xxxxx"), false);
-		txManager.updateRequest(createMediaElementRequest.request);
+		assertFalse(txManager.operationCompleted(0, createResponse("MPR")));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(1, 2)));
+
+		assertEquals("MPR", txManager.updateOperation(1).getParams()
+				.get(RomJsonRpcConstants.CREATE_CONSTRUCTOR_PARAMS)
+				.getAsJsonObject().get("mediaPipeline").getAsString());
+
+		// Both endpoints are created at the same time; connect needs both
+		assertFalse(txManager.operationCompleted(2, createResponse("REC")));
+		assertThat(txManager.getReadyOperations(),
+				is(Collections.<Integer> emptyList()));
+		assertFalse(txManager.operationCompleted(1, createResponse("PLA")));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(3)));
+
+		JsonObject connectParams = txManager.updateOperation(3).getParams();
+		assertEquals("PLA", connectParams.get(RomJsonRpcConstants.INVOKE_OBJECT)
+				.getAsString());
+		assertEquals("REC",
+				connectParams.get(RomJsonRpcConstants.INVOKE_OPERATION_PARAMS)
+						.getAsJsonObject().get("sink").getAsString());
+
+		// Operations over the same object keep their order
+		assertFalse(txManager.operationCompleted(3, createResponse(null)));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(4)));
+		assertFalse(txManager.operationCompleted(4, createResponse(null)));
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(5)));
+		assertTrue(txManager.operationCompleted(5, createResponse(null)));
+
+		List<Response<JsonElement>> responses = txManager.getResponses();
+		assertEquals(6, responses.size());
+		assertEquals("PLA", responses.get(1).getResult().getAsString());
+		assertEquals("REC", responses.get(2).getResult().getAsString());
+	}
+
+	@Test
+	public void failureTest() {
+
+		RomClientJsonRpcClient rom = new RomClientJsonRpcClient(null);
+
+		TransactionManager txManager = new TransactionManager(Arrays.asList(
+				rom.createCreateRequest("MediaPipeline", null, true).request,
+				rom.createCreateRequest("HttpGetEndpoint",
+						new Props("mediaPipeline", "newref:0"), true).request));
+
+		assertThat(txManager.getReadyOperations(), is(Arrays.asList(0)));
+		assertTrue(txManager.operationFailed());
+		assertFalse(txManager.operationFailed());
+
+		assertFalse(txManager.operationCompleted(0, createResponse("MPR")));
+		assertThat(txManager.getReadyOperations(),
+				is(Collections.<Integer> emptyList()));
+	}
 
-		assertThat(
-				createMediaElementRequest.request.getParams()
-						.get(RomJsonRpcConstants.CREATE_CONSTRUCTOR_PARAMS)
-						.getAsJsonObject().get("mediaPipeline").getAsString(),
-				is(mediaPipelineRef));
+	private Response<JsonElement> createResponse(String result) {
+		return new Response<JsonElement>(null, result == null ? null
+				: new JsonPrimitive(result));
 	}
 
 }
@@ -0,0 +1,119 @@
+package org.kurento.control.server.sandbox;
+
+import static org.kurento.control.server.SubscriptionsManagerTest.createSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kurento.control.server.SubscriptionsManager;
+import org.kurento.jsonrpc.Session;
+
+/**
+ * Subscribes, dispatches events and removes sessions from several threads at
+ * the same time, and prints the time taken by each kind of operation.
+ */
+public class SubscriptionsContentionBenchmark {
+
+	private static final int NUM_THREADS = 8;
+	private static final int NUM_SESSIONS = 2000;
+	private static final int NUM_OBJECTS = 100;
+	private static final int NUM_EVENTS = 200000;
+
+	public static void main(String[] args) throws InterruptedException {
+
+		final SubscriptionsManager subsManager = new SubscriptionsManager();
+
+		final List<Session> sessions = new ArrayList<>();
+		for (int i = 0; i < NUM_SESSIONS; i++) {
+			sessions.add(createSession("session" + i));
+		}
+
+		final AtomicLong subscribeNanos = new AtomicLong();
+		final AtomicLong dispatchNanos = new AtomicLong();
+		final AtomicLong removeNanos = new AtomicLong();
+		final AtomicLong notifiedSessions = new AtomicLong();
+
+		ExecutorService executor = Executors
+				.newFixedThreadPool(2 * NUM_THREADS);
+		final CountDownLatch subscribed = new CountDownLatch(NUM_THREADS);
+		final CountDownLatch finished = new CountDownLatch(2 * NUM_THREADS);
+
+		for (int t = 0; t < NUM_THREADS; t++) {
+
+			final int thread = t;
+
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+
+					long start = System.nanoTime();
+					for (int i = thread; i < NUM_SESSIONS; i += NUM_THREADS) {
+						for (int j = 0; j < 10; j++) {
+							subsManager.addSubscription("subs" + i + "_" + j,
+									"obj" + ((i + j) % NUM_OBJECTS)
+											+ "/EndOfStream", sessions.get(i));
+						}
+					}
+					subscribeNanos.addAndGet(System.nanoTime() - start);
+					subscribed.countDown();
+
+					try {
+						subscribed.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+
+					start = System.nanoTime();
+					for (int i = thread; i < NUM_SESSIONS; i += NUM_THREADS) {
+						subsManager.removeSession(sessions.get(i));
+					}
+					removeNanos.addAndGet(System.nanoTime() - start);
+					finished.countDown();
+				}
+			});
+
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+
+					try {
+						subscribed.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+
+					long start = System.nanoTime();
+					long notified = 0;
+					for (int i = thread; i < NUM_EVENTS; i += NUM_THREADS) {
+						for (Session session : subsManager
+								.getSessionsByObjAndType("obj"
+										+ (i % NUM_OBJECTS) + "/EndOfStream")) {
+							if (session != null) {
+								notified++;
+							}
+						}
+					}
+					dispatchNanos.addAndGet(System.nanoTime() - start);
+					notifiedSessions.addAndGet(notified);
+					finished.countDown();
+				}
+			});
+		}
+
+		finished.await();
+		executor.shutdown();
+
+		System.out.println("Subscribe: " + subscribeNanos.get()
+				/ (NUM_SESSIONS * 10) + " ns/op");
+		System.out.println("Remove session: " + removeNanos.get()
+				/ NUM_SESSIONS + " ns/op");
+		System.out.println("Dispatch: " + dispatchNanos.get() / NUM_EVENTS
+				+ " ns/event (" + notifiedSessions.get()
+				+ " sessions notified)");
+	}
+
+}
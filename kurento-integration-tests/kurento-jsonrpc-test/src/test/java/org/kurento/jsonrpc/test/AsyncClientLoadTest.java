@@ -0,0 +1,118 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.DefaultJsonRpcHandler;
+import org.kurento.jsonrpc.Transaction;
+import org.kurento.jsonrpc.client.Continuation;
+import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.client.JsonRpcClientWebSocket;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.test.base.JsonRpcConnectorBaseTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Sends thousands of asynchronous requests through a single WebSocket
+ * connection to a handler that answers each one after a delay. If the client
+ * parked a thread per pending request, this would take minutes instead of
+ * roughly the handler delay.
+ */
+public class AsyncClientLoadTest extends JsonRpcConnectorBaseTest {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(AsyncClientLoadTest.class);
+
+	private static final int NUM_REQUESTS = 5000;
+
+	private static final int RESPONSE_DELAY_MILLIS = 1000;
+
+	public static class Handler extends DefaultJsonRpcHandler<JsonObject> {
+
+		private ScheduledExecutorService executor = Executors
+				.newScheduledThreadPool(4);
+
+		@Override
+		public void handleRequest(final Transaction transaction,
+				final Request<JsonObject> request) throws Exception {
+
+			transaction.startAsync();
+
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						transaction.sendResponse(request.getParams());
+					} catch (IOException e) {
+						log.warn("Exception sending response", e);
+					}
+				}
+			}, RESPONSE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Test
+	public void test() throws IOException, InterruptedException {
+
+		JsonRpcClient client = new JsonRpcClientWebSocket("ws://localhost:"
+				+ getPort() + "/async_load");
+
+		client.connect();
+
+		final CountDownLatch latch = new CountDownLatch(NUM_REQUESTS);
+		final AtomicInteger errors = new AtomicInteger();
+		final AtomicInteger wrongResults = new AtomicInteger();
+
+		long start = System.currentTimeMillis();
+
+		for (int i = 0; i < NUM_REQUESTS; i++) {
+
+			final JsonObject params = new JsonObject();
+			params.addProperty("object", "MediaPipeline_" + i);
+			params.addProperty("operation", "getName");
+
+			client.sendRequest("invoke", params,
+					new Continuation<JsonElement>() {
+
+						@Override
+						public void onSuccess(JsonElement result) {
+							if (!params.equals(result)) {
+								wrongResults.incrementAndGet();
+							}
+							latch.countDown();
+						}
+
+						@Override
+						public void onError(Throwable cause) {
+							log.warn("Error in async request", cause);
+							errors.incrementAndGet();
+							latch.countDown();
+						}
+					});
+		}
+
+		assertTrue("Not all responses were received in time",
+				latch.await(30, TimeUnit.SECONDS));
+
+		log.info("{} concurrent async requests completed in {} millis",
+				NUM_REQUESTS, System.currentTimeMillis() - start);
+
+		assertEquals(0, errors.get());
+		assertEquals(0, wrongResults.get());
+
+		client.close();
+	}
+
+}
@@ -0,0 +1,276 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.ContainerProvider;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.client.Continuation;
+import org.kurento.jsonrpc.client.JsonRpcClientWebSocket;
+import org.kurento.jsonrpc.internal.JsonRpcConstants;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.message.Response;
+import org.kurento.jsonrpc.test.base.JsonRpcConnectorBaseTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+public class BatchTest extends JsonRpcConnectorBaseTest {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchTest.class);
+
+	private static final int NUM_REQUESTS = 1000;
+
+	// Keeps every batch frame below the default 8KB text buffer of the server
+	private static final int BATCH_SIZE = 50;
+
+	private final BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+
+	private Session wsSession;
+
+	@Before
+	public void connectRawWebSocket() throws Exception {
+
+		wsSession = ContainerProvider.getWebSocketContainer().connectToServer(
+				new Endpoint() {
+					@Override
+					public void onOpen(Session session, EndpointConfig config) {
+						session.addMessageHandler(new MessageHandler.Whole<String>() {
+							@Override
+							public void onMessage(String message) {
+								receivedMessages.add(message);
+							}
+						});
+					}
+				}, ClientEndpointConfig.Builder.create().build(),
+				new URI("ws://localhost:" + getPort() + "/jsonrpc"));
+	}
+
+	@After
+	public void closeRawWebSocket() throws IOException {
+		wsSession.close();
+	}
+
+	private JsonObject createParams(int index) {
+		JsonObject params = new JsonObject();
+		params.addProperty("index", index);
+		return params;
+	}
+
+	private String sendRaw(String message, long timeoutMillis)
+			throws IOException, InterruptedException {
+		wsSession.getBasicRemote().sendText(message);
+		return receivedMessages.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void batchResponsesInRequestOrder() throws IOException {
+
+		JsonRpcClientWebSocket client = new JsonRpcClientWebSocket(
+				"ws://localhost:" + getPort() + "/jsonrpc");
+
+		List<Request<JsonObject>> requests = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			requests.add(new Request<>("echo", createParams(i)));
+		}
+
+		List<Response<JsonElement>> responses = client.sendBatch(requests);
+
+		assertEquals(requests.size(), responses.size());
+		for (int i = 0; i < requests.size(); i++) {
+			assertEquals(requests.get(i).getId(), responses.get(i).getId());
+			assertEquals(createParams(i), responses.get(i).getResult());
+		}
+
+		client.close();
+	}
+
+	@Test
+	public void mixedBatch() throws IOException, InterruptedException {
+
+		String result = sendRaw("[{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"echo\",\"params\":{\"a\":1}},"
+				+ "{\"jsonrpc\":\"2.0\",\"method\":\"echo\",\"params\":{\"b\":2}},"
+				+ "1," + "{\"jsonrpc\":\"2.0\",\"id\":2}]", 10000);
+
+		log.info("Mixed batch response: {}", result);
+
+		JsonArray responses = JsonUtils.fromJson(result, JsonArray.class);
+
+		// The notification has no response
+		assertEquals(3, responses.size());
+
+		int echoResponses = 0;
+		int invalidRequestErrors = 0;
+
+		for (JsonElement element : responses) {
+			JsonObject response = element.getAsJsonObject();
+			if (response.has("result")) {
+				assertEquals(1, response.get("id").getAsInt());
+				echoResponses++;
+			} else {
+				assertEquals(JsonRpcConstants.ERROR_INVALID_REQUEST, response
+						.getAsJsonObject("error").get("code").getAsInt());
+				invalidRequestErrors++;
+			}
+		}
+
+		assertEquals(1, echoResponses);
+		assertEquals(2, invalidRequestErrors);
+	}
+
+	@Test
+	public void emptyBatch() throws IOException, InterruptedException {
+
+		JsonObject response = JsonUtils.fromJson(sendRaw("[]", 10000),
+				JsonObject.class);
+
+		assertEquals(JsonRpcConstants.ERROR_INVALID_REQUEST, response
+				.getAsJsonObject("error").get("code").getAsInt());
+	}
+
+	@Test
+	public void notificationsOnlyBatch() throws IOException,
+			InterruptedException {
+
+		String result = sendRaw("[{\"jsonrpc\":\"2.0\",\"method\":\"echo\",\"params\":{\"a\":1}},"
+				+ "{\"jsonrpc\":\"2.0\",\"method\":\"echo\",\"params\":{\"b\":2}}]",
+				1000);
+
+		assertNull(result);
+	}
+
+	@Test
+	public void batchThroughput() throws IOException {
+
+		JsonRpcClientWebSocket client = new JsonRpcClientWebSocket(
+				"ws://localhost:" + getPort() + "/jsonrpc");
+		client.connect();
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < NUM_REQUESTS; i++) {
+			client.sendRequest("echo", createParams(i));
+		}
+		long sequentialTime = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		for (int i = 0; i < NUM_REQUESTS; i += BATCH_SIZE) {
+
+			List<Request<JsonObject>> requests = new ArrayList<>();
+			for (int j = i; j < i + BATCH_SIZE; j++) {
+				requests.add(new Request<>("echo", createParams(j)));
+			}
+
+			List<Response<JsonElement>> responses = client.sendBatch(requests);
+
+			assertEquals(BATCH_SIZE, responses.size());
+			assertEquals(createParams(i + BATCH_SIZE - 1),
+					responses.get(BATCH_SIZE - 1).getResult());
+		}
+		long batchTime = System.currentTimeMillis() - start;
+
+		log.info("{} requests: {} millis sequential, {} millis in batches of {}",
+				NUM_REQUESTS, sequentialTime, batchTime, BATCH_SIZE);
+
+		client.close();
+	}
+
+	@Test
+	public void coalescedRequests() throws IOException, InterruptedException {
+
+		JsonRpcClientWebSocket client = new JsonRpcClientWebSocket(
+				"ws://localhost:" + getPort() + "/jsonrpc");
+		client.connect();
+		client.setRequestCoalescing(5, BATCH_SIZE);
+
+		final CountDownLatch latch = new CountDownLatch(NUM_REQUESTS);
+		final AtomicInteger errors = new AtomicInteger();
+
+		for (int i = 0; i < NUM_REQUESTS; i++) {
+
+			final JsonObject params = createParams(i);
+
+			client.sendRequest("echo", params, new Continuation<JsonElement>() {
+
+				@Override
+				public void onSuccess(JsonElement result) {
+					if (!params.equals(result)) {
+						errors.incrementAndGet();
+					}
+					latch.countDown();
+				}
+
+				@Override
+				public void onError(Throwable cause) {
+					log.warn("Error in coalesced request", cause);
+					errors.incrementAndGet();
+					latch.countDown();
+				}
+			});
+		}
+
+		assertTrue("Not all responses were received in time",
+				latch.await(30, TimeUnit.SECONDS));
+		assertEquals(0, errors.get());
+
+		// Synchronous requests are coalesced too
+		assertEquals(createParams(-1),
+				client.sendRequest("echo", createParams(-1)));
+
+		client.close();
+	}
+
+	@Test
+	public void coalescedRequestsAfterReconnection() throws IOException {
+
+		JsonRpcClientWebSocket client = new JsonRpcClientWebSocket(
+				"ws://localhost:" + getPort() + "/jsonrpc");
+		client.setRequestCoalescing(5, BATCH_SIZE);
+
+		assertEquals(createParams(0), client.sendRequest("echo",
+				createParams(0)));
+
+		client.close();
+
+		// The client connects again when a request is sent after closing it
+		assertEquals(createParams(1), client.sendRequest("echo",
+				createParams(1)));
+
+		client.close();
+	}
+
+	@Test
+	public void emptyClientBatch() throws IOException {
+
+		JsonRpcClientWebSocket client = new JsonRpcClientWebSocket(
+				"ws://localhost:" + getPort() + "/jsonrpc");
+
+		assertTrue(client.sendBatch(Arrays.<Request<?>> asList()).isEmpty());
+
+		client.close();
+	}
+
+}
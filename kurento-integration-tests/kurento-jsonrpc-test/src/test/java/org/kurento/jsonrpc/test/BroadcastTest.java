@@ -0,0 +1,124 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.DefaultJsonRpcHandler;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.Session;
+import org.kurento.jsonrpc.Transaction;
+import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.internal.server.RawMessageSender;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.test.base.JsonRpcConnectorBaseTest;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Sends notifications serialized only once to several sessions and checks
+ * that every client receives all of them.
+ */
+public class BroadcastTest extends JsonRpcConnectorBaseTest {
+
+	private static final int NUM_CLIENTS = 5;
+
+	private static final int NUM_EVENTS = 100;
+
+	public static class Handler extends DefaultJsonRpcHandler<Integer> {
+
+		private final Set<RawMessageSender> sessions = newConcurrentSet();
+
+		@Override
+		public void afterConnectionClosed(Session session, String status)
+				throws Exception {
+			sessions.remove(session);
+		}
+
+		@Override
+		public void handleRequest(Transaction transaction,
+				Request<Integer> request) throws Exception {
+
+			if ("join".equals(request.getMethod())) {
+
+				sessions.add((RawMessageSender) transaction.getSession());
+
+			} else {
+
+				for (int i = 0; i < request.getParams(); i++) {
+
+					JsonObject params = new JsonObject();
+					params.addProperty("index", i);
+
+					String notificationJson = JsonUtils.toJson(new Request<>(
+							"onEvent", params));
+
+					for (RawMessageSender session : sessions) {
+						session.sendMessage(notificationJson);
+					}
+				}
+			}
+
+			transaction.sendResponse(true);
+		}
+	}
+
+	private static <T> Set<T> newConcurrentSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+	}
+
+	@Test
+	public void test() throws IOException, InterruptedException {
+
+		final CountDownLatch latch = new CountDownLatch(NUM_CLIENTS
+				* NUM_EVENTS);
+
+		List<JsonRpcClient> clients = new ArrayList<>();
+		List<Set<Integer>> receivedIndexes = new ArrayList<>();
+
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+
+			final Set<Integer> indexes = newConcurrentSet();
+			receivedIndexes.add(indexes);
+
+			JsonRpcClient client = createJsonRpcClient("/broadcast");
+
+			client.setServerRequestHandler(new DefaultJsonRpcHandler<JsonObject>() {
+
+				@Override
+				public void handleRequest(Transaction transaction,
+						Request<JsonObject> request) throws Exception {
+
+					indexes.add(request.getParams().get("index").getAsInt());
+					latch.countDown();
+				}
+			});
+
+			client.sendRequest("join");
+			clients.add(client);
+		}
+
+		clients.get(0).sendRequest("broadcast", NUM_EVENTS);
+
+		assertTrue("Not all events were received in time",
+				latch.await(10, TimeUnit.SECONDS));
+
+		for (Set<Integer> indexes : receivedIndexes) {
+			assertEquals(NUM_EVENTS, indexes.size());
+		}
+
+		for (JsonRpcClient client : clients) {
+			client.close();
+		}
+	}
+
+}
@@ -3,9 +3,11 @@ package org.kurento.jsonrpc.test.base;
 import org.kurento.jsonrpc.JsonRpcHandler;
 import org.kurento.jsonrpc.server.JsonRpcConfigurer;
 import org.kurento.jsonrpc.server.JsonRpcHandlerRegistry;
+import org.kurento.jsonrpc.test.AsyncClientLoadTest;
 import org.kurento.jsonrpc.test.AsyncServerTest;
 import org.kurento.jsonrpc.test.BidirectionalMultiTest;
 import org.kurento.jsonrpc.test.BidirectionalTest;
+import org.kurento.jsonrpc.test.BroadcastTest;
 import org.kurento.jsonrpc.test.CloseSessionTest;
 import org.kurento.jsonrpc.test.ConnectionListenerTest;
 import org.kurento.jsonrpc.test.ErrorServerTest;
@@ -61,6 +63,10 @@ public class BootTestApplication implements JsonRpcConfigurer {
 
 		registry.addHandler(new NotificationTest.Handler(), "/notification");
 
+		registry.addHandler(new AsyncClientLoadTest.Handler(), "/async_load");
+
+		registry.addHandler(new BroadcastTest.Handler(), "/broadcast");
+
 	}
 
 	@Bean
@@ -24,6 +24,8 @@ import static org.kurento.jsonrpc.internal.JsonRpcConstants.PARAMS_PROPERTY;
 import static org.kurento.jsonrpc.internal.JsonRpcConstants.RESULT_PROPERTY;
 import static org.kurento.jsonrpc.internal.JsonRpcConstants.SESSION_ID_PROPERTY;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -50,7 +52,11 @@ import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.internal.$Gson$Types;
+import com.google.gson.internal.bind.JsonTreeReader;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  *
@@ -78,9 +84,138 @@ public class JsonUtils {
 		return getGson().toJson(obj);
 	}
 
+	/**
+	 * Converts a Java object into a new {@link JsonObject}. The tree is built
+	 * directly from the object, without serializing it to a String and parsing
+	 * it back. The returned object never shares elements with the original
+	 * object, so it can be modified freely.
+	 *
+	 * @param obj
+	 *            Java Object to be converted
+	 * @return JsonObject representing the object, or null if the object is null
+	 */
 	public static JsonObject toJsonObject(Object obj) {
-		// TODO Optimise this implementation if possible
-		return fromJson(getGson().toJson(obj), JsonObject.class);
+
+		JsonElement element = getGson().toJsonTree(obj);
+
+		if (element.isJsonNull()) {
+			return null;
+		}
+
+		if (!element.isJsonObject()) {
+			throw new JsonSyntaxException("Expected a JsonObject but was "
+					+ element);
+		}
+
+		return (JsonObject) element;
+	}
+
+	/**
+	 * Reads a JSON-RPC message in a single streaming pass. The result is a
+	 * {@link Request} if the message has a method and a {@link Response}
+	 * otherwise. Only params (or result) are materialized as a tree, and the
+	 * sessionId is extracted from them while they are being read.
+	 *
+	 * @param json
+	 *            JSON-RPC message
+	 * @return Request&lt;JsonElement&gt; or Response&lt;JsonElement&gt;
+	 */
+	public static Message fromJsonMessage(String json) {
+
+		try {
+
+			JsonReader reader = new JsonReader(new StringReader(json));
+			reader.setLenient(true);
+
+			return new JsonRpcMessageReader(getGson()).read(reader);
+
+		} catch (IOException | IllegalStateException | NumberFormatException e) {
+			throw new JsonSyntaxException("Exception converting Json '" + json
+					+ "' to a JSON-RPC message", e);
+		}
+	}
+
+	/**
+	 * Reads a JSON-RPC message from an already parsed tree, for example an
+	 * element of a batch array.
+	 *
+	 * @see #fromJsonMessage(String)
+	 */
+	public static Message fromJsonMessage(JsonElement json) {
+
+		try {
+
+			return new JsonRpcMessageReader(getGson()).read(new JsonTreeReader(
+					json));
+
+		} catch (IOException | IllegalStateException | NumberFormatException e) {
+			throw new JsonSyntaxException("Exception converting Json '" + json
+					+ "' to a JSON-RPC message", e);
+		}
+	}
+
+	/**
+	 * Checks if a JSON text is a JSON-RPC batch, that is, an array of
+	 * messages, looking only at its first non blank character.
+	 */
+	public static boolean isJsonBatch(String json) {
+		for (int i = 0; i < json.length(); i++) {
+			char c = json.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				return c == '[';
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a JSON-RPC batch (an array of requests and/or responses) in a
+	 * single streaming pass. Each element is read as in
+	 * {@link #fromJsonMessage(String)}.
+	 *
+	 * @param json
+	 *            JSON-RPC batch
+	 * @return messages in the same order as in the array
+	 */
+	public static List<Message> fromJsonBatch(String json) {
+
+		try {
+
+			JsonReader reader = new JsonReader(new StringReader(json));
+			reader.setLenient(true);
+
+			List<Message> messages = new ArrayList<>();
+
+			reader.beginArray();
+			while (reader.hasNext()) {
+				messages.add(new JsonRpcMessageReader(getGson()).read(reader));
+			}
+			reader.endArray();
+
+			return messages;
+
+		} catch (IOException | IllegalStateException | NumberFormatException e) {
+			throw new JsonSyntaxException("Exception converting Json '" + json
+					+ "' to a JSON-RPC batch", e);
+		}
+	}
+
+	/**
+	 * Joins already serialized JSON-RPC messages in a JSON-RPC batch array.
+	 */
+	public static String toJsonBatch(List<String> jsonMessages) {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for (int i = 0; i < jsonMessages.size(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(jsonMessages.get(i));
+		}
+		sb.append(']');
+
+		return sb.toString();
 	}
 
 	public static <T> Request<T> fromJsonRequest(String json,
@@ -679,3 +814,150 @@ class JsonPropsAdapter implements JsonDeserializer<Props>,
 	}
 
 }
+
+/**
+ * Single pass reader for JSON-RPC messages with JsonElement params or result.
+ * Applies the same validations as {@link JsonRpcRequestDeserializer} and
+ * {@link JsonRpcResponseDeserializer}.
+ */
+class JsonRpcMessageReader {
+
+	private final Gson gson;
+	private final TypeAdapter<JsonElement> elementAdapter;
+
+	private String version;
+	private Integer id;
+	private String method;
+	private JsonElement params;
+	private boolean hasResult;
+	private JsonElement result;
+	private JsonElement error;
+	private String sessionId;
+
+	JsonRpcMessageReader(Gson gson) {
+		this.gson = gson;
+		this.elementAdapter = gson.getAdapter(JsonElement.class);
+	}
+
+	Message read(JsonReader reader) throws IOException {
+
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			throw new JsonParseException(
+					"Invalid JsonRpc message. JsonObject expected, found "
+							+ reader.peek());
+		}
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+
+			String name = reader.nextName();
+
+			switch (name) {
+			case JSON_RPC_PROPERTY:
+				version = readString(reader);
+				break;
+			case ID_PROPERTY:
+				id = readId(reader);
+				break;
+			case METHOD_PROPERTY:
+				method = readString(reader);
+				break;
+			case PARAMS_PROPERTY:
+				params = readExtractingSessionId(reader);
+				break;
+			case RESULT_PROPERTY:
+				hasResult = true;
+				result = readExtractingSessionId(reader);
+				break;
+			case ERROR_PROPERTY:
+				error = elementAdapter.read(reader);
+				break;
+			default:
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if (version == null) {
+			throw new JsonParseException(
+					"Invalid JsonRpc message lacking version '"
+							+ JSON_RPC_PROPERTY + "' field");
+		}
+
+		if (!JSON_RPC_VERSION.equals(version)) {
+			throw new JsonParseException("Invalid JsonRpc version");
+		}
+
+		if (method != null) {
+			return new Request<>(sessionId, id, method, params);
+		}
+
+		if (id == null) {
+			throw new JsonParseException(
+					"Invalid JsonRpc response. It lacks a valid '"
+							+ ID_PROPERTY + "' field");
+		}
+
+		if (hasResult) {
+			return new Response<>(sessionId, id, result);
+		}
+
+		if (error != null) {
+			return new Response<JsonElement>(id, gson.fromJson(error,
+					ResponseError.class));
+		}
+
+		throw new JsonParseException(
+				"Invalid JsonRpc response. It lacks a valid '"
+						+ RESULT_PROPERTY + "' or '" + ERROR_PROPERTY
+						+ "' field");
+	}
+
+	private String readString(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return reader.nextString();
+	}
+
+	private Integer readId(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return Integer.valueOf(reader.nextInt());
+	}
+
+	/**
+	 * Reads params or result as a tree. If it is an object, its sessionId
+	 * member is not added to the tree but stored in the message.
+	 */
+	private JsonElement readExtractingSessionId(JsonReader reader)
+			throws IOException {
+
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			return elementAdapter.read(reader);
+		}
+
+		JsonObject object = new JsonObject();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+
+			String name = reader.nextName();
+			JsonElement value = elementAdapter.read(reader);
+
+			if (SESSION_ID_PROPERTY.equals(name)) {
+				if (!value.isJsonNull()) {
+					sessionId = value.getAsString();
+				}
+			} else {
+				object.add(name, value);
+			}
+		}
+		reader.endObject();
+
+		return object;
+	}
+}
@@ -16,6 +16,7 @@ package org.kurento.jsonrpc.client;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 
 import org.kurento.jsonrpc.JsonRpcHandler;
 import org.kurento.jsonrpc.KeepAliveManager;
@@ -126,6 +127,24 @@ public abstract class JsonRpcClient implements JsonRpcRequestSender, Closeable {
 		rsHelper.sendRequest(request, continuation);
 	}
 
+	/**
+	 * Sends several requests at once. Transports that support it (WebSocket)
+	 * send all of them in a single JSON-RPC batch array.
+	 *
+	 * @param requests
+	 *            requests to be sent. Requests without id are given one
+	 * @return responses in the same order as the requests
+	 */
+	public List<Response<JsonElement>> sendBatch(
+			List<? extends Request<?>> requests) throws IOException {
+		return rsHelper.sendBatch(requests);
+	}
+
+	public void sendBatch(List<? extends Request<?>> requests,
+			Continuation<List<Response<JsonElement>>> continuation) {
+		rsHelper.sendBatch(requests, continuation);
+	}
+
 	public Session getSession() {
 		return session;
 	}
@@ -14,18 +14,23 @@
  */
 package org.kurento.jsonrpc.client;
 
-import static org.kurento.jsonrpc.JsonUtils.fromJson;
-import static org.kurento.jsonrpc.JsonUtils.fromJsonRequest;
-import static org.kurento.jsonrpc.JsonUtils.fromJsonResponse;
+import static org.kurento.jsonrpc.JsonUtils.fromJsonMessage;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -40,14 +45,20 @@ import javax.websocket.OnClose;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 
+import org.apache.http.concurrent.BasicFuture;
+import org.kurento.commons.PropertiesManager;
 import org.kurento.commons.exception.KurentoException;
+import org.kurento.jsonrpc.JsonRpcException;
+import org.kurento.jsonrpc.JsonUtils;
 import org.kurento.jsonrpc.TransportException;
+import org.kurento.jsonrpc.internal.BatchResponsesCollector;
 import org.kurento.jsonrpc.internal.JsonRpcConstants;
 import org.kurento.jsonrpc.internal.JsonRpcRequestSenderHelper;
 import org.kurento.jsonrpc.internal.client.ClientSession;
 import org.kurento.jsonrpc.internal.client.ClientWebSocketResponseSender;
 import org.kurento.jsonrpc.internal.client.TransactionImpl.ResponseSender;
 import org.kurento.jsonrpc.internal.ws.PendingRequests;
+import org.kurento.jsonrpc.message.Message;
 import org.kurento.jsonrpc.message.MessageUtils;
 import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
@@ -55,7 +66,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
 public class JsonRpcClientWebSocket extends JsonRpcClient {
 
@@ -109,6 +119,26 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 
 	private static final long TIMEOUT = 60000;
 
+	public static final String MAX_PENDING_REQUESTS_PROPERTY = "jsonRpcMaxPendingRequests";
+
+	private static final int MAX_PENDING_REQUESTS_DEFAULT_VALUE = 10000;
+
+	private final int maxPendingRequests = PropertiesManager.getProperty(
+			MAX_PENDING_REQUESTS_PROPERTY, MAX_PENDING_REQUESTS_DEFAULT_VALUE);
+
+	private final Semaphore pendingWindow = new Semaphore(maxPendingRequests);
+
+	private static final long SCHEDULER_KEEP_ALIVE_SECONDS = 10;
+
+	private final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+	private volatile int coalescingMaxRequests = 1;
+	private volatile long coalescingMaxDelayMillis;
+
+	private final List<QueuedMessage> queuedMessages = new ArrayList<>();
+	private final Object flushLock = new Object();
+	private ScheduledFuture<?> flushTask;
+
 	public JsonRpcClientWebSocket(String url) {
 		this(url, null);
 	}
@@ -135,31 +165,381 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 
 				internalSendRequestWebSocket(request, resultClass, continuation);
 			}
+
+			@Override
+			protected List<Response<JsonElement>> internalSendBatch(
+					List<? extends Request<?>> requests) throws IOException {
+
+				return internalSendBatchWebSocket(requests);
+			}
+
+			@Override
+			protected void internalSendBatch(
+					List<? extends Request<?>> requests,
+					Continuation<List<Response<JsonElement>>> continuation) {
+
+				internalSendBatchWebSocket(requests, continuation);
+			}
 		};
 	}
 
+	/**
+	 * Enables the coalescing of outgoing requests: requests issued within
+	 * maxDelayMillis of the first queued one (or up to maxRequests of them) are
+	 * sent to the server in a single JSON-RPC batch array. Responses are
+	 * delivered to each request as usual.
+	 *
+	 * @param maxDelayMillis
+	 *            maximum time a request is retained waiting for other requests
+	 * @param maxRequests
+	 *            maximum number of requests in a batch. A value of 1 or less
+	 *            disables coalescing
+	 */
+	public void setRequestCoalescing(long maxDelayMillis, int maxRequests) {
+		this.coalescingMaxDelayMillis = maxDelayMillis;
+		this.coalescingMaxRequests = maxRequests;
+		if (maxRequests <= 1) {
+			flushQueuedMessages();
+		}
+	}
+
 	protected void internalSendRequestWebSocket(
 			final Request<? extends Object> request,
 			final Class<JsonElement> resultClass,
 			final Continuation<Response<JsonElement>> continuation) {
 
-		// FIXME: Poor man async implementation.
-		execService.submit(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					Response<JsonElement> result = internalSendRequestWebSocket(
-							request, resultClass);
+		try {
+			connectIfNecessary();
+		} catch (Exception e) {
+			continuation.onError(e);
+			return;
+		}
+
+		Integer id = request.getId();
+
+		if (id != null && !registerPendingResponse(id, continuation)) {
+			return;
+		}
+
+		try {
+			sendMessage(id, request.toString());
+		} catch (Exception e) {
+			if (id == null || !pendingRequests.cancelResponse(id, e)) {
+				continuation.onError(e);
+			}
+			return;
+		}
+
+		if (id == null) {
+			continuation.onSuccess(null);
+		}
+	}
+
+	protected void internalSendBatchWebSocket(
+			List<? extends Request<?>> requests,
+			Continuation<List<Response<JsonElement>>> continuation) {
+
+		try {
+			connectIfNecessary();
+		} catch (Exception e) {
+			continuation.onError(e);
+			return;
+		}
+
+		BatchResponsesCollector collector = new BatchResponsesCollector(
+				requests.size(), continuation);
+
+		List<String> jsonMessages = new ArrayList<>(requests.size());
+
+		for (int i = 0; i < requests.size(); i++) {
+
+			Request<?> request = requests.get(i);
+
+			if (!registerPendingResponse(request.getId(),
+					collector.getContinuation(i))) {
+				cancelPendingResponses(requests.subList(0, i),
+						new TransportException("Batch request cancelled"));
+				return;
+			}
+
+			jsonMessages.add(request.toString());
+		}
+
+		String jsonBatch = JsonUtils.toJsonBatch(jsonMessages);
+		log.debug("Req-> {}", jsonBatch);
+
+		try {
+			sendText(jsonBatch);
+		} catch (Exception e) {
+			cancelPendingResponses(requests, e);
+		}
+	}
+
+	protected List<Response<JsonElement>> internalSendBatchWebSocket(
+			List<? extends Request<?>> requests) throws IOException {
+
+		final BasicFuture<List<Response<JsonElement>>> responsesFuture = new BasicFuture<>(
+				null);
+
+		internalSendBatchWebSocket(requests,
+				new Continuation<List<Response<JsonElement>>>() {
+
+					@Override
+					public void onSuccess(List<Response<JsonElement>> responses) {
+						responsesFuture.completed(responses);
+					}
+
+					@Override
+					public void onError(Throwable cause) {
+						responsesFuture.failed(cause instanceof Exception ? (Exception) cause
+								: new KurentoException(cause));
+					}
+				});
+
+		try {
+
+			return responsesFuture.get();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KurentoException(
+					"Interrupted while waiting for batch responses", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else {
+				throw new KurentoException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Registers the continuation of a request in {@link PendingRequests} after
+	 * taking a slot of the pending requests window. This method never blocks:
+	 * if the window is full the request fails immediately.
+	 *
+	 * @return false if the request couldn't be registered. In this case, the
+	 *         continuation has already been notified with the error.
+	 */
+	private boolean registerPendingResponse(final Integer id,
+			Continuation<Response<JsonElement>> continuation) {
+
+		if (!pendingWindow.tryAcquire()) {
+			continuation.onError(new TransportException("Max number of "
+					+ maxPendingRequests
+					+ " pending requests reached sending request with id:"
+					+ id));
+			return false;
+		}
+
+		PendingResponse pendingResponse = new PendingResponse(continuation);
+
+		try {
+			pendingRequests.prepareResponse(id, pendingResponse);
+		} catch (JsonRpcException e) {
+			pendingWindow.release();
+			continuation.onError(e);
+			return false;
+		}
+
+		try {
+			pendingResponse.timeoutTask = scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					pendingRequests.cancelResponse(id, new TransportException(
+							"Timeout of " + TIMEOUT
+									+ " milliseconds waiting from response to request with id:"
+									+ id));
+				}
+			}, TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			pendingRequests.cancelResponse(id, new TransportException(
+					"Client closed sending request with id:" + id));
+			return false;
+		}
+
+		return true;
+	}
+
+	private void cancelPendingResponses(List<? extends Request<?>> requests,
+			Exception cause) {
+		for (Request<?> request : requests) {
+			pendingRequests.cancelResponse(request.getId(), cause);
+		}
+	}
+
+	/**
+	 * Sends a message to the server, or queues it to be sent in a batch if
+	 * request coalescing is enabled.
+	 *
+	 * @param id
+	 *            id of the request, used to cancel it if the queued message
+	 *            cannot be sent
+	 */
+	private void sendMessage(Integer id, String jsonMessage)
+			throws IOException {
+
+		log.debug("Req-> {}", jsonMessage.trim());
+
+		int maxRequests = coalescingMaxRequests;
+
+		if (maxRequests <= 1) {
+			sendText(jsonMessage);
+			return;
+		}
+
+		boolean flushNow = false;
+
+		synchronized (queuedMessages) {
+
+			queuedMessages.add(new QueuedMessage(id, jsonMessage));
+
+			if (queuedMessages.size() >= maxRequests) {
+				flushNow = true;
+			} else if (flushTask == null) {
+				flushTask = scheduler.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flushQueuedMessages();
+					}
+				}, coalescingMaxDelayMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (flushNow) {
+			flushQueuedMessages();
+		}
+	}
+
+	private void flushQueuedMessages() {
+
+		// Holding the flush lock while sending guarantees that batches leave
+		// in the same order their messages were queued
+		synchronized (flushLock) {
+
+			List<QueuedMessage> messages;
+
+			synchronized (queuedMessages) {
+
+				if (flushTask != null) {
+					flushTask.cancel(false);
+					flushTask = null;
+				}
+
+				if (queuedMessages.isEmpty()) {
+					return;
+				}
+
+				messages = new ArrayList<>(queuedMessages);
+				queuedMessages.clear();
+			}
+
+			List<String> jsonMessages = new ArrayList<>(messages.size());
+			for (QueuedMessage message : messages) {
+				jsonMessages.add(message.json);
+			}
+
+			try {
+
+				if (jsonMessages.size() == 1) {
+					sendText(jsonMessages.get(0));
+				} else {
+					sendText(JsonUtils.toJsonBatch(jsonMessages));
+				}
+
+			} catch (Exception e) {
+				log.warn("Exception sending batch of {} messages",
+						messages.size(), e);
+				for (QueuedMessage message : messages) {
+					if (message.id != null) {
+						pendingRequests.cancelResponse(message.id, e);
+					}
+				}
+			}
+		}
+	}
+
+	private void sendText(String text) throws IOException {
+		synchronized (wsSession) {
+			wsSession.getBasicRemote().sendText(text);
+		}
+	}
+
+	private static class QueuedMessage {
+
+		private final Integer id;
+		private final String json;
+
+		public QueuedMessage(Integer id, String json) {
+			this.id = id;
+			this.json = json;
+		}
+	}
+
+	/**
+	 * Continuation registered in {@link PendingRequests} for an asynchronous
+	 * request. It is completed from the WebSocket receive callback (or from the
+	 * timeout task), frees the slot in the pending requests window and hands
+	 * the response over to the user continuation in the executor, so that the
+	 * receive thread is never blocked by user code.
+	 */
+	private class PendingResponse implements
+			Continuation<Response<JsonElement>> {
+
+		private final Continuation<Response<JsonElement>> continuation;
+		private volatile ScheduledFuture<?> timeoutTask;
+
+		public PendingResponse(
+				Continuation<Response<JsonElement>> continuation) {
+			this.continuation = continuation;
+		}
+
+		@Override
+		public void onSuccess(final Response<JsonElement> response) {
+
+			finish();
+
+			log.debug("<-Res {}", response);
+
+			if (response.getSessionId() != null) {
+				session.setSessionId(response.getSessionId());
+			}
+
+			execService.execute(new Runnable() {
+				@Override
+				public void run() {
 					try {
-						continuation.onSuccess(result);
+						continuation.onSuccess(response);
 					} catch (Exception e) {
 						log.error("Exception while processing response", e);
 					}
-				} catch (Exception e) {
-					continuation.onError(e);
 				}
+			});
+		}
+
+		@Override
+		public void onError(final Throwable cause) {
+
+			finish();
+
+			execService.execute(new Runnable() {
+				@Override
+				public void run() {
+					continuation.onError(cause);
+				}
+			});
+		}
+
+		private void finish() {
+			pendingWindow.release();
+			ScheduledFuture<?> task = timeoutTask;
+			if (task != null) {
+				task.cancel(false);
 			}
-		});
+		}
 	}
 
 	public synchronized void connectIfNecessary() throws IOException {
@@ -253,16 +633,26 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 
 	private void handleWebSocketTextMessage(String message) throws IOException {
 
-		JsonObject jsonMessage = fromJson(message, JsonObject.class);
+		if (JsonUtils.isJsonBatch(message)) {
+			for (Message jsonMessage : JsonUtils.fromJsonBatch(message)) {
+				handleMessage(jsonMessage);
+			}
+		} else {
+			handleMessage(fromJsonMessage(message));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void handleMessage(Message jsonMessage) throws IOException {
 
-		if (jsonMessage.has(JsonRpcConstants.METHOD_PROPERTY)) {
-			handleRequestFromServer(jsonMessage);
+		if (jsonMessage instanceof Request) {
+			handleRequestFromServer((Request<JsonElement>) jsonMessage);
 		} else {
-			handleResponseFromServer(jsonMessage);
+			handleResponseFromServer((Response<JsonElement>) jsonMessage);
 		}
 	}
 
-	private void handleRequestFromServer(final JsonObject message)
+	private void handleRequestFromServer(final Request<JsonElement> request)
 			throws IOException {
 
 		// TODO: Think better ways to do this:
@@ -276,19 +666,15 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 			@Override
 			public void run() {
 				try {
-					handlerManager.handleRequest(session,
-							fromJsonRequest(message, JsonElement.class), rs);
+					handlerManager.handleRequest(session, request, rs);
 				} catch (IOException e) {
-					log.warn("Exception processing request " + message, e);
+					log.warn("Exception processing request " + request, e);
 				}
 			}
 		});
 	}
 
-	private void handleResponseFromServer(JsonObject message) {
-
-		Response<JsonElement> response = fromJsonResponse(message,
-				JsonElement.class);
+	private void handleResponseFromServer(Response<JsonElement> response) {
 
 		setSessionId(response.getSessionId());
 
@@ -306,11 +692,7 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 			responseFuture = pendingRequests.prepareResponse(request.getId());
 		}
 
-		String jsonMessage = request.toString();
-		log.debug("Req-> {}", jsonMessage.trim());
-		synchronized (wsSession) {
-			wsSession.getBasicRemote().sendText(jsonMessage);
-		}
+		sendMessage(request.getId(), request.toString());
 
 		if (responseFuture == null) {
 			return null;
@@ -337,8 +719,9 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 			throw new KurentoException(
 					"Interrupted while waiting for a response", e);
 		} catch (ExecutionException e) {
-			// TODO Is there a better way to handle this?
-			throw new KurentoException("This exception shouldn't be thrown", e);
+			// The request has been cancelled because it couldn't be sent
+			throw new TransportException("Exception sending request with id:"
+					+ request.getId(), e.getCause());
 		} catch (TimeoutException e) {
 			throw new TransportException("Timeout of " + TIMEOUT
 					+ " milliseconds waiting from response to request with id:"
@@ -346,11 +729,41 @@ public class JsonRpcClientWebSocket extends JsonRpcClient {
 		}
 	}
 
+	private static ScheduledThreadPoolExecutor createScheduler() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+				1, new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r,
+								"JsonRpcClientWebSocket-scheduler");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.setRemoveOnCancelPolicy(true);
+		// The scheduler is not shut down on close, so the client can be
+		// connected again. Its thread finishes when there is nothing to do
+		executor.setKeepAliveTime(SCHEDULER_KEEP_ALIVE_SECONDS,
+				TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	@Override
 	public void close() throws IOException {
-		if (wsSession != null) {
-			clientClose = true;
-			wsSession.close();
+		try {
+			// Coalesced requests are sent before closing, instead of staying
+			// in the queue until the client is connected again
+			flushQueuedMessages();
+
+			if (wsSession != null) {
+				clientClose = true;
+				wsSession.close();
+			}
+		} finally {
+			// Timeout tasks are cancelled with their pending requests
+			pendingRequests.cancelAll(new TransportException(
+					"Client closed with pending requests"));
 		}
 	}
 
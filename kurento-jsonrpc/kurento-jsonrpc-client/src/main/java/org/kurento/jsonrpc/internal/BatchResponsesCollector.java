@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2014 Kurento (http://kurento.org/)
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser General Public License
+ * (LGPL) version 2.1 which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/lgpl-2.1.html
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ */
+package org.kurento.jsonrpc.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.kurento.jsonrpc.client.Continuation;
+import org.kurento.jsonrpc.message.Response;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Gathers the responses of the requests of a batch, that can arrive in any
+ * order, and notifies them in the order of the requests when all of them have
+ * arrived. If any request fails, the batch continuation is notified with the
+ * first error and the rest of responses are discarded.
+ *
+ * @author Micael Gallego (micael.gallego@gmail.com)
+ */
+public class BatchResponsesCollector {
+
+	private final Continuation<List<Response<JsonElement>>> continuation;
+	private final AtomicReferenceArray<Response<JsonElement>> responses;
+	private final AtomicInteger pendingResponses;
+	private final AtomicBoolean failed = new AtomicBoolean();
+
+	public BatchResponsesCollector(int numRequests,
+			Continuation<List<Response<JsonElement>>> continuation) {
+		this.continuation = continuation;
+		this.responses = new AtomicReferenceArray<>(numRequests);
+		this.pendingResponses = new AtomicInteger(numRequests);
+	}
+
+	public Continuation<Response<JsonElement>> getContinuation(final int index) {
+
+		return new Continuation<Response<JsonElement>>() {
+
+			@Override
+			public void onSuccess(Response<JsonElement> response) {
+
+				responses.set(index, response);
+
+				if (pendingResponses.decrementAndGet() == 0 && !failed.get()) {
+
+					List<Response<JsonElement>> result = new ArrayList<>(
+							responses.length());
+					for (int i = 0; i < responses.length(); i++) {
+						result.add(responses.get(i));
+					}
+
+					continuation.onSuccess(result);
+				}
+			}
+
+			@Override
+			public void onError(Throwable cause) {
+				if (failed.compareAndSet(false, true)) {
+					continuation.onError(cause);
+				}
+			}
+		};
+	}
+}
@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
 import org.kurento.jsonrpc.DefaultJsonRpcHandler;
 import org.kurento.jsonrpc.JsonRpcException;
@@ -41,8 +42,14 @@ public class JsonRpcHandlerManager {
 
 	private JsonRpcHandler<?> handler;
 
+	/**
+	 * Type of the params of the requests managed by the handler, resolved
+	 * when the handler is set.
+	 */
+	private Class<?> paramsType;
+
 	public JsonRpcHandlerManager(JsonRpcHandler<?> handler) {
-		this.handler = handler;
+		setJsonRpcHandler(handler);
 	}
 
 	public JsonRpcHandlerManager() {
@@ -55,6 +62,8 @@ public class JsonRpcHandlerManager {
 	 * @param handler
 	 */
 	public void setJsonRpcHandler(JsonRpcHandler<?> handler) {
+		this.paramsType = handler != null ? getParamsType(handler
+				.getHandlerType()) : null;
 		this.handler = handler;
 	}
 
@@ -103,12 +112,10 @@ public class JsonRpcHandlerManager {
 				return;
 			}
 
-			Class<?> paramsType = getParamsType(handler.getHandlerType());
 			Request<?> nonGenRequest;
 			try {
 
-				nonGenRequest = MessageUtils
-						.convertRequest(request, paramsType);
+				nonGenRequest = convertRequest(request);
 
 			} catch (ClassCastException e) {
 
@@ -155,6 +162,18 @@ public class JsonRpcHandlerManager {
 		}
 	}
 
+	private Request<?> convertRequest(Request<JsonElement> request) {
+
+		// Handlers of JSON params receive the request as parsed
+		JsonElement params = request.getParams();
+		if (paramsType == JsonElement.class || params == null
+				|| paramsType == JsonObject.class && params.isJsonObject()) {
+			return request;
+		}
+
+		return MessageUtils.convertRequest(request, paramsType);
+	}
+
 	// TODO Improve this way to obtain the generic parameters in class
 	// hierarchies
 	public static Class<?> getParamsType(Class<?> handlerClass) {
@@ -17,6 +17,9 @@ package org.kurento.jsonrpc.internal;
 import static org.kurento.jsonrpc.JsonUtils.INJECT_SESSION_ID;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.kurento.jsonrpc.JsonRpcErrorException;
@@ -188,6 +191,69 @@ public abstract class JsonRpcRequestSenderHelper implements
 		internalSendRequest(request, JsonElement.class, continuation);
 	}
 
+	/**
+	 * Sends several requests as a JSON-RPC batch. Requests without id are
+	 * given one. The responses are returned in the same order as the requests.
+	 */
+	public List<Response<JsonElement>> sendBatch(
+			List<? extends Request<?>> requests) throws IOException {
+
+		for (Request<?> request : requests) {
+			setIdIfNecessary(request);
+		}
+
+		if (requests.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		return internalSendBatch(requests);
+	}
+
+	public void sendBatch(List<? extends Request<?>> requests,
+			Continuation<List<Response<JsonElement>>> continuation) {
+
+		for (Request<?> request : requests) {
+			setIdIfNecessary(request);
+		}
+
+		if (requests.isEmpty()) {
+			continuation.onSuccess(Collections
+					.<Response<JsonElement>> emptyList());
+			return;
+		}
+
+		internalSendBatch(requests, continuation);
+	}
+
+	/**
+	 * Default batch implementation, sending each request in its own message.
+	 * Transports able to send JSON-RPC batch arrays override it.
+	 */
+	protected List<Response<JsonElement>> internalSendBatch(
+			List<? extends Request<?>> requests) throws IOException {
+
+		List<Response<JsonElement>> responses = new ArrayList<>(
+				requests.size());
+
+		for (Request<?> request : requests) {
+			responses.add(internalSendRequest(request, JsonElement.class));
+		}
+
+		return responses;
+	}
+
+	protected void internalSendBatch(List<? extends Request<?>> requests,
+			Continuation<List<Response<JsonElement>>> continuation) {
+
+		BatchResponsesCollector collector = new BatchResponsesCollector(
+				requests.size(), continuation);
+
+		for (int i = 0; i < requests.size(); i++) {
+			internalSendRequest(requests.get(i), JsonElement.class,
+					collector.getContinuation(i));
+		}
+	}
+
 	protected abstract <P, R> Response<R> internalSendRequest(
 			Request<P> request, Class<R> resultClass) throws IOException;
 
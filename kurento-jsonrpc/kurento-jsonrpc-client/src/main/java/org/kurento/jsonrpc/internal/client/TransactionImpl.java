@@ -17,6 +17,7 @@ package org.kurento.jsonrpc.internal.client;
 import static org.kurento.jsonrpc.JsonUtils.INJECT_SESSION_ID;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.kurento.jsonrpc.Session;
@@ -33,6 +34,14 @@ public class TransactionImpl implements Transaction {
 		void sendResponse(Message message) throws IOException;
 	}
 
+	/**
+	 * Response sender of transports able to send several responses in a
+	 * single JSON-RPC batch array.
+	 */
+	public interface BatchResponseSender extends ResponseSender {
+		void sendResponses(List<? extends Message> messages) throws IOException;
+	}
+
 	private final Session session;
 	private boolean async;
 	private final AtomicBoolean responded = new AtomicBoolean(false);
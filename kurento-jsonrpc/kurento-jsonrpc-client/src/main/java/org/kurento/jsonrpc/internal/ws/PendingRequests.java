@@ -14,11 +14,13 @@
  */
 package org.kurento.jsonrpc.internal.ws;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 
 import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +28,7 @@ import com.google.common.base.Preconditions;
 import com.google.gson.JsonElement;
 
 import org.kurento.jsonrpc.JsonRpcException;
+import org.kurento.jsonrpc.client.Continuation;
 import org.kurento.jsonrpc.message.Response;
 
 public class PendingRequests {
@@ -49,11 +52,86 @@ public class PendingRequests {
 	}
 
 	public Future<Response<JsonElement>> prepareResponse(Integer id) {
+		return registerResponse(id, null);
+	}
+
+	/**
+	 * Registers a continuation to be called when the response with the given
+	 * id arrives. No thread is blocked waiting for the response: the
+	 * continuation is invoked from the thread that calls
+	 * {@link #handleResponse(Response)} or {@link #cancelResponse(Integer,
+	 * Exception)}.
+	 *
+	 * @param id
+	 *            request id
+	 * @param continuation
+	 *            continuation to be notified with the response
+	 */
+	public void prepareResponse(Integer id,
+			final Continuation<Response<JsonElement>> continuation) {
+
+		Preconditions.checkNotNull(continuation,
+				"The continuation cannot be null");
+
+		registerResponse(id, new FutureCallback<Response<JsonElement>>() {
+
+			@Override
+			public void completed(Response<JsonElement> response) {
+				continuation.onSuccess(response);
+			}
+
+			@Override
+			public void failed(Exception cause) {
+				continuation.onError(cause);
+			}
+
+			@Override
+			public void cancelled() {
+				continuation.onError(new CancellationException(
+						"Request cancelled"));
+			}
+		});
+	}
+
+	/**
+	 * Removes the pending request with the given id (if any) and fails it
+	 * with the given cause.
+	 *
+	 * @return true if there was a pending request with this id
+	 */
+	public boolean cancelResponse(Integer id, Exception cause) {
+
+		BasicFuture<Response<JsonElement>> responseFuture = pendingRequests
+				.remove(id);
+
+		if (responseFuture == null) {
+			return false;
+		}
+
+		responseFuture.failed(cause);
+		return true;
+	}
+
+	/**
+	 * Fails all the pending requests with the given cause.
+	 */
+	public void cancelAll(Exception cause) {
+		for (Integer id : pendingRequests.keySet()) {
+			cancelResponse(id, cause);
+		}
+	}
+
+	public int size() {
+		return pendingRequests.size();
+	}
+
+	private BasicFuture<Response<JsonElement>> registerResponse(Integer id,
+			FutureCallback<Response<JsonElement>> callback) {
 
 		Preconditions.checkNotNull(id, "The request id cannot be null");
 
 		BasicFuture<Response<JsonElement>> responseFuture = new BasicFuture<>(
-				null);
+				callback);
 
 		if (pendingRequests.putIfAbsent(id, responseFuture) != null) {
 			throw new JsonRpcException(
@@ -15,31 +15,50 @@
 package org.kurento.jsonrpc.internal.ws;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.kurento.jsonrpc.internal.client.TransactionImpl.ResponseSender;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.internal.client.TransactionImpl.BatchResponseSender;
 import org.kurento.jsonrpc.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-public final class WebSocketResponseSender implements ResponseSender {
+public final class WebSocketResponseSender implements BatchResponseSender {
 
 	private static final Logger log = LoggerFactory
 			.getLogger(WebSocketResponseSender.class);
 
-	private final WebSocketSession wsSession;
+	private final WebSocketSendQueue sendQueue;
 
 	public WebSocketResponseSender(WebSocketSession wsSession) {
-		this.wsSession = wsSession;
+		this(new WebSocketSendQueue(wsSession, null, 1,
+				WebSocketSendQueue.OverflowPolicy.DROP_OLDEST));
+	}
+
+	public WebSocketResponseSender(WebSocketSendQueue sendQueue) {
+		this.sendQueue = sendQueue;
 	}
 
 	@Override
 	public void sendResponse(Message message) throws IOException {
 		String jsonMessage = message.toString();
 		log.debug("<-Res {}", jsonMessage);
-		synchronized (wsSession) {
-			wsSession.sendMessage(new TextMessage(jsonMessage));
+		sendQueue.send(jsonMessage, false);
+	}
+
+	@Override
+	public void sendResponses(List<? extends Message> messages)
+			throws IOException {
+
+		List<String> jsonMessages = new ArrayList<>(messages.size());
+		for (Message message : messages) {
+			jsonMessages.add(message.toString());
 		}
+
+		String jsonBatch = JsonUtils.toJsonBatch(jsonMessages);
+		log.debug("<-Res {}", jsonBatch);
+		sendQueue.send(jsonBatch, false);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,395 @@
+/*
+ * (C) Copyright 2014 Kurento (http://kurento.org/)
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser General Public License
+ * (LGPL) version 2.1 which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/lgpl-2.1.html
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ */
+package org.kurento.jsonrpc.internal.ws;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Bounded queue of the messages to be written to a WebSocket session. The
+ * messages are written by a task run in an executor, so a slow client doesn't
+ * block the threads sending messages to it. Only one task writes a session at
+ * a time, keeping the order of the messages.
+ * <p>
+ * When the queue is full, the {@link OverflowPolicy} decides what to do.
+ * Responses and requests are never dropped; only notifications (events) are.
+ * <p>
+ * Writes to a WebSocket block until the client reads the message. If a write
+ * takes longer than the send time limit, the session is closed by the next
+ * sender, so a client that stopped reading doesn't keep a thread of the
+ * executor forever.
+ */
+public class WebSocketSendQueue {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(WebSocketSendQueue.class);
+
+	private static final int MAX_MESSAGES_PER_TASK = 100;
+
+	public enum OverflowPolicy {
+
+		/** Drops the oldest queued notification to make room. */
+		DROP_OLDEST,
+
+		/** Closes the session, as the client is not able to keep the pace. */
+		CLOSE_SESSION,
+
+		/**
+		 * Blocks the sender until there is room in the queue. A slow client
+		 * blocks the threads sending messages to it, including the ones
+		 * sending events to other clients.
+		 */
+		BLOCK
+	}
+
+	private static class OutboundMessage {
+
+		private final String text;
+		private final boolean droppable;
+
+		public OutboundMessage(String text, boolean droppable) {
+			this.text = text;
+			this.droppable = droppable;
+		}
+	}
+
+	private final WebSocketSession wsSession;
+	private final Executor executor;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final long sendTimeLimit;
+
+	private final ArrayDeque<OutboundMessage> messages;
+	private boolean sending;
+	private boolean closed;
+	private boolean closeSessionWhenSent;
+	private long droppedMessages;
+	private long writeStartTime;
+
+	private final Runnable sendTask = new Runnable() {
+		@Override
+		public void run() {
+			sendQueuedMessages();
+		}
+	};
+
+	/**
+	 * @param executor
+	 *            executor where messages are written. If null, messages are
+	 *            written in the thread sending them, without queueing.
+	 */
+	public WebSocketSendQueue(WebSocketSession wsSession, Executor executor,
+			int capacity, OverflowPolicy overflowPolicy) {
+		this(wsSession, executor, capacity, overflowPolicy, 0);
+	}
+
+	/**
+	 * @param executor
+	 *            executor where messages are written. If null, messages are
+	 *            written in the thread sending them, without queueing.
+	 * @param sendTimeLimit
+	 *            maximum time in millis a message can take to be written
+	 *            before the session is closed. If 0, there is no limit.
+	 */
+	public WebSocketSendQueue(WebSocketSession wsSession, Executor executor,
+			int capacity, OverflowPolicy overflowPolicy, long sendTimeLimit) {
+
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(
+					"Send queue capacity must be positive");
+		}
+
+		this.wsSession = wsSession;
+		this.executor = executor;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.sendTimeLimit = sendTimeLimit;
+		this.messages = new ArrayDeque<>(Math.min(capacity, 1024));
+	}
+
+	/**
+	 * Queues a message to be written to the session.
+	 *
+	 * @param droppable
+	 *            whether the message can be dropped when the queue is full.
+	 *            It should be true only for notifications.
+	 */
+	public void send(String message, boolean droppable) throws IOException {
+
+		if (executor == null) {
+			write(message);
+			return;
+		}
+
+		boolean schedule = false;
+		boolean closeSession = false;
+		String closeReason = null;
+
+		synchronized (this) {
+
+			if (closed || closeSessionWhenSent) {
+				throw new IOException("WebSocket session " + wsSession.getId()
+						+ " is closed");
+			}
+
+			if (isSendTimeLimitExceeded()) {
+				closeSession = true;
+				closeReason = "a message has not been written in "
+						+ sendTimeLimit + " ms";
+			} else if (messages.size() >= capacity) {
+
+				switch (overflowPolicy) {
+				case DROP_OLDEST:
+					if (!dropOldest() && droppable) {
+						messageDropped();
+						return;
+					}
+					break;
+				case BLOCK:
+					if (!waitForRoom()) {
+						closeSession = true;
+						closeReason = "a message has not been written in "
+								+ sendTimeLimit + " ms";
+					}
+					break;
+				case CLOSE_SESSION:
+					closeSession = true;
+					closeReason = "its send queue of " + capacity
+							+ " messages is full";
+					break;
+				}
+			}
+
+			if (closeSession) {
+				closed = true;
+				messages.clear();
+				notifyAll();
+			} else {
+				messages.add(new OutboundMessage(message, droppable));
+				if (!sending) {
+					sending = true;
+					schedule = true;
+				}
+			}
+		}
+
+		if (closeSession) {
+			log.warn("Closing WebSocket session {} because {}",
+					wsSession.getId(), closeReason);
+			// Closing the session also makes a blocked write fail
+			wsSession.close(CloseStatus.SESSION_NOT_RELIABLE);
+			throw new IOException("WebSocket session " + wsSession.getId()
+					+ " closed because " + closeReason);
+		}
+
+		if (schedule && !scheduleSending()) {
+			throw new IOException("Messages to WebSocket session "
+					+ wsSession.getId() + " can't be sent");
+		}
+	}
+
+	/**
+	 * Closes the WebSocket session once the queued messages have been written,
+	 * so a response sent just before closing reaches the client.
+	 */
+	public void closeSession() throws IOException {
+
+		synchronized (this) {
+			if (sending) {
+				closeSessionWhenSent = true;
+				return;
+			}
+			closed = true;
+		}
+
+		wsSession.close();
+	}
+
+	/**
+	 * Discards the queued messages and makes senders fail from now on. It
+	 * should be called when the session is closed.
+	 */
+	public synchronized void close() {
+		closed = true;
+		messages.clear();
+		notifyAll();
+	}
+
+	public synchronized int getQueueDepth() {
+		return messages.size();
+	}
+
+	public synchronized long getDroppedMessages() {
+		return droppedMessages;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	private boolean isSendTimeLimitExceeded() {
+		return sendTimeLimit > 0 && writeStartTime > 0
+				&& System.currentTimeMillis() - writeStartTime > sendTimeLimit;
+	}
+
+	private boolean dropOldest() {
+
+		Iterator<OutboundMessage> it = messages.iterator();
+		while (it.hasNext()) {
+			if (it.next().droppable) {
+				it.remove();
+				messageDropped();
+				return true;
+			}
+		}
+
+		// Only responses and requests are queued. They are not dropped, so
+		// the queue grows over its capacity
+		return false;
+	}
+
+	private void messageDropped() {
+		if (droppedMessages++ == 0) {
+			log.warn(
+					"Send queue of WebSocket session {} is full. Dropping notifications",
+					wsSession.getId());
+		}
+	}
+
+	/**
+	 * @return false if the send time limit was exceeded while waiting
+	 */
+	private boolean waitForRoom() throws IOException {
+
+		try {
+			while (messages.size() >= capacity && !closed) {
+				if (isSendTimeLimitExceeded()) {
+					return false;
+				}
+				wait(sendTimeLimit);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(
+					"Interrupted while waiting for room in the send queue of WebSocket session "
+							+ wsSession.getId(), e);
+		}
+
+		if (closed) {
+			throw new IOException("WebSocket session " + wsSession.getId()
+					+ " is closed");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Schedules the task writing the queued messages. If the executor rejects
+	 * it (e.g. because it has been shut down), nothing would write the
+	 * messages anymore, so the queue is closed and they are discarded.
+	 */
+	private boolean scheduleSending() {
+
+		try {
+			executor.execute(sendTask);
+			return true;
+		} catch (RejectedExecutionException e) {
+
+			int numMessages;
+			synchronized (this) {
+				numMessages = messages.size();
+				sending = false;
+				closed = true;
+				messages.clear();
+				notifyAll();
+			}
+
+			log.warn(
+					"Send task of WebSocket session {} rejected. Discarding {} queued messages",
+					wsSession.getId(), numMessages);
+			return false;
+		}
+	}
+
+	private void sendQueuedMessages() {
+
+		boolean closeSession = false;
+
+		// After some messages, the task is scheduled again, so a busy session
+		// doesn't take over a thread of the executor
+		for (int i = 0; i < MAX_MESSAGES_PER_TASK; i++) {
+
+			OutboundMessage message;
+			synchronized (this) {
+				message = messages.poll();
+				if (message == null) {
+					sending = false;
+					if (closeSessionWhenSent && !closed) {
+						closed = true;
+						closeSession = true;
+						break;
+					}
+					return;
+				}
+				writeStartTime = System.currentTimeMillis();
+				notifyAll();
+			}
+
+			try {
+				write(message.text);
+			} catch (Exception e) {
+				log.warn(
+						"Exception while sending message '{}' to websocket with native sessionId '{}': {}",
+						message.text, wsSession.getId(), e);
+			} finally {
+				synchronized (this) {
+					writeStartTime = 0;
+				}
+			}
+		}
+
+		if (closeSession) {
+			try {
+				wsSession.close();
+			} catch (IOException e) {
+				log.warn("Exception closing WebSocket session {}",
+						wsSession.getId(), e);
+			}
+			return;
+		}
+
+		scheduleSending();
+	}
+
+	private void write(String message) throws IOException {
+		synchronized (wsSession) {
+			wsSession.sendMessage(new TextMessage(message));
+		}
+	}
+
+}
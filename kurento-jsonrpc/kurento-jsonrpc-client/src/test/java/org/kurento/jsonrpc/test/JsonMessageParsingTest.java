@@ -0,0 +1,126 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.message.Message;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.message.Response;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+public class JsonMessageParsingTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void requestTest() {
+
+		String json = "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"invoke\","
+				+ "\"params\":{\"object\":\"obj1\",\"operation\":\"play\","
+				+ "\"sessionId\":\"xxxxxxx\"}}";
+
+		Message message = JsonUtils.fromJsonMessage(json);
+
+		assertTrue(message instanceof Request);
+
+		Request<JsonElement> request = (Request<JsonElement>) message;
+		Request<JsonElement> expected = JsonUtils.fromJsonRequest(json,
+				JsonElement.class);
+
+		assertEquals(expected.getId(), request.getId());
+		assertEquals(expected.getMethod(), request.getMethod());
+		assertEquals(expected.getParams(), request.getParams());
+		assertEquals("xxxxxxx", request.getSessionId());
+		assertFalse(((JsonObject) request.getParams()).has("sessionId"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void notificationTest() {
+
+		Message message = JsonUtils
+				.fromJsonMessage("{\"method\":\"onEvent\",\"params\":[1,2],\"jsonrpc\":\"2.0\"}");
+
+		Request<JsonElement> request = (Request<JsonElement>) message;
+
+		assertNull(request.getId());
+		assertNull(request.getSessionId());
+		assertEquals("onEvent", request.getMethod());
+		assertTrue(request.getParams().isJsonArray());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void responseTest() {
+
+		String json = "{\"id\":1,\"result\":{\"value\":\"obj1\",\"sessionId\":\"xxxxxxx\"},\"jsonrpc\":\"2.0\"}";
+
+		Message message = JsonUtils.fromJsonMessage(json);
+
+		assertTrue(message instanceof Response);
+
+		Response<JsonElement> response = (Response<JsonElement>) message;
+		Response<JsonElement> expected = JsonUtils.fromJsonResponse(json,
+				JsonElement.class);
+
+		assertEquals(expected.getId(), response.getId());
+		assertEquals(expected.getResult(), response.getResult());
+		assertEquals("xxxxxxx", response.getSessionId());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void errorResponseTest() {
+
+		Message message = JsonUtils
+				.fromJsonMessage("{\"jsonrpc\":\"2.0\",\"id\":7,\"error\":{\"code\":40101,\"message\":\"Object not found\"}}");
+
+		Response<JsonElement> response = (Response<JsonElement>) message;
+
+		assertTrue(response.isError());
+		assertEquals(40101, response.getError().getCode());
+		assertEquals("Object not found", response.getError().getMessage());
+	}
+
+	@Test(expected = JsonParseException.class)
+	public void invalidVersionTest() {
+		JsonUtils
+				.fromJsonMessage("{\"jsonrpc\":\"1.0\",\"id\":1,\"method\":\"invoke\"}");
+	}
+
+	@Test(expected = JsonParseException.class)
+	public void responseWithoutIdTest() {
+		JsonUtils.fromJsonMessage("{\"jsonrpc\":\"2.0\",\"result\":1}");
+	}
+
+	@Test
+	public void batchTest() {
+
+		String json = JsonUtils.toJsonBatch(Arrays.asList(
+				"{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"a\"}",
+				"{\"jsonrpc\":\"2.0\",\"method\":\"onEvent\"}",
+				"{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":\"b\"}"));
+
+		assertTrue(JsonUtils.isJsonBatch(" \n" + json));
+		assertFalse(JsonUtils.isJsonBatch("{\"jsonrpc\":\"2.0\"}"));
+
+		List<Message> messages = JsonUtils.fromJsonBatch(json);
+
+		assertEquals(3, messages.size());
+		assertEquals(Integer.valueOf(1),
+				((Response<?>) messages.get(0)).getId());
+		assertEquals("onEvent", ((Request<?>) messages.get(1)).getMethod());
+		assertEquals(Integer.valueOf(2),
+				((Response<?>) messages.get(2)).getId());
+	}
+
+}
@@ -0,0 +1,81 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.Props;
+
+import com.google.gson.JsonObject;
+
+public class JsonObjectConversionTest {
+
+	static class Data {
+		String data1;
+		String data2;
+		Integer number;
+	}
+
+	private Props createInvokeParams() {
+
+		Data data = new Data();
+		data.data1 = "Value1";
+		data.number = 5;
+
+		JsonObject raw = new JsonObject();
+		raw.addProperty("prop", "value");
+
+		Props operationParams = new Props("uri", "http://files/video.webm")
+				.add("data", data).add("list", Arrays.asList(1, 2, 3))
+				.add("raw", raw).add("nested", new Props("enabled", true));
+
+		return new Props("object", "MediaPipeline_1")
+				.add("operation", "play")
+				.add("operationParams", operationParams);
+	}
+
+	@Test
+	public void sameTreeAsStringConversion() {
+
+		Props params = createInvokeParams();
+
+		JsonObject expected = JsonUtils.fromJson(JsonUtils.toJson(params),
+				JsonObject.class);
+
+		assertEquals(expected, JsonUtils.toJsonObject(params));
+	}
+
+	@Test
+	public void nullFieldsAreOmitted() {
+
+		Data data = new Data();
+		data.data1 = "Value1";
+
+		JsonObject jsonObject = JsonUtils.toJsonObject(data);
+
+		assertFalse(jsonObject.has("data2"));
+		assertEquals("Value1", jsonObject.get("data1").getAsString());
+	}
+
+	@Test
+	public void resultDoesNotShareElements() {
+
+		JsonObject raw = new JsonObject();
+		raw.addProperty("prop", "value");
+
+		JsonObject jsonObject = JsonUtils.toJsonObject(new Props("raw", raw));
+		jsonObject.getAsJsonObject("raw").addProperty("sessionId", "XXX");
+
+		assertFalse(raw.has("sessionId"));
+	}
+
+	@Test
+	public void nullObject() {
+		assertNull(JsonUtils.toJsonObject(null));
+	}
+
+}
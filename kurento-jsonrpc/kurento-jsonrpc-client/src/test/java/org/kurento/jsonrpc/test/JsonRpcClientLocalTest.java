@@ -1,10 +1,14 @@
 package org.kurento.jsonrpc.test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import org.kurento.jsonrpc.DefaultJsonRpcHandler;
@@ -12,6 +16,7 @@ import org.kurento.jsonrpc.Transaction;
 import org.kurento.jsonrpc.client.JsonRpcClient;
 import org.kurento.jsonrpc.client.JsonRpcClientLocal;
 import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.message.Response;
 
 public class JsonRpcClientLocalTest {
 
@@ -37,6 +42,27 @@ public class JsonRpcClientLocalTest {
 		String param2;
 	}
 
+	static class ParamsJsonRpcHandler extends DefaultJsonRpcHandler<Params> {
+
+		@Override
+		public void handleRequest(Transaction transaction,
+				Request<Params> request) throws Exception {
+
+			transaction.sendResponse(request.getParams());
+		}
+	}
+
+	static class JsonElementJsonRpcHandler extends
+			DefaultJsonRpcHandler<JsonElement> {
+
+		@Override
+		public void handleRequest(Transaction transaction,
+				Request<JsonElement> request) throws Exception {
+
+			transaction.sendResponse(request.getParams());
+		}
+	}
+
 	@Test
 	public void echoTest() throws Exception {
 
@@ -61,4 +87,48 @@ public class JsonRpcClientLocalTest {
 
 	}
 
+	@Test
+	public void paramsTypeTest() throws Exception {
+
+		Params params = new Params();
+		params.param1 = "Value1";
+
+		JsonRpcClient client = new JsonRpcClientLocal(
+				new ParamsJsonRpcHandler());
+
+		Assert.assertEquals(params.param1,
+				client.sendRequest("echo", params, Params.class).param1);
+
+		client.close();
+
+		client = new JsonRpcClientLocal(new JsonElementJsonRpcHandler());
+
+		Assert.assertEquals(params.param1,
+				client.sendRequest("echo", params, Params.class).param1);
+
+		client.close();
+	}
+
+	@Test
+	public void batchTest() throws Exception {
+
+		JsonRpcClient client = new JsonRpcClientLocal(new EchoJsonRpcHandler());
+
+		JsonObject params1 = new JsonObject();
+		params1.addProperty("param1", "Value1");
+
+		JsonObject params2 = new JsonObject();
+		params2.addProperty("param1", "Value2");
+
+		List<Response<JsonElement>> responses = client.sendBatch(Arrays.asList(
+				new Request<JsonObject>("echo", params1),
+				new Request<JsonObject>("echo", params2)));
+
+		Assert.assertEquals(2, responses.size());
+		Assert.assertEquals(params1, responses.get(0).getResult());
+		Assert.assertEquals(params2, responses.get(1).getResult());
+
+		client.close();
+	}
+
 }
@@ -0,0 +1,275 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.internal.ws.WebSocketSendQueue;
+import org.kurento.jsonrpc.internal.ws.WebSocketSendQueue.OverflowPolicy;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+public class WebSocketSendQueueTest {
+
+	/**
+	 * Executor running its tasks only when asked to, so the queue fills up as
+	 * with a client not reading its messages.
+	 */
+	static class ManualExecutor implements Executor {
+
+		private final Queue<Runnable> tasks = new LinkedList<>();
+
+		@Override
+		public synchronized void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		public void runTasks() {
+			Runnable task;
+			while ((task = poll()) != null) {
+				task.run();
+			}
+		}
+
+		private synchronized Runnable poll() {
+			return tasks.poll();
+		}
+	}
+
+	private final List<String> sentMessages = new ArrayList<>();
+	private volatile CloseStatus closeStatus;
+	private volatile CountDownLatch writeAllowed;
+
+	private final WebSocketSession wsSession = (WebSocketSession) Proxy
+			.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { WebSocketSession.class },
+					new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method,
+								Object[] args) throws Throwable {
+
+							switch (method.getName()) {
+							case "getId":
+								return "ws-1";
+							case "sendMessage":
+								if (writeAllowed != null) {
+									writeAllowed.await();
+								}
+								synchronized (sentMessages) {
+									sentMessages.add(((TextMessage) args[0])
+											.getPayload());
+								}
+								return null;
+							case "close":
+								closeStatus = args != null && args.length > 0 ? (CloseStatus) args[0]
+										: CloseStatus.NORMAL;
+								return null;
+							case "isOpen":
+								return closeStatus == null;
+							case "hashCode":
+								return System.identityHashCode(proxy);
+							case "equals":
+								return proxy == args[0];
+							default:
+								return null;
+							}
+						}
+					});
+
+	@Test
+	public void dropOldestTest() throws IOException {
+
+		ManualExecutor executor = new ManualExecutor();
+		WebSocketSendQueue queue = new WebSocketSendQueue(wsSession, executor,
+				3, OverflowPolicy.DROP_OLDEST);
+
+		queue.send("event1", true);
+		queue.send("response1", false);
+		queue.send("event2", true);
+		queue.send("event3", true);
+		queue.send("event4", true);
+
+		assertEquals(3, queue.getQueueDepth());
+		assertEquals(2, queue.getDroppedMessages());
+
+		executor.runTasks();
+
+		// Responses are never dropped
+		assertEquals(Arrays.asList("response1", "event3", "event4"),
+				sentMessages);
+		assertEquals(0, queue.getQueueDepth());
+	}
+
+	@Test
+	public void closeSessionTest() throws IOException {
+
+		ManualExecutor executor = new ManualExecutor();
+		WebSocketSendQueue queue = new WebSocketSendQueue(wsSession, executor,
+				2, OverflowPolicy.CLOSE_SESSION);
+
+		queue.send("event1", true);
+		queue.send("event2", true);
+
+		try {
+			queue.send("event3", true);
+			fail("Sending to a full queue should fail");
+		} catch (IOException e) {
+			// Expected
+		}
+
+		assertEquals(CloseStatus.SESSION_NOT_RELIABLE, closeStatus);
+		assertEquals(0, queue.getQueueDepth());
+
+		try {
+			queue.send("event4", true);
+			fail("Sending to a closed queue should fail");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void blockTest() throws Exception {
+
+		ManualExecutor executor = new ManualExecutor();
+		final WebSocketSendQueue queue = new WebSocketSendQueue(wsSession,
+				executor, 1, OverflowPolicy.BLOCK);
+
+		queue.send("event1", true);
+
+		final CountDownLatch sent = new CountDownLatch(1);
+		Thread sender = new Thread() {
+			@Override
+			public void run() {
+				try {
+					queue.send("event2", true);
+					sent.countDown();
+				} catch (IOException e) {
+					// Not counted down
+				}
+			}
+		};
+		sender.start();
+
+		assertEquals(false, sent.await(200, TimeUnit.MILLISECONDS));
+
+		executor.runTasks();
+
+		assertTrue(sent.await(5, TimeUnit.SECONDS));
+		executor.runTasks();
+
+		assertEquals(Arrays.asList("event1", "event2"), sentMessages);
+		assertEquals(0, queue.getDroppedMessages());
+	}
+
+	@Test
+	public void sendTimeLimitTest() throws Exception {
+
+		WebSocketSendQueue queue = new WebSocketSendQueue(wsSession,
+				new Executor() {
+					@Override
+					public void execute(Runnable task) {
+						new Thread(task).start();
+					}
+				}, 10, OverflowPolicy.DROP_OLDEST, 100);
+
+		// The client doesn't read the first message
+		writeAllowed = new CountDownLatch(1);
+		queue.send("event1", true);
+
+		Thread.sleep(300);
+
+		try {
+			queue.send("event2", true);
+			fail("Sending to a client not reading its messages should fail");
+		} catch (IOException e) {
+			// Expected
+		} finally {
+			writeAllowed.countDown();
+		}
+
+		assertEquals(CloseStatus.SESSION_NOT_RELIABLE, closeStatus);
+		assertEquals(0, queue.getQueueDepth());
+	}
+
+	@Test
+	public void rejectedTest() throws IOException {
+
+		WebSocketSendQueue queue = new WebSocketSendQueue(wsSession,
+				new Executor() {
+					@Override
+					public void execute(Runnable task) {
+						throw new RejectedExecutionException("Shut down");
+					}
+				}, 10, OverflowPolicy.BLOCK);
+
+		try {
+			queue.send("message1", false);
+			fail("IOException should be thrown");
+		} catch (IOException e) {
+			// Nothing writes the queue
+		}
+
+		try {
+			queue.send("message2", false);
+			fail("IOException should be thrown");
+		} catch (IOException e) {
+			// Queue closed
+		}
+
+		assertEquals(0, queue.getQueueDepth());
+		assertTrue(sentMessages.isEmpty());
+	}
+
+	@Test
+	public void orderTest() throws IOException {
+
+		WebSocketSendQueue queue = new WebSocketSendQueue(wsSession,
+				new Executor() {
+					@Override
+					public void execute(Runnable task) {
+						new Thread(task).start();
+					}
+				}, 10000, OverflowPolicy.BLOCK);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String message = "message" + i;
+			expected.add(message);
+			queue.send(message, i % 2 == 0);
+		}
+
+		long timeout = System.currentTimeMillis() + 5000;
+		while (numSentMessages() < expected.size()
+				&& System.currentTimeMillis() < timeout) {
+			Thread.yield();
+		}
+
+		synchronized (sentMessages) {
+			assertEquals(expected, sentMessages);
+		}
+	}
+
+	private int numSentMessages() {
+		synchronized (sentMessages) {
+			return sentMessages.size();
+		}
+	}
+
+}
@@ -15,6 +15,8 @@
 package org.kurento.jsonrpc.internal.http;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -26,8 +28,10 @@ import org.springframework.web.HttpRequestHandler;
 import com.google.common.io.CharStreams;
 import com.google.gson.JsonElement;
 
+import org.kurento.jsonrpc.JsonUtils;
 import org.kurento.jsonrpc.client.Continuation;
 import org.kurento.jsonrpc.internal.JsonRpcRequestSenderHelper;
+import org.kurento.jsonrpc.internal.client.TransactionImpl.BatchResponseSender;
 import org.kurento.jsonrpc.internal.client.TransactionImpl.ResponseSender;
 import org.kurento.jsonrpc.internal.server.ProtocolManager;
 import org.kurento.jsonrpc.internal.server.ServerSession;
@@ -96,11 +100,24 @@ public class JsonRpcHttpRequestHandler implements HttpRequestHandler {
 			}
 		};
 
-		ResponseSender responseSender = new ResponseSender() {
+		ResponseSender responseSender = new BatchResponseSender() {
 			@Override
 			public void sendResponse(Message message) throws IOException {
 				servletResponse.getWriter().println(message);
 			}
+
+			@Override
+			public void sendResponses(List<? extends Message> messages)
+					throws IOException {
+
+				List<String> jsonMessages = new ArrayList<>(messages.size());
+				for (Message message : messages) {
+					jsonMessages.add(message.toString());
+				}
+
+				servletResponse.getWriter().println(
+						JsonUtils.toJsonBatch(jsonMessages));
+			}
 		};
 
 		String internalSessionId = null;
@@ -14,22 +14,30 @@
  */
 package org.kurento.jsonrpc.internal.server;
 
+import static org.kurento.jsonrpc.internal.JsonRpcConstants.ERROR_INTERNAL_ERROR;
+import static org.kurento.jsonrpc.internal.JsonRpcConstants.ERROR_INVALID_REQUEST;
 import static org.kurento.jsonrpc.internal.JsonRpcConstants.METHOD_RECONNECT;
 import static org.kurento.jsonrpc.internal.JsonRpcConstants.RECONNECTION_ERROR;
 import static org.kurento.jsonrpc.internal.JsonRpcConstants.RECONNECTION_SUCCESSFUL;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.kurento.commons.PropertiesManager;
 import org.kurento.commons.SecretGenerator;
 import org.kurento.jsonrpc.JsonRpcHandler;
 import org.kurento.jsonrpc.JsonUtils;
 import org.kurento.jsonrpc.internal.JsonRpcHandlerManager;
+import org.kurento.jsonrpc.internal.client.TransactionImpl.BatchResponseSender;
 import org.kurento.jsonrpc.internal.client.TransactionImpl.ResponseSender;
+import org.kurento.jsonrpc.message.Message;
 import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
 import org.kurento.jsonrpc.message.ResponseError;
@@ -37,11 +45,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.TaskScheduler;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 
 public class ProtocolManager {
@@ -54,6 +64,21 @@ public class ProtocolManager {
 	private static final Logger log = LoggerFactory
 			.getLogger(ProtocolManager.class);
 
+	private static final ResponseSender DISCARD_RESPONSE_SENDER = new ResponseSender() {
+		@Override
+		public void sendResponse(Message message) throws IOException {
+			log.debug("Discarding response {} to notification in batch",
+					message);
+		}
+	};
+
+	public static final String BATCH_TIMEOUT_PROPERTY = "jsonRpcBatchTimeout";
+
+	private static final int BATCH_TIMEOUT_DEFAULT_VALUE = 30000;
+
+	private final int batchTimeout = PropertiesManager.getProperty(
+			BATCH_TIMEOUT_PROPERTY, BATCH_TIMEOUT_DEFAULT_VALUE);
+
 	protected SecretGenerator secretGenerator = new SecretGenerator();
 
 	@Autowired
@@ -63,6 +88,10 @@ public class ProtocolManager {
 	@Qualifier("jsonrpcTaskScheduler")
 	private TaskScheduler taskScheduler;
 
+	@Autowired(required = false)
+	@Qualifier("jsonrpcBatchExecutor")
+	private TaskExecutor batchExecutor;
+
 	private final JsonRpcHandlerManager handlerManager;
 
 	public ProtocolManager(JsonRpcHandler<?> handler) {
@@ -79,18 +108,272 @@ public class ProtocolManager {
 	 * @param internalSessionId
 	 * @throws IOException
 	 */
+	@SuppressWarnings("unchecked")
 	public void processMessage(String messageJson,
 			ServerSessionFactory factory, ResponseSender responseSender,
 			String internalSessionId) throws IOException {
 
-		JsonObject messagetJsonObject = JsonUtils.fromJson(messageJson,
-				JsonObject.class);
-
-		if (messagetJsonObject.has(Request.METHOD_FIELD_NAME)) {
-			processRequestMessage(factory, messagetJsonObject, responseSender,
+		if (JsonUtils.isJsonBatch(messageJson)) {
+			processBatchMessage(messageJson, factory, responseSender,
 					internalSessionId);
+			return;
+		}
+
+		Message message = JsonUtils.fromJsonMessage(messageJson);
+
+		if (message instanceof Request) {
+			processRequestMessage(factory, (Request<JsonElement>) message,
+					responseSender, internalSessionId);
 		} else {
-			processResponseMessage(messagetJsonObject, internalSessionId);
+			processResponseMessage((Response<JsonElement>) message,
+					internalSessionId);
+		}
+	}
+
+	/**
+	 * Process a JSON-RPC batch. Responses from the server to the client are
+	 * delivered to its session as usual. Requests are dispatched to the
+	 * handler concurrently (bounded by the batch executor) and their responses
+	 * are sent back in a single array once all of them are available. If all
+	 * requests of the batch are notifications, nothing is sent back.
+	 */
+	private void processBatchMessage(String messageJson,
+			ServerSessionFactory factory, ResponseSender responseSender,
+			String transportId) throws IOException {
+
+		JsonArray elements = JsonUtils.fromJson(messageJson, JsonArray.class);
+
+		if (elements.size() == 0) {
+			responseSender.sendResponse(new Response<>(null,
+					new ResponseError(ERROR_INVALID_REQUEST, "Invalid Request")));
+			return;
+		}
+
+		List<Message> messages = new ArrayList<>(elements.size());
+		int numResponses = 0;
+
+		for (JsonElement element : elements) {
+
+			Message message;
+			try {
+				message = JsonUtils.fromJsonMessage(element);
+			} catch (JsonParseException e) {
+				log.warn("Invalid element {} in batch: {}", element,
+						e.getMessage());
+				message = null;
+			}
+
+			messages.add(message);
+		}
+
+		BatchResponses batchResponses = new BatchResponses(responseSender);
+
+		for (Message message : messages) {
+			if (message instanceof Request) {
+				Integer id = ((Request<?>) message).getId();
+				if (id != null) {
+					batchResponses.expectResponse(id);
+				}
+			} else if (message == null) {
+				batchResponses.expectResponse(null);
+			}
+		}
+
+		List<Runnable> tasks = new ArrayList<>();
+
+		// The session is resolved once for the whole batch. Otherwise, each
+		// request without sessionId (e.g. through HTTP) would create its own
+		ServerSession batchSession = null;
+
+		for (Message message : messages) {
+
+			if (message == null) {
+
+				batchResponses.sendResponse(new Response<>(null, new ResponseError(
+						ERROR_INVALID_REQUEST, "Invalid Request")));
+
+			} else if (message instanceof Request) {
+
+				@SuppressWarnings("unchecked")
+				final Request<JsonElement> request = (Request<JsonElement>) message;
+
+				final ResponseSender elementSender = request.getId() != null ? batchResponses
+						: DISCARD_RESPONSE_SENDER;
+
+				String method = request.getMethod();
+				if (method.equals(METHOD_RECONNECT)
+						|| method.equals(Request.POLL_METHOD_NAME)) {
+
+					processRequestMessage(factory, request, elementSender,
+							transportId);
+
+				} else {
+
+					if (batchSession == null) {
+						batchSession = getSession(factory, transportId,
+								request);
+					}
+
+					final ServerSession session = batchSession;
+
+					tasks.add(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								handlerManager.handleRequest(session, request,
+										elementSender);
+							} catch (IOException e) {
+								log.warn("Exception processing request "
+										+ request + " in batch", e);
+							}
+						}
+					});
+				}
+
+			} else {
+
+				@SuppressWarnings("unchecked")
+				Response<JsonElement> response = (Response<JsonElement>) message;
+				processResponseMessage(response, transportId);
+			}
+		}
+
+		executeAndWait(tasks, batchResponses);
+	}
+
+	/**
+	 * Executes the tasks of a batch and waits for them, at most batchTimeout
+	 * millis. If some task doesn't finish in time, its response is sent as an
+	 * error, so the thread receiving messages is not blocked indefinitely.
+	 */
+	private void executeAndWait(List<Runnable> tasks,
+			BatchResponses batchResponses) throws IOException {
+
+		if (batchExecutor == null || tasks.size() <= 1) {
+			for (Runnable task : tasks) {
+				task.run();
+			}
+			return;
+		}
+
+		final CountDownLatch latch = new CountDownLatch(tasks.size());
+
+		for (final Runnable task : tasks) {
+			try {
+				batchExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							task.run();
+						} finally {
+							latch.countDown();
+						}
+					}
+				});
+			} catch (TaskRejectedException e) {
+				try {
+					task.run();
+				} finally {
+					latch.countDown();
+				}
+			}
+		}
+
+		boolean finished = false;
+		try {
+			finished = latch.await(batchTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (!finished) {
+			log.warn("{} requests of batch not processed in {} millis",
+					latch.getCount(), batchTimeout);
+			batchResponses.sendMissingResponses(new ResponseError(
+					ERROR_INTERNAL_ERROR,
+					"Request not processed in batch timeout"));
+		}
+	}
+
+	/**
+	 * Collects the responses of the requests of a batch and sends all of them
+	 * when the last one arrives. Responses arriving after the batch has been
+	 * sent are discarded.
+	 */
+	private static class BatchResponses implements ResponseSender {
+
+		private final ResponseSender responseSender;
+		private final List<Integer> pendingIds = new ArrayList<>();
+		private final List<Message> responses = new ArrayList<>();
+		private boolean sent;
+
+		public BatchResponses(ResponseSender responseSender) {
+			this.responseSender = responseSender;
+		}
+
+		public void expectResponse(Integer id) {
+			pendingIds.add(id);
+		}
+
+		@Override
+		public void sendResponse(Message message) throws IOException {
+
+			List<Message> completedResponses = null;
+
+			synchronized (responses) {
+				if (sent) {
+					log.warn("Discarding response {} received after batch timeout",
+							message);
+					return;
+				}
+				if (message instanceof Response) {
+					pendingIds.remove((Object) ((Response<?>) message).getId());
+				}
+				responses.add(message);
+				if (pendingIds.isEmpty()) {
+					completedResponses = responses;
+					sent = true;
+				}
+			}
+
+			send(completedResponses);
+		}
+
+		/**
+		 * Answers with the given error the requests without response and sends
+		 * the batch, unless it has already been sent.
+		 */
+		public void sendMissingResponses(ResponseError error)
+				throws IOException {
+
+			List<Message> completedResponses = null;
+
+			synchronized (responses) {
+				if (sent || pendingIds.isEmpty()) {
+					return;
+				}
+				for (Integer id : pendingIds) {
+					responses.add(new Response<>(id, error));
+				}
+				pendingIds.clear();
+				completedResponses = responses;
+				sent = true;
+			}
+
+			send(completedResponses);
+		}
+
+		private void send(List<Message> completedResponses) throws IOException {
+			if (completedResponses != null) {
+				if (responseSender instanceof BatchResponseSender) {
+					((BatchResponseSender) responseSender)
+							.sendResponses(completedResponses);
+				} else {
+					for (Message response : completedResponses) {
+						responseSender.sendResponse(response);
+					}
+				}
+			}
 		}
 	}
 
@@ -99,12 +382,9 @@ public class ProtocolManager {
 	// parameters
 	// and the implementation is easier
 	private void processRequestMessage(ServerSessionFactory factory,
-			JsonObject requestJsonObject, ResponseSender responseSender,
+			Request<JsonElement> request, ResponseSender responseSender,
 			String transportId) throws IOException {
 
-		Request<JsonElement> request = JsonUtils.fromJsonRequest(
-				requestJsonObject, JsonElement.class);
-
 		if (request.getMethod().equals(METHOD_RECONNECT)) {
 
 			processReconnectMessage(factory, request, responseSender,
@@ -218,12 +498,9 @@ public class ProtocolManager {
 		return session;
 	}
 
-	private void processResponseMessage(JsonObject messagetJsonObject,
+	private void processResponseMessage(Response<JsonElement> response,
 			String internalSessionId) {
 
-		Response<JsonElement> response = JsonUtils.fromJsonResponse(
-				messagetJsonObject, JsonElement.class);
-
 		ServerSession session = sessionsManager
 				.getByTransportId(internalSessionId);
 
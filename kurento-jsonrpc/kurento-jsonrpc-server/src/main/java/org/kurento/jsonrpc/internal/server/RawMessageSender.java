@@ -0,0 +1,33 @@
+/*
+ * (C) Copyright 2014 Kurento (http://kurento.org/)
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser General Public License
+ * (LGPL) version 2.1 which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/lgpl-2.1.html
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ */
+package org.kurento.jsonrpc.internal.server;
+
+import java.io.IOException;
+
+/**
+ * Implemented by the sessions able to send already serialized messages to the
+ * client. This allows sending the same notification to several sessions
+ * serializing it only once.
+ */
+public interface RawMessageSender {
+
+	/**
+	 * Queues an already serialized notification to be sent to the client. It
+	 * doesn't wait for the message to be written, and messages sent with this
+	 * method are written in the order of the calls.
+	 */
+	void sendMessage(String jsonMessage) throws IOException;
+
+}
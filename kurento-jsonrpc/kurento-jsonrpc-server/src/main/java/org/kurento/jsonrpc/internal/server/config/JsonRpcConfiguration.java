@@ -25,12 +25,14 @@ import javax.servlet.Filter;
 
 import org.apache.catalina.Context;
 import org.apache.tomcat.websocket.server.WsSci;
+import org.kurento.commons.PropertiesManager;
 import org.kurento.jsonrpc.JsonRpcHandler;
 import org.kurento.jsonrpc.internal.http.JsonRpcHttpRequestHandler;
 import org.kurento.jsonrpc.internal.server.PerSessionJsonRpcHandler;
 import org.kurento.jsonrpc.internal.server.ProtocolManager;
 import org.kurento.jsonrpc.internal.server.SessionsManager;
 import org.kurento.jsonrpc.internal.ws.JsonRpcWebSocketHandler;
+import org.kurento.jsonrpc.internal.ws.WebSocketSendQueue.OverflowPolicy;
 import org.kurento.jsonrpc.server.JsonRpcConfigurer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.embedded.tomcat.TomcatContextCustomizer;
@@ -40,6 +42,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.servlet.HandlerMapping;
@@ -52,6 +55,27 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @EnableWebSocket
 public class JsonRpcConfiguration implements WebSocketConfigurer {
 
+	public static final String BATCH_CONCURRENCY_PROPERTY = "jsonRpcBatchConcurrency";
+
+	private static final int BATCH_CONCURRENCY_DEFAULT_VALUE = 10;
+
+	public static final String SEND_CONCURRENCY_PROPERTY = "jsonRpcSendConcurrency";
+
+	private static final int SEND_CONCURRENCY_DEFAULT_VALUE = 10;
+
+	public static final String SEND_QUEUE_CAPACITY_PROPERTY = "jsonRpcSendQueueCapacity";
+
+	private static final int SEND_QUEUE_CAPACITY_DEFAULT_VALUE = 10000;
+
+	public static final String SEND_QUEUE_OVERFLOW_POLICY_PROPERTY = "jsonRpcSendQueueOverflowPolicy";
+
+	private static final String SEND_QUEUE_OVERFLOW_POLICY_DEFAULT_VALUE = OverflowPolicy.DROP_OLDEST
+			.name();
+
+	public static final String SEND_TIME_LIMIT_PROPERTY = "jsonRpcSendTimeLimit";
+
+	private static final int SEND_TIME_LIMIT_DEFAULT_VALUE = 10000;
+
 	@Autowired
 	protected ApplicationContext ctx;
 
@@ -196,8 +220,20 @@ public class JsonRpcConfiguration implements WebSocketConfigurer {
 			WebSocketHandlerRegistry wsHandlerRegistry,
 			JsonRpcHandler<?> handler, List<String> paths) {
 
+		int sendQueueCapacity = PropertiesManager.getProperty(
+				SEND_QUEUE_CAPACITY_PROPERTY, SEND_QUEUE_CAPACITY_DEFAULT_VALUE);
+
+		OverflowPolicy overflowPolicy = OverflowPolicy.valueOf(PropertiesManager
+				.getProperty(SEND_QUEUE_OVERFLOW_POLICY_PROPERTY,
+						SEND_QUEUE_OVERFLOW_POLICY_DEFAULT_VALUE));
+
+		int sendTimeLimit = PropertiesManager.getProperty(
+				SEND_TIME_LIMIT_PROPERTY, SEND_TIME_LIMIT_DEFAULT_VALUE);
+
 		JsonRpcWebSocketHandler wsHandler = new JsonRpcWebSocketHandler(
-				(ProtocolManager) ctx.getBean("protocolManager", handler));
+				(ProtocolManager) ctx.getBean("protocolManager", handler),
+				jsonrpcSendExecutor(), sendQueueCapacity, overflowPolicy,
+				sendTimeLimit);
 
 		for (String path : paths) {
 
@@ -252,4 +288,39 @@ public class JsonRpcConfiguration implements WebSocketConfigurer {
 		return new ThreadPoolTaskScheduler();
 	}
 
+	/**
+	 * Executor used to process the requests of a JSON-RPC batch. Its pool size
+	 * bounds the number of requests of batches handled concurrently.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ThreadPoolTaskExecutor jsonrpcBatchExecutor() {
+
+		int concurrency = PropertiesManager.getProperty(
+				BATCH_CONCURRENCY_PROPERTY, BATCH_CONCURRENCY_DEFAULT_VALUE);
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setThreadNamePrefix("jsonrpc-batch-");
+		return executor;
+	}
+
+	/**
+	 * Executor used to write the messages sent to WebSocket sessions. Each
+	 * session is written by at most one thread at a time, so a slow client
+	 * only delays its own messages.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ThreadPoolTaskExecutor jsonrpcSendExecutor() {
+
+		int concurrency = PropertiesManager.getProperty(
+				SEND_CONCURRENCY_PROPERTY, SEND_CONCURRENCY_DEFAULT_VALUE);
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setThreadNamePrefix("jsonrpc-send-");
+		return executor;
+	}
+
 }
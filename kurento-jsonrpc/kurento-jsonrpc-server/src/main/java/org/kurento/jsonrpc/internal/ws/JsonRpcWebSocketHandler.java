@@ -14,6 +14,8 @@
  */
 package org.kurento.jsonrpc.internal.ws;
 
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.socket.CloseStatus;
@@ -25,6 +27,7 @@ import org.kurento.jsonrpc.internal.server.ServerSession;
 import org.kurento.jsonrpc.internal.server.SessionsManager;
 import org.kurento.jsonrpc.internal.server.ProtocolManager.ServerSessionFactory;
 import org.kurento.jsonrpc.internal.ws.WebSocketResponseSender;
+import org.kurento.jsonrpc.internal.ws.WebSocketSendQueue.OverflowPolicy;
 
 public class JsonRpcWebSocketHandler extends TextWebSocketHandler {
 
@@ -33,8 +36,37 @@ public class JsonRpcWebSocketHandler extends TextWebSocketHandler {
 
 	private final ProtocolManager protocolManager;
 
+	private static final String SEND_QUEUE_ATTRIBUTE = "jsonRpcSendQueue";
+
+	private final Executor sendExecutor;
+	private final int sendQueueCapacity;
+	private final OverflowPolicy overflowPolicy;
+	private final long sendTimeLimit;
+
 	public JsonRpcWebSocketHandler(ProtocolManager protocolManager) {
+		this(protocolManager, null, 1, OverflowPolicy.DROP_OLDEST, 0);
+	}
+
+	/**
+	 * @param sendExecutor
+	 *            executor where messages are written to the clients. If null,
+	 *            they are written in the thread sending them.
+	 * @param sendQueueCapacity
+	 *            maximum number of messages queued for each client
+	 * @param overflowPolicy
+	 *            what to do when the queue of a client is full
+	 * @param sendTimeLimit
+	 *            time in millis after which a client not reading a message is
+	 *            disconnected. If 0, there is no limit
+	 */
+	public JsonRpcWebSocketHandler(ProtocolManager protocolManager,
+			Executor sendExecutor, int sendQueueCapacity,
+			OverflowPolicy overflowPolicy, long sendTimeLimit) {
 		this.protocolManager = protocolManager;
+		this.sendExecutor = sendExecutor;
+		this.sendQueueCapacity = sendQueueCapacity;
+		this.overflowPolicy = overflowPolicy;
+		this.sendTimeLimit = sendTimeLimit;
 	}
 
 	@Override
@@ -45,6 +77,11 @@ public class JsonRpcWebSocketHandler extends TextWebSocketHandler {
 		// session is established, not when websocket session is established
 		log.info("Client connection stablished from {}",
 				session.getRemoteAddress());
+
+		session.getAttributes().put(
+				SEND_QUEUE_ATTRIBUTE,
+				new WebSocketSendQueue(session, sendExecutor,
+						sendQueueCapacity, overflowPolicy, sendTimeLimit));
 	}
 
 	@Override
@@ -58,6 +95,8 @@ public class JsonRpcWebSocketHandler extends TextWebSocketHandler {
 			log.info("Normal termination");
 		}
 
+		getSendQueue(wsSession).close();
+
 		protocolManager.closeSessionIfTimeout(wsSession.getId(),
 				status.getReason());
 	}
@@ -77,18 +116,36 @@ public class JsonRpcWebSocketHandler extends TextWebSocketHandler {
 		log.debug("Req-> {}", messageJson);
 
 		// TODO Ensure only one register message per websocket session.
+		final WebSocketSendQueue sendQueue = getSendQueue(wsSession);
+
 		ServerSessionFactory factory = new ServerSessionFactory() {
 			@Override
 			public ServerSession createSession(String sessionId,
 					Object registerInfo, SessionsManager sessionsManager) {
 				return new WebSocketServerSession(sessionId, registerInfo,
-						sessionsManager, wsSession);
+						sessionsManager, wsSession, sendQueue);
 			}
 		};
 
 		protocolManager.processMessage(messageJson, factory,
-				new WebSocketResponseSender(wsSession), wsSession.getId());
+				new WebSocketResponseSender(sendQueue), wsSession.getId());
+
+	}
+
+	private WebSocketSendQueue getSendQueue(WebSocketSession wsSession) {
+
+		WebSocketSendQueue sendQueue = (WebSocketSendQueue) wsSession
+				.getAttributes().get(SEND_QUEUE_ATTRIBUTE);
+
+		if (sendQueue == null) {
+			// Only if the queue was not created when the connection was
+			// established; messages are written in the calling thread
+			sendQueue = new WebSocketSendQueue(wsSession, null, 1,
+					OverflowPolicy.DROP_OLDEST);
+			wsSession.getAttributes().put(SEND_QUEUE_ATTRIBUTE, sendQueue);
+		}
 
+		return sendQueue;
 	}
 
 }
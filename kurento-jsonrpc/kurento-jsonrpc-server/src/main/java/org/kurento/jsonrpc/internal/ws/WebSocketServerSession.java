@@ -20,7 +20,6 @@ import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import com.google.gson.JsonElement;
@@ -29,6 +28,7 @@ import org.kurento.jsonrpc.JsonRpcException;
 import org.kurento.jsonrpc.JsonUtils;
 import org.kurento.jsonrpc.client.Continuation;
 import org.kurento.jsonrpc.internal.JsonRpcRequestSenderHelper;
+import org.kurento.jsonrpc.internal.server.RawMessageSender;
 import org.kurento.jsonrpc.internal.server.ServerSession;
 import org.kurento.jsonrpc.internal.server.SessionsManager;
 import org.kurento.jsonrpc.internal.ws.PendingRequests;
@@ -36,7 +36,8 @@ import org.kurento.jsonrpc.message.MessageUtils;
 import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
 
-public class WebSocketServerSession extends ServerSession {
+public class WebSocketServerSession extends ServerSession implements
+		RawMessageSender {
 
 	private static Logger LOG = LoggerFactory
 			.getLogger(WebSocketServerSession.class);
@@ -44,12 +45,29 @@ public class WebSocketServerSession extends ServerSession {
 	private WebSocketSession wsSession;
 	private final PendingRequests pendingRequests = new PendingRequests();
 
+	private final WebSocketSendQueue sendQueue;
+
 	public WebSocketServerSession(String sessionId, Object registerInfo,
 			SessionsManager sessionsManager, WebSocketSession wsSession) {
+		this(sessionId, registerInfo, sessionsManager, wsSession,
+				new WebSocketSendQueue(wsSession, null, 1,
+						WebSocketSendQueue.OverflowPolicy.DROP_OLDEST));
+	}
+
+	/**
+	 * @param sendQueue
+	 *            queue all messages to the client are written through. It
+	 *            should be shared with the response sender of the same
+	 *            WebSocket session.
+	 */
+	public WebSocketServerSession(String sessionId, Object registerInfo,
+			SessionsManager sessionsManager, WebSocketSession wsSession,
+			WebSocketSendQueue sendQueue) {
 
 		super(sessionId, registerInfo, sessionsManager, wsSession.getId());
 
 		this.wsSession = wsSession;
+		this.sendQueue = sendQueue;
 
 		this.setRsHelper(new JsonRpcRequestSenderHelper(sessionId) {
 			@Override
@@ -79,10 +97,7 @@ public class WebSocketServerSession extends ServerSession {
 		}
 
 		try {
-			synchronized (wsSession) {
-				wsSession
-						.sendMessage(new TextMessage(JsonUtils.toJson(request)));
-			}
+			sendQueue.send(JsonUtils.toJson(request), request.getId() == null);
 		} catch (Exception e) {
 			LOG.error(
 					"Exception while sending message '{}' to websocket with native sessionId '{}': {}",
@@ -116,10 +131,30 @@ public class WebSocketServerSession extends ServerSession {
 		pendingRequests.handleResponse(response);
 	}
 
+	@Override
+	public void sendMessage(String jsonMessage) throws IOException {
+		sendQueue.send(jsonMessage, true);
+	}
+
+	/**
+	 * Number of messages waiting to be written to the client.
+	 */
+	public int getSendQueueDepth() {
+		return sendQueue.getQueueDepth();
+	}
+
+	/**
+	 * Number of notifications dropped because the client didn't read them as
+	 * fast as they were sent.
+	 */
+	public long getDroppedMessages() {
+		return sendQueue.getDroppedMessages();
+	}
+
 	@Override
 	public void close() throws IOException {
 		try {
-			wsSession.close();
+			sendQueue.closeSession();
 		} finally {
 			super.close();
 		}
@@ -0,0 +1,336 @@
+/*
+ * (C) Copyright 2014 Kurento (http://kurento.org/)
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU Lesser General Public License
+ * (LGPL) version 2.1 which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/lgpl-2.1.html
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ */
+package org.kurento.jsonrpc.server;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kurento.jsonrpc.DefaultJsonRpcHandler;
+import org.kurento.jsonrpc.JsonRpcErrorException;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.Transaction;
+import org.kurento.jsonrpc.message.Request;
+import org.kurento.jsonrpc.message.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Handler that dispatches each request to the public method of the subclass
+ * annotated with {@link JsonRpcMethod} for the method of the request.
+ * <p>
+ * The methods are looked up once, when the handler is created, together with
+ * the binders of their parameters. A parameter can be a param of the request
+ * annotated with {@link JsonRpcParam}, or the {@link Transaction} or the
+ * {@link Request} being handled. The value returned by the method is sent as
+ * result of the request; methods returning void or null send a void
+ * response, and methods returning a {@link Response} send it as is.
+ * <p>
+ * The number of requests and the time spent processing them is kept for each
+ * method.
+ */
+public abstract class AnnotatedJsonRpcHandler extends
+		DefaultJsonRpcHandler<JsonObject> {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(AnnotatedJsonRpcHandler.class);
+
+	private final Map<String, MethodInvoker> methods;
+
+	public AnnotatedJsonRpcHandler() {
+
+		Map<String, MethodInvoker> methods = new HashMap<>();
+
+		for (Method method : this.getClass().getMethods()) {
+
+			JsonRpcMethod annotation = method
+					.getAnnotation(JsonRpcMethod.class);
+
+			if (annotation != null) {
+
+				String name = annotation.value().isEmpty() ? method.getName()
+						: annotation.value();
+
+				if (methods.put(name, new MethodInvoker(method)) != null) {
+					throw new IllegalArgumentException(
+							"Duplicated handler for JSON-RPC method '" + name
+									+ "' in " + this.getClass().getName());
+				}
+			}
+		}
+
+		this.methods = methods;
+	}
+
+	@Override
+	public void handleRequest(Transaction transaction,
+			Request<JsonObject> request) throws Exception {
+
+		MethodInvoker method = methods.get(request.getMethod());
+
+		if (method == null) {
+			log.error("Requesting unrecognized method '" + request.getMethod()
+					+ "'");
+			transaction.sendError(1,
+					"Unrecognized method '" + request.getMethod() + "'", null);
+			return;
+		}
+
+		method.invoke(this, transaction, request);
+	}
+
+	/**
+	 * Returns the names of the JSON-RPC methods handled by this handler.
+	 */
+	public Set<String> getMethods() {
+		return Collections.unmodifiableSet(methods.keySet());
+	}
+
+	/**
+	 * Returns the number of requests of a method processed by this handler.
+	 */
+	public long getNumRequests(String method) {
+		return getInvoker(method).numRequests.get();
+	}
+
+	/**
+	 * Returns the number of requests of a method answered with an error.
+	 */
+	public long getNumErrors(String method) {
+		return getInvoker(method).numErrors.get();
+	}
+
+	/**
+	 * Returns the average time, in nanoseconds, spent processing a request of
+	 * a method.
+	 */
+	public long getAverageRequestTime(String method) {
+		MethodInvoker invoker = getInvoker(method);
+		long numRequests = invoker.numRequests.get();
+		return numRequests == 0 ? 0 : invoker.requestsTime.get()
+				/ numRequests;
+	}
+
+	private MethodInvoker getInvoker(String method) {
+
+		MethodInvoker invoker = methods.get(method);
+
+		if (invoker == null) {
+			throw new IllegalArgumentException("Method '" + method
+					+ "' is not handled by " + this.getClass().getName());
+		}
+
+		return invoker;
+	}
+
+	private static class MethodInvoker {
+
+		private final Method method;
+		private final ParamBinder[] binders;
+		private final boolean returnsResponse;
+
+		private final AtomicLong numRequests = new AtomicLong();
+		private final AtomicLong numErrors = new AtomicLong();
+		private final AtomicLong requestsTime = new AtomicLong();
+
+		public MethodInvoker(Method method) {
+
+			this.method = method;
+			this.method.setAccessible(true);
+			this.returnsResponse = Response.class.isAssignableFrom(method
+					.getReturnType());
+
+			Class<?>[] types = method.getParameterTypes();
+			Type[] genericTypes = method.getGenericParameterTypes();
+			Annotation[][] annotations = method.getParameterAnnotations();
+
+			this.binders = new ParamBinder[types.length];
+			for (int i = 0; i < types.length; i++) {
+				binders[i] = ParamBinder.create(method, types[i],
+						genericTypes[i], annotations[i]);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public void invoke(Object handler, Transaction transaction,
+				Request<JsonObject> request) throws Exception {
+
+			long initTime = System.nanoTime();
+
+			try {
+
+				Object[] params = new Object[binders.length];
+				for (int i = 0; i < binders.length; i++) {
+					params[i] = binders[i].bind(transaction, request);
+				}
+
+				Object result = method.invoke(handler, params);
+
+				if (result == null) {
+					transaction.sendVoidResponse();
+				} else if (returnsResponse) {
+					Response<Object> response = (Response<Object>) result;
+					response.setId(request.getId());
+					transaction.sendResponseObject(response);
+				} else {
+					transaction.sendResponse(result);
+				}
+
+			} catch (InvocationTargetException e) {
+				log.error("Exception executing request " + request, e);
+				numErrors.incrementAndGet();
+				transaction.sendError(e.getCause());
+
+			} catch (JsonRpcErrorException e) {
+				log.error("Invalid request " + request, e);
+				numErrors.incrementAndGet();
+				transaction.sendError(e);
+
+			} finally {
+				requestsTime.addAndGet(System.nanoTime() - initTime);
+				numRequests.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Obtains the value of a parameter of a method from the request.
+	 */
+	private static abstract class ParamBinder {
+
+		public abstract Object bind(Transaction transaction,
+				Request<JsonObject> request);
+
+		public static ParamBinder create(Method method, Class<?> type,
+				Type genericType, Annotation[] annotations) {
+
+			if (type == Transaction.class) {
+				return new ParamBinder() {
+					@Override
+					public Object bind(Transaction transaction,
+							Request<JsonObject> request) {
+						return transaction;
+					}
+				};
+			}
+
+			if (type == Request.class) {
+				return new ParamBinder() {
+					@Override
+					public Object bind(Transaction transaction,
+							Request<JsonObject> request) {
+						return request;
+					}
+				};
+			}
+
+			for (Annotation annotation : annotations) {
+				if (annotation instanceof JsonRpcParam) {
+
+					JsonRpcParam param = (JsonRpcParam) annotation;
+
+					if (param.optional() && type.isPrimitive()) {
+						throw new IllegalArgumentException("Optional param '"
+								+ param.value() + "' of method " + method
+								+ " can't be of primitive type " + type);
+					}
+
+					return new RequestParamBinder(param.value(),
+							param.optional(), type, genericType);
+				}
+			}
+
+			throw new IllegalArgumentException("Parameter of type " + type
+					+ " of method " + method + " is not annotated with @"
+					+ JsonRpcParam.class.getSimpleName());
+		}
+	}
+
+	private static class RequestParamBinder extends ParamBinder {
+
+		private final String name;
+		private final boolean optional;
+		private final Class<?> type;
+		private final Type genericType;
+
+		public RequestParamBinder(String name, boolean optional,
+				Class<?> type, Type genericType) {
+			this.name = name;
+			this.optional = optional;
+			this.type = type;
+			this.genericType = genericType;
+		}
+
+		@Override
+		public Object bind(Transaction transaction, Request<JsonObject> request) {
+
+			JsonObject params = request.getParams();
+			JsonElement value = params != null ? params.get(name) : null;
+
+			if (value == null || value.isJsonNull()) {
+				if (optional) {
+					return null;
+				}
+				throw new JsonRpcErrorException(1,
+						"Invalid request lacking parameter '" + name + "'");
+			}
+
+			try {
+
+				if (type == String.class) {
+					if (value.isJsonPrimitive()) {
+						return value.getAsString();
+					}
+				} else if (type == int.class || type == Integer.class) {
+					return value.getAsInt();
+				} else if (type == long.class || type == Long.class) {
+					return value.getAsLong();
+				} else if (type == boolean.class || type == Boolean.class) {
+					if (value.isJsonPrimitive()
+							&& value.getAsJsonPrimitive().isBoolean()) {
+						return value.getAsBoolean();
+					}
+				} else if (type == double.class || type == Double.class) {
+					return value.getAsDouble();
+				} else if (type == JsonElement.class) {
+					return value;
+				} else if (type == JsonObject.class) {
+					if (value.isJsonObject()) {
+						return value;
+					}
+				} else {
+					return JsonUtils.fromJson(value, genericType);
+				}
+
+			} catch (RuntimeException e) {
+				// Conversion errors are reported below
+			}
+
+			throw new JsonRpcErrorException(2, "Param '" + name
+					+ "' with value '" + value + "' is not a "
+					+ type.getSimpleName());
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.kurento.jsonrpc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.kurento.jsonrpc.JsonRpcErrorException;
+import org.kurento.jsonrpc.JsonUtils;
+import org.kurento.jsonrpc.client.JsonRpcClient;
+import org.kurento.jsonrpc.client.JsonRpcClientLocal;
+import org.kurento.jsonrpc.server.AnnotatedJsonRpcHandler;
+import org.kurento.jsonrpc.server.JsonRpcMethod;
+import org.kurento.jsonrpc.server.JsonRpcParam;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+public class AnnotatedJsonRpcHandlerTest {
+
+	static class Params {
+		String param1;
+		int param2;
+	}
+
+	public static class EchoHandler extends AnnotatedJsonRpcHandler {
+
+		private int numPings;
+
+		@JsonRpcMethod
+		public JsonElement echo(@JsonRpcParam("text") String text,
+				@JsonRpcParam(value = "times", optional = true) Integer times) {
+
+			StringBuilder sb = new StringBuilder(text);
+			for (int i = 1; times != null && i < times; i++) {
+				sb.append(text);
+			}
+			return new JsonPrimitive(sb.toString());
+		}
+
+		@JsonRpcMethod("sum")
+		public JsonElement add(@JsonRpcParam("params") Params params) {
+			return new JsonPrimitive(params.param1 + params.param2);
+		}
+
+		@JsonRpcMethod
+		public void ping() {
+			numPings++;
+		}
+	}
+
+	private final EchoHandler handler = new EchoHandler();
+
+	private final JsonRpcClient client = new JsonRpcClientLocal(handler);
+
+	private String send(String method, JsonObject params) throws IOException {
+		return JsonUtils.extractJavaValueFromResult(
+				client.sendRequest(method, params), String.class);
+	}
+
+	@Test
+	public void dispatchTest() throws IOException {
+
+		JsonObject params = new JsonObject();
+		params.addProperty("text", "a");
+		assertEquals("a", send("echo", params));
+
+		params.addProperty("times", 3);
+		assertEquals("aaa", send("echo", params));
+
+		JsonObject sumParams = new JsonObject();
+		sumParams.addProperty("param1", "value");
+		sumParams.addProperty("param2", 2);
+		params = new JsonObject();
+		params.add("params", sumParams);
+		assertEquals("value2", send("sum", params));
+
+		client.sendRequest("ping");
+		assertEquals(1, handler.numPings);
+
+		assertEquals(2, handler.getNumRequests("echo"));
+		assertEquals(0, handler.getNumErrors("echo"));
+		assertTrue(handler.getMethods().contains("sum"));
+	}
+
+	@Test
+	public void invalidParamsTest() throws IOException {
+
+		try {
+			client.sendRequest("echo", new JsonObject());
+			fail("JsonRpcErrorException should be thrown");
+		} catch (JsonRpcErrorException e) {
+			assertEquals(1, e.getCode());
+		}
+
+		JsonObject params = new JsonObject();
+		params.addProperty("text", "a");
+		params.addProperty("times", "many");
+
+		try {
+			client.sendRequest("echo", params);
+			fail("JsonRpcErrorException should be thrown");
+		} catch (JsonRpcErrorException e) {
+			assertEquals(2, e.getCode());
+		}
+
+		assertEquals(2, handler.getNumErrors("echo"));
+	}
+
+	@Test
+	public void unknownMethodTest() throws IOException {
+
+		try {
+			client.sendRequest("unknown");
+			fail("JsonRpcErrorException should be thrown");
+		} catch (JsonRpcErrorException e) {
+			assertEquals(1, e.getCode());
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.kurento.rabbitmq;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Encodes the JSON-RPC messages sent through the broker. Messages are JSON
+ * text in UTF-8, optionally compressed with deflate. The compression is
+ * indicated in the content encoding of each message, so receivers decode
+ * messages regardless of the configuration of the sender.
+ * <p>
+ * Compression is not negotiated: requests and events are compressed whenever
+ * it is enabled, and receivers using a version without this class can't read
+ * them. So it is disabled by default, and it must only be enabled once every
+ * client and server consuming from the broker has been upgraded. Replies are
+ * the exception, as they are compressed only for compressed requests.
+ */
+public class MessageEncoding {
+
+	public static final String JSON_CONTENT_TYPE = "application/json";
+	public static final String DEFLATE_CONTENT_ENCODING = "deflate";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// Deflaters and inflaters allocate native memory, so they are reused
+	private static final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>() {
+		@Override
+		protected Deflater initialValue() {
+			return new Deflater(Deflater.BEST_SPEED);
+		}
+	};
+
+	private static final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>() {
+		@Override
+		protected Inflater initialValue() {
+			return new Inflater();
+		}
+	};
+
+	private final boolean compression;
+	private final int compressionThreshold;
+
+	/**
+	 * @param compression
+	 *            if true, messages are compressed
+	 * @param compressionThreshold
+	 *            minimum size in bytes of the messages to compress. Smaller
+	 *            ones are sent as plain JSON.
+	 */
+	public MessageEncoding(boolean compression, int compressionThreshold) {
+		this.compression = compression;
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	public Message toMessage(String json, MessageProperties properties) {
+		return toMessage(json, properties, compression);
+	}
+
+	/**
+	 * Creates a reply encoded as the given request, so clients only receive
+	 * compressed replies when they send compressed requests.
+	 */
+	public Message toReply(String json, MessageProperties properties,
+			Message request) {
+		return toMessage(json, properties, isCompressed(request));
+	}
+
+	private Message toMessage(String json, MessageProperties properties,
+			boolean compress) {
+
+		byte[] body = json.getBytes(UTF8);
+
+		properties.setContentType(JSON_CONTENT_TYPE);
+
+		if (compress && body.length >= compressionThreshold) {
+			body = deflate(body);
+			properties.setContentEncoding(DEFLATE_CONTENT_ENCODING);
+		}
+
+		return new Message(body, properties);
+	}
+
+	public String toString(Message message) {
+
+		byte[] body = message.getBody();
+
+		if (isCompressed(message)) {
+			body = inflate(body);
+		}
+
+		return new String(body, UTF8);
+	}
+
+	private boolean isCompressed(Message message) {
+		return DEFLATE_CONTENT_ENCODING.equals(message.getMessageProperties()
+				.getContentEncoding());
+	}
+
+	public static byte[] deflate(byte[] data) {
+
+		Deflater deflater = deflaters.get();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					data.length / 2 + 16);
+			byte[] buffer = new byte[1024];
+			while (!deflater.finished()) {
+				int size = deflater.deflate(buffer);
+				out.write(buffer, 0, size);
+			}
+			return out.toByteArray();
+
+		} finally {
+			deflater.reset();
+		}
+	}
+
+	public static byte[] inflate(byte[] data) {
+
+		Inflater inflater = inflaters.get();
+		try {
+			inflater.setInput(data);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					data.length * 4);
+			byte[] buffer = new byte[1024];
+			while (!inflater.finished()) {
+				int size = inflater.inflate(buffer);
+				if (size == 0 && inflater.needsInput()) {
+					throw new RabbitMqException("Truncated deflate message");
+				}
+				out.write(buffer, 0, size);
+			}
+			return out.toByteArray();
+
+		} catch (DataFormatException e) {
+			throw new RabbitMqException("Invalid deflate message", e);
+		} finally {
+			inflater.reset();
+		}
+	}
+
+}
@@ -2,27 +2,57 @@ package org.kurento.rabbitmq;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.kurento.commons.Address;
 import org.kurento.commons.PropertiesManager;
 import org.kurento.jsonrpc.message.Request;
+import org.kurento.rabbitmq.RabbitTemplate.RoutedMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 //import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
-import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
+import org.springframework.amqp.rabbit.support.CorrelationData;
 
 public class RabbitMqManager {
 
 	public static final String RETRY_TIMEOUT_PROPERTY = "rabbit.retryTimeout";
 	public static final String NUM_RETRIES_PROPERTY = "rabbit.numRetries";
+	public static final String MAX_IN_FLIGHT_REQUESTS_PROPERTY = "rabbit.maxInFlightRequests";
+	public static final String PUBLISHER_CONFIRMS_PROPERTY = "rabbit.publisherConfirms";
+	public static final String CHANNEL_CACHE_SIZE_PROPERTY = "rabbit.channelCacheSize";
+	public static final String EVENT_BATCH_SIZE_PROPERTY = "rabbit.eventBatchSize";
+	public static final String MAX_PENDING_EVENTS_PROPERTY = "rabbit.maxPendingEvents";
+	public static final String RECEIVER_THREADS_PROPERTY = "rabbit.receiverThreads";
+	/**
+	 * Enables the compression of messages. False by default, as receivers of
+	 * previous versions can't decode compressed messages (see
+	 * {@link MessageEncoding}).
+	 */
+	public static final String COMPRESSION_PROPERTY = "rabbit.compression";
+	public static final String COMPRESSION_THRESHOLD_PROPERTY = "rabbit.compressionThreshold";
 
 	public static final String EVENT_QUEUE_PREFIX = "event_";
 	public static final String CLIENT_QUEUE_PREFIX = "client_";
@@ -35,13 +65,46 @@ public class RabbitMqManager {
 
 	private final long retryTimeOut;
 	private final long numRetries;
+	private final boolean publisherConfirms;
+	private final int channelCacheSize;
+	private final int eventBatchSize;
+	private final int maxPendingEvents;
+	private final int receiverThreads;
+	private final MessageEncoding encoding;
 
 	private static final String EXPIRATION_TIME = "25000";
 
 	private CachingConnectionFactory cf;
 	private RabbitAdmin admin;
+	private RabbitTemplate defaultTemplate;
 	private final List<SimpleMessageListenerContainer> containers = new ArrayList<>();
 
+	private final Semaphore inFlightRequests;
+	private final ConcurrentMap<String, AsyncRequest> asyncRequests = new ConcurrentHashMap<>();
+	private ScheduledExecutorService timeoutScheduler;
+
+	// Events are published in batches, in order, by a single thread
+	private final ConcurrentLinkedQueue<RoutedMessage> pendingEvents = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger numPendingEvents = new AtomicInteger();
+	private final AtomicLong droppedEvents = new AtomicLong();
+	private final AtomicBoolean publishingEvents = new AtomicBoolean();
+	private ExecutorService eventPublisher;
+
+	private final Runnable publishEventsTask = new Runnable() {
+		@Override
+		public void run() {
+			publishPendingEvents();
+		}
+	};
+
+	private final AtomicLong numPublishedMessages = new AtomicLong();
+	private final AtomicLong numPublishOperations = new AtomicLong();
+	private final AtomicLong publishTime = new AtomicLong();
+
+	private final ConcurrentMap<String, QueueReceiver> queueReceivers = new ConcurrentHashMap<>();
+	private SimpleMessageListenerContainer receiversContainer;
+	private ThreadPoolExecutor receiversExecutor;
+
 	private final Address address;
 	private String username;
 	private String password;
@@ -55,12 +118,146 @@ public class RabbitMqManager {
 		public void onMessage(String message);
 	}
 
+	public interface BrokerReplyCallback {
+		public void onReply(String reply);
+
+		public void onError(Throwable error);
+	}
+
+	/**
+	 * Request waiting for its reply. It is sent again with the same
+	 * correlationId each time the retry timeout expires, so the server can
+	 * filter the retried requests.
+	 */
+	private class AsyncRequest implements RabbitTemplate.ReplyCallback,
+			Runnable {
+
+		private final String exchange;
+		private final String routingKey;
+		private final Request<? extends Object> request;
+		private final RabbitTemplate template;
+		private final BrokerReplyCallback callback;
+		private final String correlationId;
+
+		private final AtomicBoolean finished = new AtomicBoolean();
+		private volatile ScheduledFuture<?> timeout;
+		private int numRequest;
+
+		public AsyncRequest(String exchange, String routingKey,
+				Request<? extends Object> request, RabbitTemplate template,
+				BrokerReplyCallback callback) {
+			this.exchange = exchange;
+			this.routingKey = routingKey;
+			this.request = request;
+			this.template = template;
+			this.callback = callback;
+			this.correlationId = calculateCorrelationId(request);
+		}
+
+		public void send() {
+
+			if (numRequest > 0) {
+				log.debug("Retry {} sending message: {}", numRequest, request);
+			}
+
+			MessageProperties messageProperties = new MessageProperties();
+			messageProperties.setExpiration(EXPIRATION_TIME);
+			messageProperties.setCorrelationId(correlationId.getBytes());
+
+			try {
+				template.sendAsync(exchange, routingKey,
+						encoding.toMessage(request.toString(), messageProperties),
+						new CorrelationData(correlationId), this);
+			} catch (Exception e) {
+				finishWithError(e);
+				return;
+			}
+
+			try {
+				timeout = timeoutScheduler.schedule(this, retryTimeOut,
+						TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				finishWithError(new RabbitMqException(
+						"Connection to broker closed"));
+			}
+		}
+
+		@Override
+		public void onReply(Message reply) {
+
+			if (finish()) {
+				String responseAsString;
+				try {
+					responseAsString = encoding.toString(reply);
+				} catch (Exception e) {
+					callback.onError(e);
+					return;
+				}
+				log.debug("<-Res " + responseAsString.trim());
+				callback.onReply(responseAsString);
+			}
+		}
+
+		@Override
+		public void run() {
+
+			if (finished.get() || !template.cancelReply(correlationId)) {
+				return;
+			}
+
+			if (numRequest < numRetries) {
+				numRequest++;
+				send();
+			} else {
+				finishWithError(new RabbitMqException(
+						"Timeout waiting a reply to message: " + request));
+			}
+		}
+
+		public void finishWithError(Throwable error) {
+			if (finish()) {
+				template.cancelReply(correlationId);
+				callback.onError(error);
+			}
+		}
+
+		private boolean finish() {
+
+			if (!finished.compareAndSet(false, true)) {
+				return false;
+			}
+
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+
+			asyncRequests.remove(correlationId, this);
+			inFlightRequests.release();
+			return true;
+		}
+	}
+
 	public RabbitMqManager(Address address) {
 		this.address = address;
 		this.retryTimeOut = PropertiesManager.getProperty(
 				RETRY_TIMEOUT_PROPERTY, 500);
 		this.numRetries = PropertiesManager
 				.getProperty(NUM_RETRIES_PROPERTY, 5);
+		this.publisherConfirms = PropertiesManager.getProperty(
+				PUBLISHER_CONFIRMS_PROPERTY, false);
+		this.inFlightRequests = new Semaphore(PropertiesManager.getProperty(
+				MAX_IN_FLIGHT_REQUESTS_PROPERTY, 5000));
+		this.channelCacheSize = PropertiesManager.getProperty(
+				CHANNEL_CACHE_SIZE_PROPERTY, 25);
+		this.eventBatchSize = PropertiesManager.getProperty(
+				EVENT_BATCH_SIZE_PROPERTY, 100);
+		this.maxPendingEvents = PropertiesManager.getProperty(
+				MAX_PENDING_EVENTS_PROPERTY, 10000);
+		this.receiverThreads = PropertiesManager.getProperty(
+				RECEIVER_THREADS_PROPERTY, 20);
+		this.encoding = new MessageEncoding(PropertiesManager.getProperty(
+				COMPRESSION_PROPERTY, false), PropertiesManager.getProperty(
+				COMPRESSION_THRESHOLD_PROPERTY, 512));
 	}
 
 	public RabbitMqManager(String host, String port, String username,
@@ -86,8 +283,17 @@ public class RabbitMqManager {
 			cf.setVirtualHost(vhost);
 		}
 
+		cf.setPublisherConfirms(publisherConfirms);
+		cf.setChannelCacheSize(channelCacheSize);
+
 		admin = new RabbitAdmin(cf);
 
+		defaultTemplate = new RabbitTemplate(cf);
+		defaultTemplate.setReplyTimeout(retryTimeOut);
+
+		timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+		eventPublisher = Executors.newSingleThreadExecutor();
+
 		declarePipelineCreationQueue(admin);
 	}
 
@@ -127,6 +333,24 @@ public class RabbitMqManager {
 		template.setReplyTimeout(retryTimeOut);
 		template.setReplyQueue(queue);
 
+		if (publisherConfirms) {
+			template.setConfirmCallback(new RabbitTemplate.ConfirmCallback() {
+				@Override
+				public void confirm(CorrelationData correlationData,
+						boolean ack) {
+					if (!ack && correlationData != null) {
+						AsyncRequest request = asyncRequests
+								.get(correlationData.getId());
+						if (request != null) {
+							request.finishWithError(new RabbitMqException(
+									"Message not accepted by broker: "
+											+ request.request));
+						}
+					}
+				}
+			});
+		}
+
 		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(
 				cf);
 		container.setMessageListener(template);
@@ -150,17 +374,14 @@ public class RabbitMqManager {
 			Request<? extends Object> request, RabbitTemplate template) {
 
 		if (template == null) {
-			template = new RabbitTemplate(cf);
-			template.setReplyTimeout(retryTimeOut);
+			template = defaultTemplate;
 		}
 
 		log.debug("Req-> Exchange:'" + exchange + "' RoutingKey:'" + routingKey
 				+ "' " + request);
 
-		MessageProperties messageProperties = new MessageProperties();
-		messageProperties.setExpiration(EXPIRATION_TIME);
-		messageProperties.setCorrelationId(calculateCorrelationId(request)
-				.getBytes());
+		String correlationId = calculateCorrelationId(request);
+		String requestJson = request.toString();
 
 		for (int numRequest = 0; numRequest < numRetries + 1; numRequest++) {
 
@@ -168,12 +389,20 @@ public class RabbitMqManager {
 				log.debug("Retry {} sending message: {}", numRequest, request);
 			}
 
+			// The template sets the replyTo of the message it sends, so each
+			// attempt needs a new one
+			MessageProperties messageProperties = new MessageProperties();
+			messageProperties.setExpiration(EXPIRATION_TIME);
+			messageProperties.setCorrelationId(correlationId.getBytes());
+
+			Message message = encoding.toMessage(requestJson,
+					messageProperties);
+
 			Message response = template.sendAndReceive(exchange, routingKey,
-					new Message(request.toString().getBytes(),
-							messageProperties));
+					message);
 
 			if (response != null) {
-				String responseAsString = new String(response.getBody());
+				String responseAsString = encoding.toString(response);
 				log.debug("<-Res " + responseAsString.trim());
 				return responseAsString;
 			}
@@ -183,6 +412,38 @@ public class RabbitMqManager {
 				+ request);
 	}
 
+	/**
+	 * Sends a request without waiting for its reply. The reply is received by
+	 * the listener of the reply queue of the template, and passed to the
+	 * callback in the thread of that listener. Requests are retried as in
+	 * {@link #sendAndReceive(String, String, Request, RabbitTemplate)}.
+	 * <p>
+	 * The number of requests waiting for a reply is limited by the property
+	 * {@value #MAX_IN_FLIGHT_REQUESTS_PROPERTY}. When the limit is reached, the
+	 * request is not sent and the callback receives an error, so this method
+	 * never blocks.
+	 */
+	public void sendAndReceiveAsync(String exchange, String routingKey,
+			Request<? extends Object> request, RabbitTemplate template,
+			BrokerReplyCallback callback) {
+
+		log.debug("Req-> Exchange:'" + exchange + "' RoutingKey:'" + routingKey
+				+ "' " + request);
+
+		AsyncRequest asyncRequest = new AsyncRequest(exchange, routingKey,
+				request, template, callback);
+
+		if (!inFlightRequests.tryAcquire()) {
+			callback.onError(new RabbitMqException(
+					"Max number of in-flight requests reached. Request not sent: "
+							+ request));
+			return;
+		}
+
+		asyncRequests.put(asyncRequest.correlationId, asyncRequest);
+		asyncRequest.send();
+	}
+
 	private String calculateCorrelationId(Request<? extends Object> request) {
 
 		if (request.getSessionId() == null) {
@@ -193,11 +454,6 @@ public class RabbitMqManager {
 		return request.getSessionId() + "/" + request.getId();
 	}
 
-	public RabbitTemplate createServerTemplate() {
-
-		return new RabbitTemplate(cf);
-	}
-
 	public void send(String exchange, String routingKey, String message) {
 		send(exchange, routingKey, message, null);
 	}
@@ -206,14 +462,205 @@ public class RabbitMqManager {
 			RabbitTemplate template) {
 
 		if (template == null) {
-			template = new RabbitTemplate(cf);
+			template = defaultTemplate;
 		}
 
 		log.debug("Not-> Exchange:'" + exchange + "' RoutingKey:'" + routingKey
 				+ "' " + message);
 
-		template.send(exchange, routingKey, new Message(message.getBytes(),
-				new MessageProperties()));
+		long initTime = System.nanoTime();
+
+		template.send(exchange, routingKey,
+				encoding.toMessage(message, new MessageProperties()));
+
+		updatePublishStats(1, initTime);
+	}
+
+	/**
+	 * Publishes an event without waiting for it to be sent. Events are sent
+	 * in the same order they are published, grouping the pending ones in
+	 * batches of up to {@value #EVENT_BATCH_SIZE_PROPERTY} messages that are
+	 * sent using the same channel.
+	 * <p>
+	 * If there are already {@value #MAX_PENDING_EVENTS_PROPERTY} events
+	 * waiting to be published, the event is dropped.
+	 *
+	 * @throws RabbitMqException
+	 *             if the manager has been destroyed
+	 */
+	public void publishEvent(String exchange, String routingKey, String message) {
+
+		log.debug("Not-> Exchange:'" + exchange + "' RoutingKey:'" + routingKey
+				+ "' " + message);
+
+		if (numPendingEvents.incrementAndGet() > maxPendingEvents) {
+			numPendingEvents.decrementAndGet();
+			eventDropped(exchange, routingKey);
+			return;
+		}
+
+		pendingEvents.add(new RoutedMessage(exchange, routingKey, encoding
+				.toMessage(message, new MessageProperties())));
+
+		if (publishingEvents.compareAndSet(false, true)) {
+			try {
+				eventPublisher.execute(publishEventsTask);
+			} catch (RejectedExecutionException e) {
+				discardPendingEvents();
+				publishingEvents.set(false);
+				throw new RabbitMqException(
+						"Events can't be published after destroying the manager",
+						e);
+			}
+		}
+	}
+
+	private void eventDropped(String exchange, String routingKey) {
+
+		long dropped = droppedEvents.incrementAndGet();
+
+		if (dropped % 1000 == 1) {
+			log.warn("There are {} events waiting to be published. Dropping "
+					+ "event to exchange '{}' with routing key '{}' "
+					+ "({} events dropped)", maxPendingEvents, exchange,
+					routingKey, dropped);
+		}
+	}
+
+	private void discardPendingEvents() {
+
+		int discarded = 0;
+		while (pendingEvents.poll() != null) {
+			numPendingEvents.decrementAndGet();
+			discarded++;
+		}
+
+		if (discarded > 0) {
+			log.warn("Discarded {} events not published before destroying "
+					+ "the manager", discarded);
+		}
+	}
+
+	private void publishPendingEvents() {
+
+		try {
+
+			List<RoutedMessage> batch = new ArrayList<>();
+
+			RoutedMessage event;
+			while ((event = pendingEvents.poll()) != null) {
+
+				numPendingEvents.decrementAndGet();
+				batch.add(event);
+
+				if (batch.size() == eventBatchSize || pendingEvents.isEmpty()) {
+					publishEvents(batch);
+					batch = new ArrayList<>();
+				}
+			}
+
+		} finally {
+			publishingEvents.set(false);
+		}
+
+		// Events published while finishing the task
+		if (!pendingEvents.isEmpty()
+				&& publishingEvents.compareAndSet(false, true)) {
+			try {
+				eventPublisher.execute(publishEventsTask);
+			} catch (RejectedExecutionException e) {
+				discardPendingEvents();
+				publishingEvents.set(false);
+			}
+		}
+	}
+
+	private void publishEvents(List<RoutedMessage> events) {
+
+		long initTime = System.nanoTime();
+
+		try {
+			defaultTemplate.send(events);
+		} catch (Exception e) {
+			// The batch may fail by a single event, so the ones not sent yet
+			// are not lost. The ones already sent are not sent again
+			log.warn("Exception publishing a batch of {} events. "
+					+ "Publishing the unsent ones one by one", events.size(),
+					e);
+			publishEventsOneByOne(events);
+			return;
+		}
+
+		updatePublishStats(events.size(), initTime);
+	}
+
+	private void publishEventsOneByOne(List<RoutedMessage> events) {
+
+		for (RoutedMessage event : events) {
+
+			if (event.isSent()) {
+				continue;
+			}
+
+			long initTime = System.nanoTime();
+
+			try {
+				defaultTemplate.send(event.getExchange(), event.getRoutingKey(),
+						event.getMessage());
+			} catch (Exception e) {
+				log.warn("Exception publishing event to exchange '{}' "
+						+ "with routing key '{}'", event.getExchange(),
+						event.getRoutingKey(), e);
+				continue;
+			}
+
+			updatePublishStats(1, initTime);
+		}
+	}
+
+	private void updatePublishStats(int numMessages, long initTime) {
+		publishTime.addAndGet(System.nanoTime() - initTime);
+		numPublishOperations.incrementAndGet();
+		numPublishedMessages.addAndGet(numMessages);
+	}
+
+	/**
+	 * Returns the number of messages sent with {@link #send} or
+	 * {@link #publishEvent}.
+	 */
+	public long getNumPublishedMessages() {
+		return numPublishedMessages.get();
+	}
+
+	/**
+	 * Returns the number of times a channel has been used to publish
+	 * messages. Each batch of events uses a channel only once.
+	 */
+	public long getNumPublishOperations() {
+		return numPublishOperations.get();
+	}
+
+	/**
+	 * Returns the average time, in nanoseconds, taken to publish a message.
+	 */
+	public long getAveragePublishTime() {
+		long numMessages = numPublishedMessages.get();
+		return numMessages == 0 ? 0 : publishTime.get() / numMessages;
+	}
+
+	/**
+	 * Returns the number of events waiting to be published.
+	 */
+	public int getNumPendingEvents() {
+		return numPendingEvents.get();
+	}
+
+	/**
+	 * Returns the number of events dropped because there were too many events
+	 * waiting to be published.
+	 */
+	public long getNumDroppedEvents() {
+		return droppedEvents.get();
 	}
 
 	public String declareEventsExchange(String pipeline) {
@@ -233,21 +680,14 @@ public class RabbitMqManager {
 
 		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(
 				cf);
-		MessageListenerAdapter adapter = new MessageListenerAdapter(
-				new Object() {
-					@SuppressWarnings("unused")
-					protected void onMessage(byte[] message) {
-						onMessage(new String(message));
-					}
-
-					protected void onMessage(String messageJson) {
-						log.debug("<-Not Queue:'" + queue + "' "
-								+ messageJson.trim());
-						receiver.onMessage(messageJson);
-					}
-				}, "onMessage");
-
-		container.setMessageListener(adapter);
+		container.setMessageListener(new MessageListener() {
+			@Override
+			public void onMessage(Message message) {
+				String messageJson = encoding.toString(message);
+				log.debug("<-Not Queue:'" + queue + "' " + messageJson.trim());
+				receiver.onMessage(messageJson);
+			}
+		});
 		container.setQueueNames(queue);
 		container.start();
 
@@ -257,35 +697,211 @@ public class RabbitMqManager {
 				+ "' for queue '" + queue);
 	}
 
-	public void addMessageReceiverWithResponse(final String queue,
-			final BrokerMessageReceiverWithResponse receiver) {
+	/**
+	 * Registers a receiver for the requests of a queue, with the requests of
+	 * the queue processed in order. See
+	 * {@link #addMessageReceiverWithResponse(String, BrokerMessageReceiverWithResponse, boolean)}
+	 * .
+	 */
+	public void addMessageReceiverWithResponse(String queue,
+			BrokerMessageReceiverWithResponse receiver) {
+		addMessageReceiverWithResponse(queue, receiver, true);
+	}
 
-		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(
-				cf);
-		container.setConcurrentConsumers(10);
-		MessageListenerAdapter adapter = new MessageListenerAdapter(
-				new Object() {
-					@SuppressWarnings("unused")
-					protected String onMessage(byte[] message) {
+	/**
+	 * Registers a receiver for the requests of a queue. The response returned
+	 * by the receiver is sent to the reply queue of the request.
+	 * <p>
+	 * All the queues with receivers are consumed by the same listener, which
+	 * passes the requests to a shared pool of up to
+	 * {@value #RECEIVER_THREADS_PROPERTY} threads. So, the number of threads
+	 * depends on the load instead of on the number of queues.
+	 * <p>
+	 * Requests are acknowledged when the listener hands them to the pool, so
+	 * the requests waiting for a thread are limited. When the pool can't keep
+	 * the pace, the listener processes the requests itself (or waits, for
+	 * ordered queues), and the broker stops delivering requests once the
+	 * prefetch of the consumer is reached.
+	 *
+	 * @param ordered
+	 *            if true, the requests of the queue are processed one after
+	 *            another, in the order they were received. Otherwise, they
+	 *            are processed concurrently.
+	 */
+	public synchronized void addMessageReceiverWithResponse(
+			final String queue,
+			final BrokerMessageReceiverWithResponse receiver, boolean ordered) {
+
+		queueReceivers.put(queue, new QueueReceiver(queue, receiver, ordered));
+
+		if (receiversContainer == null) {
+
+			receiversExecutor = new ThreadPoolExecutor(receiverThreads,
+					receiverThreads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(receiverThreads),
+					new ThreadPoolExecutor.CallerRunsPolicy());
+			receiversExecutor.allowCoreThreadTimeOut(true);
+
+			// Only one consumer, so requests of a queue are received in order
+			receiversContainer = new SimpleMessageListenerContainer(cf);
+			receiversContainer.setMessageListener(new MessageListener() {
+				@Override
+				public void onMessage(Message message) {
+					dispatchRequest(message);
+				}
+			});
+			receiversContainer.setQueueNames(queue);
+			receiversContainer.start();
+
+			containers.add(receiversContainer);
+
+		} else {
+			receiversContainer.addQueueNames(queue);
+		}
+
+		log.debug("Registered receiver with response '"
+				+ receiver.getClass().getName() + "' for queue '" + queue);
+	}
+
+	/**
+	 * Stops receiving the requests of a queue registered with
+	 * {@link #addMessageReceiverWithResponse(String, BrokerMessageReceiverWithResponse, boolean)}
+	 * .
+	 */
+	public synchronized void removeMessageReceiverWithResponse(String queue) {
+
+		if (queueReceivers.remove(queue) != null) {
+			receiversContainer.removeQueueNames(queue);
+			log.debug("Removed receiver with response for queue '" + queue);
+		}
+	}
 
-						String messageJson = new String(message);
+	private void dispatchRequest(Message message) {
 
-						log.debug("<-Req Queue:'" + queue + "' " + messageJson);
+		// Requests are sent to the default exchange, using the name of the
+		// queue as routing key
+		String queue = message.getMessageProperties().getReceivedRoutingKey();
 
-						String responseJson = receiver.onMessage(messageJson);
-						log.debug("Res-> " + responseJson);
-						return responseJson;
+		QueueReceiver receiver = queueReceivers.get(queue);
+
+		if (receiver == null) {
+			log.warn("Request received in queue '{}' without receiver", queue);
+			return;
+		}
+
+		receiver.dispatch(message);
+	}
+
+	/**
+	 * Processes the requests of a queue in the shared pool of threads. When
+	 * the requests are ordered, only one of them is processed at a time.
+	 */
+	private class QueueReceiver implements Runnable {
+
+		private final String queue;
+		private final BrokerMessageReceiverWithResponse receiver;
+		private final boolean ordered;
+
+		private final ConcurrentLinkedQueue<Message> pendingRequests = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean processing = new AtomicBoolean();
+
+		// Ordered requests wait in pendingRequests instead of in the pool,
+		// so they are limited separately
+		private final Semaphore pendingRequestsPermits;
+
+		public QueueReceiver(String queue,
+				BrokerMessageReceiverWithResponse receiver, boolean ordered) {
+			this.queue = queue;
+			this.receiver = receiver;
+			this.ordered = ordered;
+			this.pendingRequestsPermits = new Semaphore(receiverThreads);
+		}
+
+		public void dispatch(final Message request) {
+
+			if (!ordered) {
+				receiversExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						processRequest(request);
 					}
-				}, "onMessage");
+				});
+				return;
+			}
 
-		container.setMessageListener(adapter);
-		container.setQueueNames(queue);
-		container.start();
+			try {
+				pendingRequestsPermits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.warn("Interrupted while waiting to process request from queue '{}'",
+						queue);
+				return;
+			}
 
-		containers.add(container);
+			pendingRequests.add(request);
 
-		log.debug("Registered receiver with response '"
-				+ receiver.getClass().getName() + "' for queue '" + queue);
+			if (processing.compareAndSet(false, true)) {
+				receiversExecutor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				Message request;
+				while ((request = pendingRequests.poll()) != null) {
+					try {
+						processRequest(request);
+					} finally {
+						pendingRequestsPermits.release();
+					}
+				}
+			} finally {
+				processing.set(false);
+			}
+
+			// Requests received while finishing the task
+			if (!pendingRequests.isEmpty()
+					&& processing.compareAndSet(false, true)) {
+				receiversExecutor.execute(this);
+			}
+		}
+
+		private void processRequest(Message request) {
+
+			String responseJson;
+			try {
+				String messageJson = encoding.toString(request);
+
+				log.debug("<-Req Queue:'" + queue + "' " + messageJson);
+
+				responseJson = receiver.onMessage(messageJson);
+			} catch (Exception e) {
+				log.warn("Exception processing request from queue '{}'",
+						queue, e);
+				return;
+			}
+
+			log.debug("Res-> " + responseJson);
+
+			String replyTo = request.getMessageProperties().getReplyTo();
+			if (responseJson == null || replyTo == null) {
+				return;
+			}
+
+			MessageProperties properties = new MessageProperties();
+			properties.setCorrelationId(request.getMessageProperties()
+					.getCorrelationId());
+
+			try {
+				defaultTemplate.send("", replyTo,
+						encoding.toReply(responseJson, properties, request));
+			} catch (Exception e) {
+				log.warn("Exception sending response to queue '{}'", replyTo,
+						e);
+			}
+		}
 	}
 
 	public void bindExchangeToQueue(String exchangeId, String queueId,
@@ -306,13 +922,45 @@ public class RabbitMqManager {
 		return mediaElementId + "/" + eventType;
 	}
 
+	/**
+	 * Closes the connection to the broker. Requests waiting for a reply are
+	 * finished with an error before anything is shut down, so their callbacks
+	 * can still use the executors of the caller.
+	 */
 	public void destroy() {
 
+		for (AsyncRequest request : asyncRequests.values()) {
+			request.finishWithError(new RabbitMqException(
+					"Connection to broker closed"));
+		}
+
+		if (timeoutScheduler != null) {
+			timeoutScheduler.shutdownNow();
+		}
+
+		if (eventPublisher != null) {
+			// Pending events are published before closing the connection
+			eventPublisher.shutdown();
+			try {
+				eventPublisher.awaitTermination(retryTimeOut,
+						TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
 		for (SimpleMessageListenerContainer container : containers) {
 			container.destroy();
 		}
 
 		containers.clear();
+		queueReceivers.clear();
+		receiversContainer = null;
+
+		if (receiversExecutor != null) {
+			receiversExecutor.shutdown();
+		}
+
 		cf.destroy();
 	}
 }
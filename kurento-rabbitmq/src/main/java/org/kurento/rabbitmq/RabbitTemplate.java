@@ -25,6 +25,7 @@ import java.util.SortedMap;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -142,7 +143,7 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 
 	private volatile Queue replyQueue;
 
-	private final Map<String, PendingReply> replyHolder = new ConcurrentHashMap<String, PendingReply>();
+	private final ConcurrentMap<String, PendingReply> replyHolder = new ConcurrentHashMap<String, PendingReply>();
 
 	private volatile ConfirmCallback confirmCallback;
 
@@ -423,6 +424,30 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 		});
 	}
 
+	/**
+	 * Send several messages, in order, using the same channel. If sending one
+	 * of them fails, the ones sent before are marked with
+	 * {@link RoutedMessage#isSent()}.
+	 *
+	 * @param messages
+	 *            the messages with their exchanges and routing keys
+	 */
+	public void send(final Collection<RoutedMessage> messages)
+			throws AmqpException {
+		execute(new ChannelCallback<Object>() {
+
+			@Override
+			public Object doInRabbit(Channel channel) throws Exception {
+				for (RoutedMessage message : messages) {
+					doSend(channel, message.getExchange(),
+							message.getRoutingKey(), message.getMessage(), null);
+					message.sent = true;
+				}
+				return null;
+			}
+		});
+	}
+
 	@Override
 	public void convertAndSend(Object object) throws AmqpException {
 		convertAndSend(this.exchange, this.routingKey, object,
@@ -739,6 +764,88 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 		return this.doSendAndReceive(exchange, routingKey, message);
 	}
 
+	/**
+	 * Send a message and return without waiting for the reply. The reply is
+	 * passed to the callback by the listener of the reply queue, so a reply
+	 * queue must be configured. The correlationId of the message (or a random
+	 * one if not set) is used to match the reply; replies not received should
+	 * be discarded with {@link #cancelReply(String)}.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @param routingKey
+	 *            the routing key
+	 * @param message
+	 *            the message to send
+	 * @param correlationData
+	 *            the data passed to the confirm callback, if any
+	 * @param callback
+	 *            the callback receiving the reply
+	 * @return the tag used to correlate the reply
+	 */
+	public String sendAsync(final String exchange, final String routingKey,
+			final Message message, final CorrelationData correlationData,
+			final ReplyCallback callback) throws AmqpException {
+
+		Assert.state(this.replyQueue != null,
+				"A reply queue is required to send asynchronous requests");
+
+		return this.execute(new ChannelCallback<String>() {
+
+			@Override
+			public String doInRabbit(Channel channel) throws Exception {
+
+				final PendingReply pendingReply = new PendingReply(callback);
+
+				MessageProperties properties = message.getMessageProperties();
+				String messageTag = properties.getCorrelationId() != null ? new String(
+						properties.getCorrelationId(),
+						RabbitTemplate.this.encoding) : UUID.randomUUID()
+						.toString();
+
+				pendingReply.setSavedReplyTo(properties.getReplyTo());
+				pendingReply.setSavedCorrelation(messageTag);
+				properties.setReplyTo(RabbitTemplate.this.replyQueue.getName());
+				if (RabbitTemplate.this.correlationKey == null) {
+					properties.setCorrelationId(messageTag
+							.getBytes(RabbitTemplate.this.encoding));
+				} else {
+					properties.setHeader(RabbitTemplate.this.correlationKey,
+							messageTag);
+				}
+
+				RabbitTemplate.this.replyHolder.put(messageTag, pendingReply);
+
+				if (logger.isDebugEnabled()) {
+					logger.debug("Sending async message with tag "
+							+ messageTag);
+				}
+
+				try {
+					doSend(channel, exchange, routingKey, message,
+							correlationData);
+				} catch (Exception e) {
+					RabbitTemplate.this.replyHolder.remove(messageTag);
+					throw e;
+				}
+
+				return messageTag;
+			}
+		});
+	}
+
+	/**
+	 * Stop waiting for the reply of an asynchronous message.
+	 *
+	 * @param messageTag
+	 *            the tag returned by
+	 *            {@link #sendAsync(String, String, Message, CorrelationData, ReplyCallback)}
+	 * @return true if the reply was still pending
+	 */
+	public boolean cancelReply(String messageTag) {
+		return this.replyHolder.remove(messageTag) != null;
+	}
+
 	@Override
 	public Object convertSendAndReceive(final Object message)
 			throws AmqpException {
@@ -1217,6 +1324,11 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 			}
 
 			PendingReply pendingReply = this.replyHolder.get(messageTag);
+			if (pendingReply != null && pendingReply.getCallback() != null
+					&& !this.replyHolder.remove(messageTag, pendingReply)) {
+				// Cancelled while the reply was being received
+				pendingReply = null;
+			}
 			if (pendingReply == null) {
 				if (logger.isWarnEnabled()) {
 					logger.warn("Reply received after timeout for "
@@ -1244,8 +1356,11 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 				// Restore any inbound replyTo
 				String savedReplyTo = pendingReply.getSavedReplyTo();
 				message.getMessageProperties().setReplyTo(savedReplyTo);
-				LinkedBlockingQueue<Message> queue = pendingReply.getQueue();
-				queue.add(message);
+				if (pendingReply.getCallback() != null) {
+					pendingReply.getCallback().onReply(message);
+				} else {
+					pendingReply.getQueue().add(message);
+				}
 				if (logger.isDebugEnabled()) {
 					logger.debug("Reply received for " + messageTag);
 					if (savedReplyTo != null) {
@@ -1267,8 +1382,16 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 
 		private final LinkedBlockingQueue<Message> queue;
 
+		private final ReplyCallback callback;
+
 		public PendingReply() {
 			this.queue = new LinkedBlockingQueue<Message>();
+			this.callback = null;
+		}
+
+		public PendingReply(ReplyCallback callback) {
+			this.queue = null;
+			this.callback = callback;
 		}
 
 		public String getSavedReplyTo() {
@@ -1291,6 +1414,48 @@ public class RabbitTemplate extends RabbitAccessor implements RabbitOperations,
 			return queue;
 		}
 
+		public ReplyCallback getCallback() {
+			return callback;
+		}
+
+	}
+
+	public static class RoutedMessage {
+
+		private final String exchange;
+
+		private final String routingKey;
+
+		private final Message message;
+
+		private volatile boolean sent;
+
+		public RoutedMessage(String exchange, String routingKey, Message message) {
+			this.exchange = exchange;
+			this.routingKey = routingKey;
+			this.message = message;
+		}
+
+		public String getExchange() {
+			return exchange;
+		}
+
+		public String getRoutingKey() {
+			return routingKey;
+		}
+
+		public Message getMessage() {
+			return message;
+		}
+
+		public boolean isSent() {
+			return sent;
+		}
+
+	}
+
+	public interface ReplyCallback {
+		void onReply(Message reply);
 	}
 
 	public interface ConfirmCallback {
@@ -4,9 +4,13 @@ import static org.kurento.jsonrpc.JsonUtils.fromJsonRequest;
 import static org.kurento.rabbitmq.RabbitMqManager.PIPELINE_CREATION_QUEUE;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.kurento.client.internal.transport.jsonrpc.RomJsonRpcConstants;
 import org.kurento.commons.Address;
@@ -21,6 +25,7 @@ import org.kurento.jsonrpc.message.Request;
 import org.kurento.jsonrpc.message.Response;
 import org.kurento.rabbitmq.RabbitMqManager;
 import org.kurento.rabbitmq.RabbitMqManager.BrokerMessageReceiver;
+import org.kurento.rabbitmq.RabbitMqManager.BrokerReplyCallback;
 import org.kurento.rabbitmq.RabbitTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +52,16 @@ public class JsonRpcClientRabbitMq extends JsonRpcClient {
 
 	private String defaultSessionId = UUID.randomUUID().toString();
 
+	/**
+	 * Routing keys of the events bound to the client queue. All of them are
+	 * received by the same consumer and dispatched by the handler of the
+	 * client.
+	 */
+	private final Set<String> eventRoutingKeys = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private boolean eventReceiverRegistered;
+
 	private final ResponseSender dummyResponseSenderForEvents = new ResponseSender() {
 		@Override
 		public void sendResponse(Message message) throws IOException {
@@ -136,97 +151,112 @@ public class JsonRpcClientRabbitMq extends JsonRpcClient {
 
 		log.debug("Req-> {}", request);
 
-		JsonObject paramsJson = (JsonObject) request.getParams();
+		try {
 
-		if (request.getSessionId() == null) {
-			// RabbitMQ doesn't allow sending requests without sessionId. It is
-			// used to filter retried requests / responses
-			request.setSessionId(defaultSessionId);
-		}
+			String routingKey = prepareRequest(request);
 
-		try {
+			String responseStr = rabbitMqManager.sendAndReceive("",
+					routingKey, request, rabbitTemplate);
 
-			Response<R> response;
+			Response<R> response = processResponse(request, responseStr,
+					resultClass);
 
-			if (RomJsonRpcConstants.CREATE_METHOD.equals(request.getMethod())
-					&& "MediaPipeline".equals(paramsJson.get("type")
-							.getAsString())) {
+			double duration = (System.nanoTime() - initTime) / (double) 1000000;
 
-				String responseStr = rabbitMqManager.sendAndReceive("",
-						PIPELINE_CREATION_QUEUE, request, rabbitTemplate);
+			log.debug("RTT Time: {} millis", duration);
 
-				log.debug("<-Res {}", responseStr.trim());
+			return response;
 
-				response = JsonUtils.fromJsonResponse(responseStr, resultClass);
+		} catch (Exception e) {
+			throw new RuntimeException(
+					"Exception while invoking request to server", e);
+		}
+	}
 
-				String mediaPipelineId;
-				if (response.getResult() instanceof JsonObject) {
-					mediaPipelineId = ((JsonObject) response.getResult()).get(
-							"value").getAsString();
-				} else {
-					mediaPipelineId = ((JsonPrimitive) response.getResult())
-							.getAsString();
-				}
+	/**
+	 * Performs the actions of the client associated to the request before it
+	 * is sent, and returns the routing key of the queue where the request has
+	 * to be sent.
+	 */
+	private String prepareRequest(Request<? extends Object> request) {
 
-				keepAliveManager.addId(mediaPipelineId);
+		if (request.getSessionId() == null) {
+			// RabbitMQ doesn't allow sending requests without sessionId. It is
+			// used to filter retried requests / responses
+			request.setSessionId(defaultSessionId);
+		}
 
-			} else {
+		JsonObject paramsJson = (JsonObject) request.getParams();
 
-				String method = request.getMethod();
+		String method = request.getMethod();
 
-				String pipelineId;
+		if (isPipelineCreation(request)) {
+			return PIPELINE_CREATION_QUEUE;
 
-				if (RomJsonRpcConstants.CREATE_METHOD.equals(method)) {
+		} else if (RomJsonRpcConstants.CREATE_METHOD.equals(method)) {
 
-					JsonObject constructorParams = paramsJson.get(
-							RomJsonRpcConstants.CREATE_CONSTRUCTOR_PARAMS)
-							.getAsJsonObject();
+			JsonObject constructorParams = paramsJson.get(
+					RomJsonRpcConstants.CREATE_CONSTRUCTOR_PARAMS)
+					.getAsJsonObject();
 
-					if (constructorParams.has("mediaPipeline")) {
-						pipelineId = constructorParams.get("mediaPipeline")
-								.getAsString();
-					} else {
-						pipelineId = extractPipelineFromObjectId(constructorParams
-								.get("hub").getAsString());
-					}
+			if (constructorParams.has("mediaPipeline")) {
+				return constructorParams.get("mediaPipeline").getAsString();
+			} else {
+				return extractPipelineFromObjectId(constructorParams.get("hub")
+						.getAsString());
+			}
 
-				} else {
+		} else {
 
-					// All messages has the same param name for "object"
-					String objectId = paramsJson.get(
-							RomJsonRpcConstants.INVOKE_OBJECT).getAsString();
+			// All messages has the same param name for "object"
+			String objectId = paramsJson.get(RomJsonRpcConstants.INVOKE_OBJECT)
+					.getAsString();
 
-					pipelineId = extractPipelineFromObjectId(objectId);
+			String pipelineId = extractPipelineFromObjectId(objectId);
 
-					if (RomJsonRpcConstants.SUBSCRIBE_METHOD.equals(method)) {
-						processSubscriptionRequest(paramsJson, pipelineId);
-					} else if (RomJsonRpcConstants.RELEASE_METHOD
-							.equals(method)) {
+			if (RomJsonRpcConstants.SUBSCRIBE_METHOD.equals(method)) {
+				processSubscriptionRequest(paramsJson, pipelineId);
+			} else if (RomJsonRpcConstants.RELEASE_METHOD.equals(method)) {
 
-						// Remove from keepAliveManager if the released object
-						// is a MediaPipeline object
-						keepAliveManager.removeId(objectId);
-					}
-				}
+				// Remove from keepAliveManager if the released object
+				// is a MediaPipeline object
+				keepAliveManager.removeId(objectId);
+			}
 
-				String responseStr = rabbitMqManager.sendAndReceive("",
-						pipelineId, request, rabbitTemplate);
+			return pipelineId;
+		}
+	}
 
-				log.debug("<-Res {}", responseStr.trim());
+	private <R> Response<R> processResponse(
+			Request<? extends Object> request, String responseStr,
+			Class<R> resultClass) {
 
-				response = JsonUtils.fromJsonResponse(responseStr, resultClass);
-			}
+		log.debug("<-Res {}", responseStr.trim());
 
-			double duration = (System.nanoTime() - initTime) / (double) 1000000;
+		Response<R> response = JsonUtils.fromJsonResponse(responseStr,
+				resultClass);
 
-			log.debug("RTT Time: {} millis", duration);
+		if (isPipelineCreation(request)) {
 
-			return response;
+			String mediaPipelineId;
+			if (response.getResult() instanceof JsonObject) {
+				mediaPipelineId = ((JsonObject) response.getResult()).get(
+						"value").getAsString();
+			} else {
+				mediaPipelineId = ((JsonPrimitive) response.getResult())
+						.getAsString();
+			}
 
-		} catch (Exception e) {
-			throw new RuntimeException(
-					"Exception while invoking request to server", e);
+			keepAliveManager.addId(mediaPipelineId);
 		}
+
+		return response;
+	}
+
+	private boolean isPipelineCreation(Request<? extends Object> request) {
+		return RomJsonRpcConstants.CREATE_METHOD.equals(request.getMethod())
+				&& "MediaPipeline".equals(((JsonObject) request.getParams())
+						.get("type").getAsString());
 	}
 
 	private String extractPipelineFromObjectId(String brokerObjectId) {
@@ -248,19 +278,37 @@ public class JsonRpcClientRabbitMq extends JsonRpcClient {
 		String element = paramsJson.get(RomJsonRpcConstants.SUBSCRIBE_OBJECT)
 				.getAsString();
 
-		final String eventRoutingKey = rabbitMqManager.createRoutingKey(
-				element, eventType);
+		String eventRoutingKey = rabbitMqManager.createRoutingKey(element,
+				eventType);
+
+		if (eventRoutingKeys.add(eventRoutingKey)) {
+			try {
+				rabbitMqManager.bindExchangeToQueue(
+						RabbitMqManager.EVENT_QUEUE_PREFIX + pipeline,
+						clientId, eventRoutingKey);
+			} catch (RuntimeException e) {
+				eventRoutingKeys.remove(eventRoutingKey);
+				throw e;
+			}
+		}
 
-		rabbitMqManager.bindExchangeToQueue(RabbitMqManager.EVENT_QUEUE_PREFIX
-				+ pipeline, clientId, eventRoutingKey);
+		registerEventReceiverIfNecessary();
+	}
 
-		rabbitMqManager.addMessageReceiver(clientId,
-				new BrokerMessageReceiver() {
-					@Override
-					public void onMessage(String message) {
-						handleRequestFromServer(message);
-					}
-				});
+	private synchronized void registerEventReceiverIfNecessary() {
+
+		if (!eventReceiverRegistered) {
+
+			rabbitMqManager.addMessageReceiver(clientId,
+					new BrokerMessageReceiver() {
+						@Override
+						public void onMessage(String message) {
+							handleRequestFromServer(message);
+						}
+					});
+
+			eventReceiverRegistered = true;
+		}
 	}
 
 	protected void internalSendRequestBroker(
@@ -270,23 +318,69 @@ public class JsonRpcClientRabbitMq extends JsonRpcClient {
 
 		connectIfNecessary();
 
-		// FIXME: Poor man async implementation.
-		execService.submit(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					Response<JsonElement> result = internalSendRequestBroker(
-							request, resultClass);
-					try {
-						continuation.onSuccess(result);
-					} catch (Exception e) {
-						log.error("Exception while processing response", e);
+		log.debug("Req-> {}", request);
+
+		String routingKey;
+		try {
+			routingKey = prepareRequest(request);
+		} catch (Exception e) {
+			continuation.onError(e);
+			return;
+		}
+
+		// Continuations are executed out of the listener of the reply queue,
+		// as they can send new requests and wait for their replies
+		rabbitMqManager.sendAndReceiveAsync("", routingKey, request,
+				rabbitTemplate, new BrokerReplyCallback() {
+					@Override
+					public void onReply(final String reply) {
+						execute(new Runnable() {
+							@Override
+							public void run() {
+								processAsyncResponse(request, reply,
+										resultClass, continuation);
+							}
+						});
 					}
-				} catch (Exception e) {
-					continuation.onError(e);
-				}
-			}
-		});
+
+					@Override
+					public void onError(final Throwable error) {
+						execute(new Runnable() {
+							@Override
+							public void run() {
+								continuation.onError(error);
+							}
+						});
+					}
+				});
+	}
+
+	private void execute(Runnable task) {
+		try {
+			execService.execute(task);
+		} catch (RejectedExecutionException e) {
+			// Client closed. The continuation is run anyway, so it isn't lost
+			task.run();
+		}
+	}
+
+	private void processAsyncResponse(Request<? extends Object> request,
+			String reply, Class<JsonElement> resultClass,
+			Continuation<Response<JsonElement>> continuation) {
+
+		Response<JsonElement> response;
+		try {
+			response = processResponse(request, reply, resultClass);
+		} catch (Exception e) {
+			continuation.onError(e);
+			return;
+		}
+
+		try {
+			continuation.onSuccess(response);
+		} catch (Exception e) {
+			log.error("Exception while processing response", e);
+		}
 	}
 
 	@Override
@@ -295,6 +389,7 @@ public class JsonRpcClientRabbitMq extends JsonRpcClient {
 		if (rabbitMqManager != null) {
 			rabbitMqManager.destroy();
 		}
+		execService.shutdown();
 	}
 
 }
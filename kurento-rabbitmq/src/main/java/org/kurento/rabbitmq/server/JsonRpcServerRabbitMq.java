@@ -17,7 +17,6 @@ import org.kurento.jsonrpc.message.Response;
 import org.kurento.jsonrpc.message.ResponseError;
 import org.kurento.rabbitmq.RabbitMqManager;
 import org.kurento.rabbitmq.RabbitMqManager.BrokerMessageReceiverWithResponse;
-import org.kurento.rabbitmq.RabbitTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 //import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -38,8 +37,6 @@ public class JsonRpcServerRabbitMq {
 	private JsonRpcClient client;
 	private RabbitMqManager rabbitMq;
 
-	private RabbitTemplate template;
-
 	// TODO: Maybe we need to implement a pure JsonRpcServerRabbitMq with
 	// handler parameter instead of this client > handler communication
 	public JsonRpcServerRabbitMq(JsonRpcHandler<?> handler) {
@@ -58,7 +55,6 @@ public class JsonRpcServerRabbitMq {
 
 	public void start() {
 		this.rabbitMq.connect();
-		this.template = rabbitMq.createServerTemplate();
 
 		rabbitMq.addMessageReceiverWithResponse(
 				RabbitMqManager.PIPELINE_CREATION_QUEUE,
@@ -67,7 +63,7 @@ public class JsonRpcServerRabbitMq {
 					public String onMessage(String message) {
 						return pipelineCreationQueueRequest(message);
 					}
-				});
+				}, false);
 
 		this.client
 				.setServerRequestHandler(new DefaultJsonRpcHandler<JsonObject>() {
@@ -160,8 +156,8 @@ public class JsonRpcServerRabbitMq {
 			log.debug("PipelinesBySubscription: " + pipelinesBySubscription);
 		}
 
-		rabbitMq.send(pipelineInfo.getEventsExchange(), eventRoutingKey,
-				request.toString(), template);
+		rabbitMq.publishEvent(pipelineInfo.getEventsExchange(),
+				eventRoutingKey, request.toString());
 
 	}
 
@@ -215,8 +211,8 @@ public class JsonRpcServerRabbitMq {
 
 		Response<JsonElement> response = invokeOperation(request);
 
-		if (!response.isError() && pipelinesById.containsKey(objectId)) {
-			pipelinesById.remove(objectId);
+		if (!response.isError() && pipelinesById.remove(objectId) != null) {
+			rabbitMq.removeMessageReceiverWithResponse(objectId);
 		}
 
 		return response;
@@ -0,0 +1,67 @@
+package org.kurento.rabbitmq.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.kurento.rabbitmq.MessageEncoding;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+public class MessageEncodingTest {
+
+	public static final String EVENT = "{\"id\":1,\"method\":\"onEvent\","
+			+ "\"params\":{\"value\":{\"data\":{\"source\":"
+			+ "\"5f0a2b6e-92a4-4f3b-8d3c-1e9b2f7a4c11_MediaPipeline/"
+			+ "3b1c9d2e-7a4f-4e6b-9c8d-2f1e0a9b8c7d_WebRtcEndpoint\","
+			+ "\"type\":\"OnIceCandidate\",\"candidate\":{\"candidate\":"
+			+ "\"candidate:1 1 UDP 2013266431 192.168.1.10 46845 typ host\","
+			+ "\"sdpMid\":\"audio\",\"sdpMLineIndex\":0}},\"object\":"
+			+ "\"5f0a2b6e-92a4-4f3b-8d3c-1e9b2f7a4c11_MediaPipeline/"
+			+ "3b1c9d2e-7a4f-4e6b-9c8d-2f1e0a9b8c7d_WebRtcEndpoint\","
+			+ "\"type\":\"OnIceCandidate\"}},\"jsonrpc\":\"2.0\"}";
+
+	@Test
+	public void compressionTest() {
+
+		MessageEncoding encoding = new MessageEncoding(true, 0);
+
+		Message message = encoding.toMessage(EVENT, new MessageProperties());
+
+		assertEquals(MessageEncoding.DEFLATE_CONTENT_ENCODING, message
+				.getMessageProperties().getContentEncoding());
+		assertTrue(message.getBody().length < EVENT.length());
+		assertEquals(EVENT, encoding.toString(message));
+
+		// Receivers decode messages of senders without compression
+		assertEquals(EVENT, new MessageEncoding(false, 0).toString(message));
+	}
+
+	@Test
+	public void thresholdTest() {
+
+		MessageEncoding encoding = new MessageEncoding(true, 1024);
+
+		Message message = encoding.toMessage(EVENT, new MessageProperties());
+
+		assertNull(message.getMessageProperties().getContentEncoding());
+		assertEquals(EVENT, encoding.toString(message));
+	}
+
+	@Test
+	public void replyTest() {
+
+		MessageEncoding encoding = new MessageEncoding(true, 0);
+
+		Message request = new MessageEncoding(false, 0).toMessage(EVENT,
+				new MessageProperties());
+
+		// Replies are compressed only if the request was
+		Message reply = encoding.toReply(EVENT, new MessageProperties(),
+				request);
+
+		assertNull(reply.getMessageProperties().getContentEncoding());
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.kurento.rabbitmq.test.sandbox;
+
+import static org.kurento.rabbitmq.test.MessageEncodingTest.EVENT;
+
+import org.kurento.rabbitmq.MessageEncoding;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Compares the size and the encoding time of an event sent as plain JSON and
+ * compressed with deflate.
+ */
+public class MessageEncodingBenchmark {
+
+	private static final int NUM_MESSAGES = 20000;
+
+	public static void main(String[] args) {
+
+		MessageEncoding json = new MessageEncoding(false, 0);
+		MessageEncoding deflate = new MessageEncoding(true, 0);
+
+		// Warm up
+		encode(json);
+		encode(deflate);
+
+		long jsonTime = encode(json);
+		long deflateTime = encode(deflate);
+
+		System.out.println("Message size: "
+				+ json.toMessage(EVENT, new MessageProperties()).getBody().length
+				+ " bytes with JSON, "
+				+ deflate.toMessage(EVENT, new MessageProperties()).getBody().length
+				+ " bytes with deflate");
+
+		System.out.println("Encoding and decoding time: " + jsonTime
+				/ NUM_MESSAGES + " ns/op with JSON, " + deflateTime
+				/ NUM_MESSAGES + " ns/op with deflate");
+	}
+
+	private static long encode(MessageEncoding encoding) {
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < NUM_MESSAGES; i++) {
+			encoding.toString(encoding.toMessage(EVENT,
+					new MessageProperties()));
+		}
+
+		return System.nanoTime() - start;
+	}
+
+}
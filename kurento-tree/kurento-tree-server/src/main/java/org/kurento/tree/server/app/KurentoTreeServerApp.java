@@ -48,7 +48,10 @@ public class KurentoTreeServerApp implements JsonRpcConfigurer {
 	public static final String KMSS_URIS_PROPERTY = "kms.uris";
 	public static final String KMSS_URIS_DEFAULT = "[ \"ws://localhost:8888/kurento\" ]";
 
-	@Bean
+	public static final String WEBRTC_POOL_SIZE_PROPERTY = "webrtc.poolSize";
+	public static final int WEBRTC_POOL_SIZE_DEFAULT = 0;
+
+	@Bean(destroyMethod = "destroy")
 	public TreeManager treeManager() {
 
 		JsonArray kmsUris = getPropertyJson(KMSS_URIS_PROPERTY,
@@ -59,7 +62,8 @@ public class KurentoTreeServerApp implements JsonRpcConfigurer {
 
 		try {
 			KmsManager kmsManager = new FixedNRealKmsManager(kmsWsUris);
-			return new LessLoadedNElasticTreeManager(kmsManager);
+			return new LessLoadedNElasticTreeManager(kmsManager, getProperty(
+					WEBRTC_POOL_SIZE_PROPERTY, WEBRTC_POOL_SIZE_DEFAULT));
 		} catch (IOException e) {
 			throw new KurentoException(e);
 		}
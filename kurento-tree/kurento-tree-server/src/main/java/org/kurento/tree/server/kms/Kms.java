@@ -1,13 +1,24 @@
 package org.kurento.tree.server.kms;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class Kms extends KurentoObj {
 
-	protected List<Pipeline> pipelines = new ArrayList<>();
+	// Pipelines of different trees are created concurrently and their elements
+	// are traversed to calculate the load
+	protected List<Pipeline> pipelines = new CopyOnWriteArrayList<>();
 	private LoadManager loadManager = new MaxWebRtcLoadManager(10000);
 
+	// Updated by the pipelines when WebRtcs are created or released, so the
+	// load is known without traversing all the elements of the kms
+	private final AtomicInteger numWebRtcs = new AtomicInteger();
+
 	public Kms() {
 
 	}
@@ -17,15 +28,44 @@ public class Kms extends KurentoObj {
 	}
 
 	public Pipeline createPipeline() {
-		Pipeline pipeline = newPipeline();
-		pipelines.add(pipeline);
-		return pipeline;
+		return KmsFutures.await(createPipelineAsync());
+	}
+
+	/**
+	 * Creates a pipeline without waiting for the kms, so several pipelines
+	 * can be created concurrently.
+	 */
+	public ListenableFuture<Pipeline> createPipelineAsync() {
+		return Futures.transform(newPipelineAsync(),
+				new Function<Pipeline, Pipeline>() {
+					@Override
+					public Pipeline apply(Pipeline pipeline) {
+						pipelines.add(pipeline);
+						return pipeline;
+					}
+				});
+	}
+
+	void removePipeline(Pipeline pipeline) {
+		pipelines.remove(pipeline);
 	}
 
 	public List<Pipeline> getPipelines() {
 		return pipelines;
 	}
 
+	public int getNumWebRtcs() {
+		return numWebRtcs.get();
+	}
+
+	void webRtcCreated() {
+		numWebRtcs.incrementAndGet();
+	}
+
+	void webRtcReleased() {
+		numWebRtcs.decrementAndGet();
+	}
+
 	public void setLoadManager(LoadManager loadManager) {
 		this.loadManager = loadManager;
 	}
@@ -34,6 +74,15 @@ public class Kms extends KurentoObj {
 		return new Pipeline(this);
 	}
 
+	/**
+	 * Kmss with remote pipelines override this method to create them
+	 * asynchronously. By default, pipelines are created with
+	 * {@link #newPipeline()}.
+	 */
+	protected ListenableFuture<Pipeline> newPipelineAsync() {
+		return Futures.immediateFuture(newPipeline());
+	}
+
 	public double getLoad() {
 		return loadManager.calculateLoad(this);
 	}
@@ -0,0 +1,31 @@
+package org.kurento.tree.server.kms;
+
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Utilities for the futures returned by the asynchronous operations of kmss,
+ * pipelines and elements.
+ */
+public class KmsFutures {
+
+	private KmsFutures() {
+	}
+
+	/**
+	 * Waits for the result of an asynchronous operation. The exception of a
+	 * failed operation is thrown as is, wrapped in a RuntimeException if it is
+	 * checked.
+	 */
+	public static <T> T await(ListenableFuture<T> future) {
+		try {
+			return Uninterruptibles.getUninterruptibly(future);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+}
@@ -10,7 +10,7 @@ public class MaxWebRtcLoadManager implements LoadManager {
 
 	@Override
 	public double calculateLoad(Kms kms) {
-		int numWebRtcs = countWebRtcEndpoints(kms);
+		int numWebRtcs = kms.getNumWebRtcs();
 		if (numWebRtcs > maxWebRtcPerKms) {
 			return 1;
 		} else {
@@ -18,16 +18,8 @@ public class MaxWebRtcLoadManager implements LoadManager {
 		}
 	}
 
-	private int countWebRtcEndpoints(Kms kms) {
-		int numWebRtcs = 0;
-		for (Pipeline pipeline : kms.getPipelines()) {
-			numWebRtcs += pipeline.getWebRtcs().size();
-		}
-		return numWebRtcs;
-	}
-
 	@Override
 	public boolean allowMoreElements(Kms kms) {
-		return countWebRtcEndpoints(kms) < maxWebRtcPerKms;
+		return kms.getNumWebRtcs() < maxWebRtcPerKms;
 	}
 }
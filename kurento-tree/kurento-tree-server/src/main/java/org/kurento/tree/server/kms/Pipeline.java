@@ -2,14 +2,19 @@ package org.kurento.tree.server.kms;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class Pipeline extends KurentoObj {
 
 	protected Kms kms;
-	protected List<WebRtc> webRtcs = new ArrayList<>();
-	protected List<Plumber> plumbers = new ArrayList<>();
+	protected List<WebRtc> webRtcs = new CopyOnWriteArrayList<>();
+	protected List<Plumber> plumbers = new CopyOnWriteArrayList<>();
 
 	public Pipeline(Kms kms) {
 		this.kms = kms;
@@ -20,15 +25,34 @@ public class Pipeline extends KurentoObj {
 	}
 
 	public WebRtc createWebRtc() {
-		WebRtc webRtc = newWebRtc();
-		webRtcs.add(webRtc);
-		return webRtc;
+		return KmsFutures.await(createWebRtcAsync());
+	}
+
+	public ListenableFuture<WebRtc> createWebRtcAsync() {
+		return Futures.transform(newWebRtcAsync(),
+				new Function<WebRtc, WebRtc>() {
+					@Override
+					public WebRtc apply(WebRtc webRtc) {
+						webRtcs.add(webRtc);
+						kms.webRtcCreated();
+						return webRtc;
+					}
+				});
 	}
 
 	public Plumber createPlumber() {
-		Plumber plumber = newPlumber();
-		plumbers.add(plumber);
-		return plumber;
+		return KmsFutures.await(createPlumberAsync());
+	}
+
+	public ListenableFuture<Plumber> createPlumberAsync() {
+		return Futures.transform(newPlumberAsync(),
+				new Function<Plumber, Plumber>() {
+					@Override
+					public Plumber apply(Plumber plumber) {
+						plumbers.add(plumber);
+						return plumber;
+					}
+				});
 	}
 
 	public List<WebRtc> getWebRtcs() {
@@ -44,13 +68,39 @@ public class Pipeline extends KurentoObj {
 	}
 
 	public Plumber[] link(Pipeline sinkPipeline) {
+		return KmsFutures.await(linkAsync(sinkPipeline));
+	}
 
-		Plumber sourcePipelinePlumber = this.createPlumber();
-		Plumber sinkPipelinePlumber = sinkPipeline.createPlumber();
-
-		sourcePipelinePlumber.link(sinkPipelinePlumber);
-
-		return new Plumber[] { sourcePipelinePlumber, sinkPipelinePlumber };
+	/**
+	 * Links this pipeline to the sink pipeline. The plumbers of both
+	 * pipelines are created concurrently, and linked when both are ready.
+	 *
+	 * @return the future of the plumbers of this and the sink pipeline
+	 */
+	public ListenableFuture<Plumber[]> linkAsync(Pipeline sinkPipeline) {
+
+		List<ListenableFuture<Plumber>> plumbers = new ArrayList<>();
+		plumbers.add(this.createPlumberAsync());
+		plumbers.add(sinkPipeline.createPlumberAsync());
+
+		return Futures.transform(Futures.allAsList(plumbers),
+				new AsyncFunction<List<Plumber>, Plumber[]>() {
+					@Override
+					public ListenableFuture<Plumber[]> apply(
+							List<Plumber> plumbers) {
+
+						final Plumber[] result = plumbers
+								.toArray(new Plumber[2]);
+
+						return Futures.transform(result[0].linkAsync(result[1]),
+								new Function<Void, Plumber[]>() {
+									@Override
+									public Plumber[] apply(Void input) {
+										return result;
+									}
+								});
+					}
+				});
 	}
 
 	protected WebRtc newWebRtc() {
@@ -61,8 +111,41 @@ public class Pipeline extends KurentoObj {
 		return new Plumber(this);
 	}
 
+	/**
+	 * Pipelines with remote elements override this method to create them
+	 * asynchronously. By default, WebRtcs are created with
+	 * {@link #newWebRtc()}.
+	 */
+	protected ListenableFuture<WebRtc> newWebRtcAsync() {
+		return Futures.immediateFuture(newWebRtc());
+	}
+
+	/**
+	 * Pipelines with remote elements override this method to create them
+	 * asynchronously. By default, plumbers are created with
+	 * {@link #newPlumber()}.
+	 */
+	protected ListenableFuture<Plumber> newPlumberAsync() {
+		return Futures.immediateFuture(newPlumber());
+	}
+
+	/**
+	 * Releases the elements of the pipeline and removes it from its kms.
+	 */
+	public void release() {
+		for (Element element : new ArrayList<>(webRtcs)) {
+			element.release();
+		}
+		for (Element element : new ArrayList<>(plumbers)) {
+			element.release();
+		}
+		kms.removePipeline(this);
+	}
+
 	void removeElement(Element element) {
-		this.webRtcs.remove(element);
+		if (this.webRtcs.remove(element)) {
+			kms.webRtcReleased();
+		}
 		this.plumbers.remove(element);
 	}
 
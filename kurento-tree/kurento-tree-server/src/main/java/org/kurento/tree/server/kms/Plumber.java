@@ -1,5 +1,9 @@
 package org.kurento.tree.server.kms;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 public class Plumber extends Element {
 
 	private Plumber linkedTo;
@@ -9,17 +13,41 @@ public class Plumber extends Element {
 	}
 
 	public void link(Plumber plumber) {
+		KmsFutures.await(linkAsync(plumber));
+	}
+
+	/**
+	 * Links this plumber to the given one. Both plumbers are marked as linked
+	 * only when the link has been completed.
+	 */
+	public ListenableFuture<Void> linkAsync(final Plumber plumber) {
 		if (plumber.getPipeline().getKms() == this.getPipeline().getKms()) {
-			throw new RuntimeException(
-					"Two plumbers of the same Kms can not be linked");
+			return Futures.immediateFailedFuture(new RuntimeException(
+					"Two plumbers of the same Kms can not be linked"));
 		}
 
 		if (this.linkedTo != null || plumber.linkedTo != null) {
-			throw new RuntimeException("A plumber only can be connected once");
+			return Futures.immediateFailedFuture(new RuntimeException(
+					"A plumber only can be connected once"));
 		}
 
-		this.linkedTo = plumber;
-		plumber.linkedTo = this;
+		return Futures.transform(linkEndpoints(plumber),
+				new Function<Void, Void>() {
+					@Override
+					public Void apply(Void input) {
+						Plumber.this.linkedTo = plumber;
+						plumber.linkedTo = Plumber.this;
+						return null;
+					}
+				});
+	}
+
+	/**
+	 * Plumbers with remote endpoints override this method to link them
+	 * asynchronously. By default, there is nothing to link.
+	 */
+	protected ListenableFuture<Void> linkEndpoints(Plumber plumber) {
+		return Futures.immediateFuture(null);
 	}
 
 	public Plumber getLinkedTo() {
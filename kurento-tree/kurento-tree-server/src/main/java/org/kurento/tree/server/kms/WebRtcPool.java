@@ -0,0 +1,115 @@
+package org.kurento.tree.server.kms;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps WebRtcs already created in a pipeline and connected to a source
+ * element, so new sinks only have to negotiate the SDP.
+ * <p>
+ * The number of pooled WebRtcs follows the number of WebRtcs taken in the
+ * last window of time, up to a max size. So, the pool grows when sinks join
+ * frequently and is trimmed when they stop joining. Pooled WebRtcs count in
+ * the load of the kms.
+ * <p>
+ * This class is not thread-safe. Callers have to serialize the access to the
+ * pool and to the source element.
+ */
+public class WebRtcPool {
+
+	private final Pipeline pipeline;
+	private final Element source;
+	private final int maxSize;
+	private final long windowMillis;
+
+	private final Deque<WebRtc> webRtcs = new ArrayDeque<>();
+	private final Deque<Long> takeTimes = new ArrayDeque<>();
+
+	/**
+	 * @param pipeline
+	 *            pipeline where WebRtcs are created
+	 * @param source
+	 *            element WebRtcs are connected to
+	 * @param maxSize
+	 *            max number of pooled WebRtcs
+	 * @param windowMillis
+	 *            time window used to calculate the size of the pool
+	 */
+	public WebRtcPool(Pipeline pipeline, Element source, int maxSize,
+			long windowMillis) {
+		this.pipeline = pipeline;
+		this.source = source;
+		this.maxSize = maxSize;
+		this.windowMillis = windowMillis;
+	}
+
+	/**
+	 * Returns a pooled WebRtc, or null if the pool is empty.
+	 */
+	public WebRtc take() {
+
+		takeTimes.addLast(System.currentTimeMillis());
+		if (takeTimes.size() > maxSize) {
+			takeTimes.removeFirst();
+		}
+
+		return webRtcs.pollFirst();
+	}
+
+	/**
+	 * Fits the size of the pool to the number of WebRtcs taken in the last
+	 * window. Exceeding WebRtcs are released, but at most one WebRtc is
+	 * created in each invocation, so callers don't block other operations on
+	 * the source for long. No WebRtc is created if the kms doesn't allow more
+	 * elements.
+	 *
+	 * @return true if the pool needs more WebRtcs
+	 */
+	public boolean refill() {
+
+		long windowStart = System.currentTimeMillis() - windowMillis;
+		while (!takeTimes.isEmpty() && takeTimes.peekFirst() < windowStart) {
+			takeTimes.removeFirst();
+		}
+
+		int targetSize = takeTimes.size();
+
+		while (webRtcs.size() > targetSize) {
+			webRtcs.pollLast().release();
+		}
+
+		if (webRtcs.size() == targetSize) {
+			return false;
+		}
+
+		Kms kms = pipeline.getKms();
+		WebRtc webRtc;
+		synchronized (kms) {
+			if (!kms.allowMoreElements()) {
+				return false;
+			}
+			webRtc = pipeline.createWebRtc();
+		}
+		source.connect(webRtc);
+		webRtc.setLabel("Pooled");
+		webRtcs.addLast(webRtc);
+
+		return webRtcs.size() < targetSize;
+	}
+
+	public int size() {
+		return webRtcs.size();
+	}
+
+	/**
+	 * Releases the pooled WebRtcs.
+	 */
+	public void release() {
+		for (WebRtc webRtc : webRtcs) {
+			webRtc.release();
+		}
+		webRtcs.clear();
+		takeTimes.clear();
+	}
+
+}
@@ -0,0 +1,30 @@
+package org.kurento.tree.server.kms.real;
+
+import org.kurento.client.Continuation;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Continuation completing a future, so asynchronous operations of
+ * kurento-client can be composed as futures.
+ */
+class FutureContinuation<T> implements Continuation<T> {
+
+	private final SettableFuture<T> future = SettableFuture.create();
+
+	@Override
+	public void onSuccess(T result) {
+		future.set(result);
+	}
+
+	@Override
+	public void onError(Throwable cause) {
+		future.setException(cause);
+	}
+
+	public ListenableFuture<T> getFuture() {
+		return future;
+	}
+
+}
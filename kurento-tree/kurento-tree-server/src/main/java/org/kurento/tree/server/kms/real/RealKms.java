@@ -1,9 +1,14 @@
 package org.kurento.tree.server.kms.real;
 
 import org.kurento.client.KurentoClient;
+import org.kurento.client.MediaPipeline;
 import org.kurento.tree.server.kms.Kms;
 import org.kurento.tree.server.kms.Pipeline;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 public class RealKms extends Kms {
 
 	private KurentoClient client;
@@ -12,8 +17,19 @@ public class RealKms extends Kms {
 		this.client = client;
 	}
 
-	protected Pipeline newPipeline() {
-		return new RealPipeline(this);
+	@Override
+	protected ListenableFuture<Pipeline> newPipelineAsync() {
+
+		FutureContinuation<MediaPipeline> continuation = new FutureContinuation<>();
+		client.createMediaPipeline(continuation);
+
+		return Futures.transform(continuation.getFuture(),
+				new Function<MediaPipeline, Pipeline>() {
+					@Override
+					public Pipeline apply(MediaPipeline mediaPipeline) {
+						return new RealPipeline(RealKms.this, mediaPipeline);
+					}
+				});
 	}
 
 	public KurentoClient getKurentoClient() {
@@ -1,29 +1,74 @@
 package org.kurento.tree.server.kms.real;
 
 import org.kurento.client.MediaPipeline;
+import org.kurento.client.PlumberEndpoint;
+import org.kurento.client.TFuture;
+import org.kurento.client.Transaction;
+import org.kurento.client.WebRtcEndpoint;
 import org.kurento.tree.server.kms.Pipeline;
 import org.kurento.tree.server.kms.Plumber;
 import org.kurento.tree.server.kms.WebRtc;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 public class RealPipeline extends Pipeline {
 
 	private MediaPipeline mediaPipeline;
 
-	public RealPipeline(RealKms realKms) {
+	public RealPipeline(RealKms realKms, MediaPipeline mediaPipeline) {
 		super(realKms);
-		mediaPipeline = realKms.getKurentoClient().createMediaPipeline();
+		this.mediaPipeline = mediaPipeline;
 	}
 
 	public MediaPipeline getMediaPipeline() {
 		return mediaPipeline;
 	}
 
-	protected WebRtc newWebRtc() {
-		return new RealWebRtc(this);
+	@Override
+	public void release() {
+		super.release();
+		mediaPipeline.release();
+	}
+
+	@Override
+	protected ListenableFuture<WebRtc> newWebRtcAsync() {
+
+		FutureContinuation<WebRtcEndpoint> continuation = new FutureContinuation<>();
+		new WebRtcEndpoint.Builder(mediaPipeline).buildAsync(continuation);
+
+		return Futures.transform(continuation.getFuture(),
+				new Function<WebRtcEndpoint, WebRtc>() {
+					@Override
+					public WebRtc apply(WebRtcEndpoint webRtcEndpoint) {
+						return new RealWebRtc(RealPipeline.this, webRtcEndpoint);
+					}
+				});
 	}
 
-	protected Plumber newPlumber() {
-		return new RealPlumber(this);
+	@Override
+	protected ListenableFuture<Plumber> newPlumberAsync() {
+
+		// The endpoint, its address and its port are obtained in only one
+		// round trip, so linking it doesn't need to ask for them
+		Transaction tx = mediaPipeline.beginTransaction();
+		final PlumberEndpoint plumberEndpoint = new PlumberEndpoint.Builder(
+				mediaPipeline).build(tx);
+		final TFuture<String> address = plumberEndpoint.getAddress(tx);
+		final TFuture<Integer> port = plumberEndpoint.getPort(tx);
+
+		FutureContinuation<Void> continuation = new FutureContinuation<>();
+		tx.commit(continuation);
+
+		return Futures.transform(continuation.getFuture(),
+				new Function<Void, Plumber>() {
+					@Override
+					public Plumber apply(Void input) {
+						return new RealPlumber(RealPipeline.this,
+								plumberEndpoint, address.get(), port.get());
+					}
+				});
 	}
 
 }
@@ -6,31 +6,40 @@ import org.kurento.tree.server.kms.Plumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 public class RealPlumber extends Plumber implements RealElement {
 
 	private static Logger log = LoggerFactory.getLogger(RealPlumber.class);
 
 	private PlumberEndpoint plumberEndpoint;
+	private String address;
+	private int port;
 
-	public RealPlumber(RealPipeline pipeline) {
+	public RealPlumber(RealPipeline pipeline, PlumberEndpoint plumberEndpoint,
+			String address, int port) {
 		super(pipeline);
-		plumberEndpoint = new PlumberEndpoint.Builder(
-				pipeline.getMediaPipeline()).build();
+		this.plumberEndpoint = plumberEndpoint;
+		this.address = address;
+		this.port = port;
 	}
 
 	@Override
-	public void link(Plumber plumber) {
+	protected ListenableFuture<Void> linkEndpoints(Plumber plumber) {
 		if (!(plumber instanceof RealPlumber)) {
-			throw new RuntimeException(
-					"A real plumber can not be linked to non real one");
+			return Futures.immediateFailedFuture(new RuntimeException(
+					"A real plumber can not be linked to non real one"));
 		}
 
-		super.link(plumber);
 		RealPlumber realPlumber = (RealPlumber) plumber;
-		String address = realPlumber.plumberEndpoint.getAddress();
-		int port = realPlumber.plumberEndpoint.getPort();
-		log.debug("Connecting plumber to adress:" + address + " port:" + port);
-		this.plumberEndpoint.link(address, port);
+		log.debug("Connecting plumber to adress:" + realPlumber.address
+				+ " port:" + realPlumber.port);
+
+		FutureContinuation<Void> continuation = new FutureContinuation<>();
+		this.plumberEndpoint.link(realPlumber.address, realPlumber.port,
+				continuation);
+		return continuation.getFuture();
 	}
 
 	@Override
@@ -8,10 +8,9 @@ public class RealWebRtc extends WebRtc implements RealElement {
 
 	private WebRtcEndpoint webRtcEndpoint;
 
-	public RealWebRtc(RealPipeline pipeline) {
+	public RealWebRtc(RealPipeline pipeline, WebRtcEndpoint webRtcEndpoint) {
 		super(pipeline);
-		this.webRtcEndpoint = new WebRtcEndpoint.Builder(
-				pipeline.getMediaPipeline()).build();
+		this.webRtcEndpoint = webRtcEndpoint;
 	}
 
 	@Override
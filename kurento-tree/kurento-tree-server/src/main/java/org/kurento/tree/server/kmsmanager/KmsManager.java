@@ -35,11 +35,27 @@ public abstract class KmsManager {
 	public abstract List<Kms> getKmss();
 
 	public Kms getLessLoadedKms() {
-		ArrayList<KmsLoad> kmsLoads = new ArrayList<>();
+		return getLessLoadedKms(null);
+	}
+
+	/**
+	 * Returns the less loaded kms other than the given one, or null if there
+	 * isn't any. The load of the kmss is updated as elements are created and
+	 * released, so it is obtained in a single pass without sorting them.
+	 */
+	public Kms getLessLoadedKms(Kms excludedKms) {
+		Kms lessLoadedKms = null;
+		double minLoad = Double.MAX_VALUE;
 		for (Kms kms : getKmss()) {
-			kmsLoads.add(new KmsLoad(kms, kms.getLoad()));
+			if (kms != excludedKms) {
+				double load = kms.getLoad();
+				if (lessLoadedKms == null || load < minLoad) {
+					lessLoadedKms = kms;
+					minLoad = load;
+				}
+			}
 		}
-		return Collections.min(kmsLoads).kms;
+		return lessLoadedKms;
 	}
 
 	public List<KmsLoad> getKmssSortedByLoad() {
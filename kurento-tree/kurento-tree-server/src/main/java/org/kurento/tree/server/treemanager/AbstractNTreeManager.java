@@ -5,9 +5,18 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.kurento.tree.client.TreeEndpoint;
 import org.kurento.tree.client.TreeException;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.WebRtc;
 
 public abstract class AbstractNTreeManager implements TreeManager {
 
+	/**
+	 * State of a tree. Operations on a tree are serialized synchronizing on its
+	 * TreeInfo, so operations on different trees are executed concurrently.
+	 * Implementations have to take into account that the kmss, and so their
+	 * load, are shared by all trees.
+	 */
 	public abstract class TreeInfo {
 
 		public abstract void release();
@@ -73,33 +82,62 @@ public abstract class AbstractNTreeManager implements TreeManager {
 	}
 
 	@Override
-	public synchronized void releaseTree(String treeId) throws TreeException {
-		getTreeInfo(treeId).release();
+	public void releaseTree(String treeId) throws TreeException {
+		TreeInfo treeInfo = getTreeInfo(treeId);
+		synchronized (treeInfo) {
+			treeInfo.release();
+		}
 	}
 
 	@Override
-	public synchronized String setTreeSource(String treeId, String offerSdp)
+	public String setTreeSource(String treeId, String offerSdp)
 			throws TreeException {
-		return getTreeInfo(treeId).setTreeSource(offerSdp);
+		TreeInfo treeInfo = getTreeInfo(treeId);
+		synchronized (treeInfo) {
+			return treeInfo.setTreeSource(offerSdp);
+		}
 	}
 
 	@Override
-	public synchronized void removeTreeSource(String treeId)
-			throws TreeException {
-		getTreeInfo(treeId).removeTreeSource();
+	public void removeTreeSource(String treeId) throws TreeException {
+		TreeInfo treeInfo = getTreeInfo(treeId);
+		synchronized (treeInfo) {
+			treeInfo.removeTreeSource();
+		}
 	}
 
 	@Override
-	public synchronized TreeEndpoint addTreeSink(String treeId, String sdpOffer)
+	public TreeEndpoint addTreeSink(String treeId, String sdpOffer)
 			throws TreeException {
-		return getTreeInfo(treeId).addTreeSink(sdpOffer);
+		TreeInfo treeInfo = getTreeInfo(treeId);
+		synchronized (treeInfo) {
+			return treeInfo.addTreeSink(sdpOffer);
+		}
 	}
 
 	@Override
-	public synchronized void removeTreeSink(String treeId, String sinkId)
+	public void removeTreeSink(String treeId, String sinkId)
 			throws TreeException {
+		TreeInfo treeInfo = getTreeInfo(treeId);
+		synchronized (treeInfo) {
+			treeInfo.removeTreeSink(sinkId);
+		}
+	}
 
-		getTreeInfo(treeId).removeTreeSink(sinkId);
+	/**
+	 * Creates a WebRtc in the pipeline if its kms allows it, or returns null
+	 * otherwise. The kms is shared with other trees, so the check and the
+	 * creation are done atomically to not exceed its capacity.
+	 */
+	protected WebRtc createWebRtc(Pipeline pipeline) {
+		Kms kms = pipeline.getKms();
+		synchronized (kms) {
+			if (kms.allowMoreElements()) {
+				return pipeline.createWebRtc();
+			} else {
+				return null;
+			}
+		}
 	}
 
 	protected TreeInfo getTreeInfo(String treeId) {
@@ -5,25 +5,37 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.kurento.commons.exception.KurentoException;
 import org.kurento.tree.client.TreeEndpoint;
 import org.kurento.tree.client.TreeException;
 import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.KmsFutures;
 import org.kurento.tree.server.kms.Pipeline;
 import org.kurento.tree.server.kms.Plumber;
 import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kms.WebRtcPool;
 import org.kurento.tree.server.kmsmanager.KmsManager;
-import org.kurento.tree.server.kmsmanager.KmsManager.KmsLoad;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * This TreeManager has the following characteristics:
  * <ul>
  * <li>Creates WebRtcEndpoint for sinks (viewers) only in non-source kmss</li>
  * <li>Fills less loaded node.</li>
  * <li>It doesn't consider new kmss after start.</li>
+ * <li>Optionally, keeps a {@link WebRtcPool} in each non-source pipeline, so
+ * sinks only have to negotiate the SDP when they join.</li>
  * </ul>
  *
  * @author micael.gallego@gmail.com
@@ -33,6 +45,9 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 	private static final Logger log = LoggerFactory
 			.getLogger(LessLoadedNElasticTreeManager.class);
 
+	public static final long WEBRTC_POOL_WINDOW_MILLIS = 10000;
+	public static final long WEBRTC_POOL_REFILL_PERIOD_MILLIS = 1000;
+
 	public class LessLoadedTreeInfo extends TreeInfo {
 
 		private KmsManager kmsManager;
@@ -52,6 +67,10 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 		private Map<Kms, Pipeline> ownPipelineByKms = new ConcurrentHashMap<>();
 		private Map<String, WebRtc> webRtcsById = new ConcurrentHashMap<>();
 
+		private Map<Pipeline, WebRtcPool> poolByPipeline = new ConcurrentHashMap<>();
+		private ScheduledFuture<?> poolRefillTask;
+		private boolean released = false;
+
 		private int numSinks = 0;
 
 		public LessLoadedTreeInfo(String treeId, KmsManager kmsManager) {
@@ -73,33 +92,129 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 
 				oneKms = false;
 
-				int numPipeline = 0;
+				// Pipelines are created concurrently in all kmss, and then
+				// linked concurrently to the source one
+				List<ListenableFuture<Pipeline>> pipelineCreations = new ArrayList<>();
 				for (Kms kms : kmsManager.getKmss()) {
-					Pipeline pipeline = kms.createPipeline();
-
-					ownPipelineByKms.put(kms, pipeline);
-
-					if (sourcePipeline == null) {
-						sourcePipeline = pipeline;
-					} else {
-						pipeline.setLabel(Integer.toString(numPipeline));
-						leafPipelines.add(pipeline);
-						Plumber[] plumbers = sourcePipeline.link(pipeline);
-						this.sourcePlumbers.add(plumbers[0]);
-						this.leafPlumbers.add(plumbers[1]);
-						numPipeline++;
+					pipelineCreations.add(kms.createPipelineAsync());
+				}
+
+				List<Pipeline> pipelines;
+				try {
+					pipelines = KmsFutures.await(Futures
+							.allAsList(pipelineCreations));
+				} catch (RuntimeException e) {
+					releasePipelines(pipelineCreations);
+					throw e;
+				}
+
+				sourcePipeline = pipelines.get(0);
+				ownPipelineByKms.put(sourcePipeline.getKms(), sourcePipeline);
+
+				List<ListenableFuture<Plumber[]>> links = new ArrayList<>();
+				for (Pipeline pipeline : pipelines.subList(1, pipelines.size())) {
+					links.add(sourcePipeline.linkAsync(pipeline));
+				}
+
+				List<Plumber[]> linkedPlumbers;
+				try {
+					linkedPlumbers = KmsFutures.await(Futures.allAsList(links));
+				} catch (RuntimeException e) {
+					// Pending links finish before releasing the pipelines, so
+					// their plumbers are released too
+					KmsFutures.await(Futures.successfulAsList(links));
+					releasePipelines(pipelineCreations);
+					throw e;
+				}
+
+				int numPipeline = 0;
+				for (Plumber[] plumbers : linkedPlumbers) {
+
+					Pipeline pipeline = pipelines.get(numPipeline + 1);
+
+					ownPipelineByKms.put(pipeline.getKms(), pipeline);
+					pipeline.setLabel(Integer.toString(numPipeline));
+					leafPipelines.add(pipeline);
+					this.sourcePlumbers.add(plumbers[0]);
+					this.leafPlumbers.add(plumbers[1]);
+
+					if (webRtcPoolSize > 0) {
+						poolByPipeline.put(pipeline, new WebRtcPool(pipeline,
+								plumbers[1], webRtcPoolSize,
+								WEBRTC_POOL_WINDOW_MILLIS));
 					}
+
+					numPipeline++;
+				}
+
+				if (!poolByPipeline.isEmpty()) {
+					// Pools are trimmed when sinks stop joining
+					poolRefillTask = poolScheduler.scheduleWithFixedDelay(
+							new Runnable() {
+								@Override
+								public void run() {
+									refillPools();
+								}
+							}, WEBRTC_POOL_REFILL_PERIOD_MILLIS,
+							WEBRTC_POOL_REFILL_PERIOD_MILLIS,
+							TimeUnit.MILLISECONDS);
 				}
 			}
 		}
 
 		public void release() {
+			released = true;
+			if (poolRefillTask != null) {
+				poolRefillTask.cancel(false);
+			}
+			for (WebRtcPool pool : poolByPipeline.values()) {
+				pool.release();
+			}
 			source.release();
 			for (WebRtc webRtc : sinks.values()) {
 				webRtc.release();
 			}
 		}
 
+		/**
+		 * Waits for all the creations, even if some of them have failed, and
+		 * releases the pipelines created, so none is left in its kms.
+		 */
+		private void releasePipelines(
+				List<ListenableFuture<Pipeline>> pipelineCreations) {
+			for (Pipeline pipeline : KmsFutures.await(Futures
+					.successfulAsList(pipelineCreations))) {
+				if (pipeline != null) {
+					pipeline.release();
+				}
+			}
+		}
+
+		/**
+		 * Executed in the pool scheduler. Each step is synchronized with the
+		 * rest of operations on the tree, so joins wait for the creation of
+		 * one WebRtc at most.
+		 */
+		private void refillPools() {
+			for (WebRtcPool pool : poolByPipeline.values()) {
+				boolean pending = true;
+				while (pending) {
+					synchronized (this) {
+						if (released) {
+							return;
+						}
+						try {
+							pending = pool.refill();
+						} catch (Exception e) {
+							log.warn("Exception refilling WebRtc pool of tree {}",
+									treeId, e);
+							pending = false;
+						}
+					}
+				}
+			}
+		}
+
 		public String setTreeSource(String offerSdp) {
 
 			if (source != null) {
@@ -132,8 +247,9 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 
 			if (oneKms) {
 
-				if (sourcePipeline.getKms().allowMoreElements()) {
-					WebRtc webRtc = sourcePipeline.createWebRtc();
+				WebRtc webRtc = createWebRtc(sourcePipeline);
+
+				if (webRtc != null) {
 					source.connect(webRtc);
 					String sdpAnswer = webRtc.processSdpOffer(sdpOffer);
 					String id = UUID.randomUUID().toString();
@@ -144,18 +260,19 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 
 			} else {
 
-				List<KmsLoad> kmss = kmsManager.getKmssSortedByLoad();
+				Pipeline pipeline = ownPipelineByKms.get(kmsManager
+						.getLessLoadedKms(sourcePipeline.getKms()));
 
-				Pipeline pipeline = ownPipelineByKms.get(kmss.get(0).getKms());
+				WebRtc webRtc = takePooledWebRtc(pipeline);
 
-				if (pipeline == sourcePipeline) {
-					pipeline = ownPipelineByKms.get(kmss.get(1).getKms());
+				if (webRtc == null) {
+					webRtc = createWebRtc(pipeline);
+					if (webRtc != null) {
+						pipeline.getPlumbers().get(0).connect(webRtc);
+					}
 				}
 
-				if (pipeline.getKms().allowMoreElements()) {
-
-					WebRtc webRtc = pipeline.createWebRtc();
-					pipeline.getPlumbers().get(0).connect(webRtc);
+				if (webRtc != null) {
 					String sdpAnswer = webRtc.processSdpOffer(sdpOffer);
 					String id = UUID.randomUUID().toString();
 					webRtcsById.put(id, webRtc);
@@ -172,6 +289,35 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 			}
 		}
 
+		/**
+		 * Returns a WebRtc already connected in the pipeline, or null if there
+		 * isn't any pooled. The pool is refilled in background.
+		 */
+		private WebRtc takePooledWebRtc(Pipeline pipeline) {
+
+			WebRtcPool pool = poolByPipeline.get(pipeline);
+			if (pool == null) {
+				return null;
+			}
+
+			WebRtc webRtc = pool.take();
+
+			try {
+				poolScheduler.execute(new Runnable() {
+					@Override
+					public void run() {
+						refillPools();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// The tree manager has been destroyed, so pools are not
+				// refilled anymore
+				log.debug("WebRtc pool of tree {} not refilled", treeId);
+			}
+
+			return webRtc;
+		}
+
 		public void removeTreeSink(String sinkId) {
 			WebRtc webRtc = webRtcsById.get(sinkId);
 			webRtc.release();
@@ -179,9 +325,43 @@ public class LessLoadedNElasticTreeManager extends AbstractNTreeManager {
 	}
 
 	private KmsManager kmsManager;
+	private int webRtcPoolSize;
+	private ScheduledExecutorService poolScheduler;
 
 	public LessLoadedNElasticTreeManager(KmsManager kmsManager) {
+		this(kmsManager, 0);
+	}
+
+	/**
+	 * @param webRtcPoolSize
+	 *            max number of WebRtcs pooled in each non-source pipeline of
+	 *            a tree, or 0 to not use pools
+	 */
+	public LessLoadedNElasticTreeManager(KmsManager kmsManager,
+			int webRtcPoolSize) {
 		this.kmsManager = kmsManager;
+		this.webRtcPoolSize = webRtcPoolSize;
+		if (webRtcPoolSize > 0) {
+			this.poolScheduler = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "WebRtcPool-refill");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+	}
+
+	/**
+	 * Stops refilling the WebRtc pools. It is called by the container when the
+	 * tree manager is a bean.
+	 */
+	public void destroy() {
+		if (poolScheduler != null) {
+			poolScheduler.shutdownNow();
+		}
 	}
 
 	@Override
@@ -12,7 +12,6 @@ import org.kurento.tree.server.kms.Pipeline;
 import org.kurento.tree.server.kms.Plumber;
 import org.kurento.tree.server.kms.WebRtc;
 import org.kurento.tree.server.kmsmanager.KmsManager;
-import org.kurento.tree.server.kmsmanager.KmsManager.KmsLoad;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -148,14 +147,8 @@ public class LessLoadedOneElasticTreeManager extends AbstractOneTreeManager {
 			}
 		} else {
 
-			List<KmsLoad> kmss = kmsManager.getKmssSortedByLoad();
-
-			Pipeline pipeline;
-			if (kmss.get(0).getKms().getPipelines().get(0) != sourcePipeline) {
-				pipeline = kmss.get(0).getKms().getPipelines().get(0);
-			} else {
-				pipeline = kmss.get(1).getKms().getPipelines().get(0);
-			}
+			Pipeline pipeline = kmsManager.getLessLoadedKms(
+					sourcePipeline.getKms()).getPipelines().get(0);
 
 			if (pipeline.getKms().allowMoreElements()) {
 				WebRtc webRtc = pipeline.createWebRtc();
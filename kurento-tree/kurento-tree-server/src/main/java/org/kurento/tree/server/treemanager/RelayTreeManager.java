@@ -0,0 +1,315 @@
+package org.kurento.tree.server.treemanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.kurento.commons.exception.KurentoException;
+import org.kurento.tree.client.TreeEndpoint;
+import org.kurento.tree.client.TreeException;
+import org.kurento.tree.server.kms.Element;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.Plumber;
+import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kmsmanager.KmsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This TreeManager has the following characteristics:
+ * <ul>
+ * <li>Builds a tree of relay pipelines below the source pipeline. Each
+ * pipeline feeds at most <code>degree</code> pipelines in other kmss, up to
+ * <code>maxDepth</code> levels below the source.</li>
+ * <li>Creates WebRtcEndpoint for sinks (viewers) only in relay pipelines, up
+ * to <code>maxSinksPerRelay</code> in each one.</li>
+ * <li>Adds a relay, in the less loaded kms, when the existing ones are full
+ * and releases it when it has neither sinks nor relays below it.</li>
+ * </ul>
+ * So, the source kms sends the media to at most <code>degree</code> kmss,
+ * regardless of the number of kmss used by the tree.
+ */
+public class RelayTreeManager extends AbstractNTreeManager {
+
+	private static final Logger log = LoggerFactory
+			.getLogger(RelayTreeManager.class);
+
+	public static final int DEFAULT_DEGREE = 2;
+	public static final int DEFAULT_MAX_DEPTH = 3;
+	public static final int DEFAULT_MAX_SINKS_PER_RELAY = 100;
+
+	/**
+	 * A pipeline of the tree. The media is received from the source WebRtc in
+	 * the root and from the plumber linked to its parent in relays.
+	 */
+	private static class Node {
+
+		private final Pipeline pipeline;
+		private final Node parent;
+		private final int depth;
+
+		private Plumber input;
+		private Plumber parentOutput;
+		private final List<Node> children = new ArrayList<>();
+		private int numSinks;
+
+		public Node(Pipeline pipeline, Node parent) {
+			this.pipeline = pipeline;
+			this.parent = parent;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+		}
+	}
+
+	private static class Sink {
+
+		private final WebRtc webRtc;
+		private final Node node;
+
+		public Sink(WebRtc webRtc, Node node) {
+			this.webRtc = webRtc;
+			this.node = node;
+		}
+	}
+
+	public class RelayTreeInfo extends TreeInfo {
+
+		private String treeId;
+
+		private Node root;
+		private WebRtc source;
+
+		// Relays in creation order, so sinks fill older relays first
+		private List<Node> relays = new ArrayList<>();
+		private Map<String, Sink> sinks = new HashMap<>();
+
+		public RelayTreeInfo(String treeId) {
+
+			this.treeId = treeId;
+
+			if (kmsManager.getKmss().size() < 2) {
+				throw new KurentoException(
+						"RelayTreeManager needs at least two kmss");
+			}
+
+			root = new Node(kmsManager.getLessLoadedKms().createPipeline(),
+					null);
+			root.pipeline.setLabel("Root");
+		}
+
+		@Override
+		public void release() {
+			if (source != null) {
+				source.release();
+				source = null;
+			}
+			for (Sink sink : sinks.values()) {
+				sink.webRtc.release();
+			}
+			sinks.clear();
+			for (Node relay : relays) {
+				relay.pipeline.release();
+			}
+			relays.clear();
+			root.pipeline.release();
+		}
+
+		@Override
+		public String setTreeSource(String offerSdp) {
+
+			if (source != null) {
+				removeTreeSource();
+			}
+
+			source = root.pipeline.createWebRtc();
+
+			for (Node child : root.children) {
+				source.connect(child.parentOutput);
+			}
+
+			return source.processSdpOffer(offerSdp);
+		}
+
+		@Override
+		public void removeTreeSource() {
+			source.release();
+			source = null;
+		}
+
+		@Override
+		public TreeEndpoint addTreeSink(String sdpOffer) {
+
+			Node relay = getRelayWithFreeSinks();
+			boolean newRelay = false;
+
+			if (relay == null) {
+				relay = createRelay();
+				newRelay = true;
+			}
+
+			WebRtc webRtc = relay != null ? createWebRtc(relay.pipeline) : null;
+
+			if (webRtc == null) {
+				if (newRelay && relay != null) {
+					collapse(relay);
+				}
+				throw new TreeException("Max number of viewers reached");
+			}
+
+			relay.input.connect(webRtc);
+			relay.numSinks++;
+
+			String sdpAnswer = webRtc.processSdpOffer(sdpOffer);
+			String id = UUID.randomUUID().toString();
+			webRtc.setLabel("Sink " + id);
+			sinks.put(id, new Sink(webRtc, relay));
+
+			return new TreeEndpoint(sdpAnswer, id);
+		}
+
+		@Override
+		public void removeTreeSink(String sinkId) {
+
+			Sink sink = sinks.remove(sinkId);
+			if (sink == null) {
+				throw new TreeException("Sink with id '" + sinkId
+						+ "' not found in tree '" + treeId + "'");
+			}
+
+			sink.webRtc.release();
+			sink.node.numSinks--;
+			collapse(sink.node);
+		}
+
+		private Node getRelayWithFreeSinks() {
+			for (Node relay : relays) {
+				if (relay.numSinks < maxSinksPerRelay
+						&& relay.pipeline.getKms().allowMoreElements()) {
+					return relay;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Creates a relay below the shallowest node with less than degree
+		 * children, or returns null if the tree can't grow more.
+		 */
+		private Node createRelay() {
+
+			Node parent = getParentWithFreeChildren();
+			if (parent == null) {
+				return null;
+			}
+
+			Kms kms = kmsManager.getLessLoadedKms(parent.pipeline.getKms());
+			if (kms == null || !kms.allowMoreElements()) {
+				return null;
+			}
+
+			Node relay = new Node(kms.createPipeline(), parent);
+			relay.pipeline.setLabel("Relay " + relay.depth + "."
+					+ parent.children.size());
+
+			Plumber[] plumbers = parent.pipeline.link(relay.pipeline);
+			relay.parentOutput = plumbers[0];
+			relay.input = plumbers[1];
+
+			Element parentInput = parent == root ? source : parent.input;
+			if (parentInput != null) {
+				parentInput.connect(relay.parentOutput);
+			}
+
+			parent.children.add(relay);
+			relays.add(relay);
+
+			log.debug("Tree {}: created relay at depth {}", treeId,
+					relay.depth);
+
+			return relay;
+		}
+
+		private Node getParentWithFreeChildren() {
+
+			if (root.children.size() < degree) {
+				return root;
+			}
+
+			// Shallow parents keep the path from the source short
+			Node parent = null;
+			for (Node relay : relays) {
+				if (relay.depth < maxDepth && relay.children.size() < degree
+						&& (parent == null || relay.depth < parent.depth)) {
+					parent = relay;
+				}
+			}
+			return parent;
+		}
+
+		/**
+		 * Releases the relay, and its empty ancestors, if it doesn't feed any
+		 * sink or relay.
+		 */
+		private void collapse(Node relay) {
+
+			while (relay != root && relay.numSinks == 0
+					&& relay.children.isEmpty()) {
+
+				relay.parentOutput.release();
+				relay.pipeline.release();
+				relay.parent.children.remove(relay);
+				relays.remove(relay);
+
+				log.debug("Tree {}: released relay at depth {}", treeId,
+						relay.depth);
+
+				relay = relay.parent;
+			}
+		}
+	}
+
+	private KmsManager kmsManager;
+	private int degree;
+	private int maxDepth;
+	private int maxSinksPerRelay;
+
+	public RelayTreeManager(KmsManager kmsManager) {
+		this(kmsManager, DEFAULT_DEGREE, DEFAULT_MAX_DEPTH,
+				DEFAULT_MAX_SINKS_PER_RELAY);
+	}
+
+	/**
+	 * @param degree
+	 *            max number of relays fed by each pipeline
+	 * @param maxDepth
+	 *            max number of relay levels below the source pipeline
+	 * @param maxSinksPerRelay
+	 *            max number of sinks in each relay
+	 */
+	public RelayTreeManager(KmsManager kmsManager, int degree, int maxDepth,
+			int maxSinksPerRelay) {
+
+		if (degree < 1 || maxDepth < 1 || maxSinksPerRelay < 1) {
+			throw new IllegalArgumentException(
+					"Degree, depth and sinks per relay have to be positive");
+		}
+
+		this.kmsManager = kmsManager;
+		this.degree = degree;
+		this.maxDepth = maxDepth;
+		this.maxSinksPerRelay = maxSinksPerRelay;
+	}
+
+	@Override
+	public KmsManager getKmsManager() {
+		return kmsManager;
+	}
+
+	@Override
+	protected TreeInfo createTreeInfo(String treeId) {
+		return new RelayTreeInfo(treeId);
+	}
+
+}
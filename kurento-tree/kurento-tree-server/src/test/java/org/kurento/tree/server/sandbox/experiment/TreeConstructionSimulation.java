@@ -0,0 +1,138 @@
+package org.kurento.tree.server.sandbox.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.Plumber;
+import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kmsmanager.KmsManager;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Measures the construction time of a tree in several kmss, creating and
+ * linking pipelines one by one with the synchronous API and concurrently as
+ * LessLoadedNElasticTreeManager does. Each operation on the fake kmss takes a
+ * round trip.
+ */
+public class TreeConstructionSimulation {
+
+	private static final long ROUND_TRIP_MILLIS = 10;
+
+	private static final ScheduledExecutorService scheduler = Executors
+			.newScheduledThreadPool(4);
+
+	private static <T> ListenableFuture<T> afterRoundTrip(final T value) {
+		final SettableFuture<T> future = SettableFuture.create();
+		scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				future.set(value);
+			}
+		}, ROUND_TRIP_MILLIS, TimeUnit.MILLISECONDS);
+		return future;
+	}
+
+	private static class RemotePlumber extends Plumber {
+
+		protected RemotePlumber(Pipeline pipeline) {
+			super(pipeline);
+		}
+
+		@Override
+		protected ListenableFuture<Void> linkEndpoints(Plumber plumber) {
+			return afterRoundTrip(null);
+		}
+	}
+
+	private static class RemotePipeline extends Pipeline {
+
+		public RemotePipeline(Kms kms) {
+			super(kms);
+		}
+
+		@Override
+		protected ListenableFuture<WebRtc> newWebRtcAsync() {
+			return afterRoundTrip(newWebRtc());
+		}
+
+		@Override
+		protected ListenableFuture<Plumber> newPlumberAsync() {
+			return TreeConstructionSimulation.<Plumber> afterRoundTrip(
+					new RemotePlumber(this));
+		}
+	}
+
+	private static class RemoteKms extends Kms {
+
+		@Override
+		protected ListenableFuture<Pipeline> newPipelineAsync() {
+			return TreeConstructionSimulation.<Pipeline> afterRoundTrip(
+					new RemotePipeline(this));
+		}
+	}
+
+	public static void main(String[] args) {
+
+		// Warm up
+		buildOneByOne(createKmss(2));
+		new LessLoadedNElasticTreeManager(createKmsManager(2)).createTree();
+
+		for (int numKmss = 2; numKmss <= 16; numKmss *= 2) {
+
+			long start = System.nanoTime();
+			buildOneByOne(createKmss(numKmss));
+			long oneByOneTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			new LessLoadedNElasticTreeManager(createKmsManager(numKmss))
+					.createTree();
+			long concurrentTime = System.nanoTime() - start;
+
+			System.out.println(numKmss + " kmss: "
+					+ TimeUnit.NANOSECONDS.toMillis(oneByOneTime)
+					+ " ms one by one, "
+					+ TimeUnit.NANOSECONDS.toMillis(concurrentTime)
+					+ " ms concurrently");
+		}
+
+		scheduler.shutdown();
+	}
+
+	private static void buildOneByOne(List<Kms> kmss) {
+
+		List<Pipeline> pipelines = new ArrayList<>();
+		for (Kms kms : kmss) {
+			pipelines.add(kms.createPipeline());
+		}
+
+		for (Pipeline pipeline : pipelines.subList(1, pipelines.size())) {
+			pipelines.get(0).link(pipeline);
+		}
+	}
+
+	private static List<Kms> createKmss(int numKmss) {
+		List<Kms> kmss = new ArrayList<>();
+		for (int i = 0; i < numKmss; i++) {
+			kmss.add(new RemoteKms());
+		}
+		return kmss;
+	}
+
+	private static KmsManager createKmsManager(int numKmss) {
+		final List<Kms> kmss = createKmss(numKmss);
+		return new KmsManager() {
+			@Override
+			public List<Kms> getKmss() {
+				return kmss;
+			}
+		};
+	}
+}
@@ -0,0 +1,136 @@
+package org.kurento.tree.server.sandbox.experiment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.kurento.tree.server.kms.Element;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.Plumber;
+import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kmsmanager.KmsManager;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+
+/**
+ * Measures the join latency of sinks with and without WebRtc pools, using
+ * fake kmss that take some time in each operation like real ones.
+ */
+public class WebRtcPoolSimulation {
+
+	private static final int NUM_KMSS = 3;
+	private static final int NUM_JOINS = 200;
+	private static final long JOIN_PERIOD_MILLIS = 20;
+
+	private static final long CREATE_DELAY_MILLIS = 5;
+	private static final long CONNECT_DELAY_MILLIS = 5;
+	private static final long SDP_DELAY_MILLIS = 10;
+
+	private static void delay(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class DelayedWebRtc extends WebRtc {
+
+		protected DelayedWebRtc(Pipeline pipeline) {
+			super(pipeline);
+			delay(CREATE_DELAY_MILLIS);
+		}
+
+		@Override
+		public void connect(Element element) {
+			delay(CONNECT_DELAY_MILLIS);
+			super.connect(element);
+		}
+
+		@Override
+		public String processSdpOffer(String sdpOffer) {
+			delay(SDP_DELAY_MILLIS);
+			return super.processSdpOffer(sdpOffer);
+		}
+	}
+
+	private static class DelayedPlumber extends Plumber {
+
+		protected DelayedPlumber(Pipeline pipeline) {
+			super(pipeline);
+			delay(CREATE_DELAY_MILLIS);
+		}
+
+		@Override
+		public void connect(Element element) {
+			delay(CONNECT_DELAY_MILLIS);
+			super.connect(element);
+		}
+	}
+
+	private static class DelayedKms extends Kms {
+
+		@Override
+		protected Pipeline newPipeline() {
+			return new Pipeline(this) {
+				@Override
+				protected WebRtc newWebRtc() {
+					return new DelayedWebRtc(this);
+				}
+
+				@Override
+				protected Plumber newPlumber() {
+					return new DelayedPlumber(this);
+				}
+			};
+		}
+	}
+
+	public static void main(String[] args) {
+		simulate(0);
+		simulate(10);
+	}
+
+	private static void simulate(int webRtcPoolSize) {
+
+		final List<Kms> kmss = new ArrayList<>();
+		for (int i = 0; i < NUM_KMSS; i++) {
+			kmss.add(new DelayedKms());
+		}
+
+		LessLoadedNElasticTreeManager treeManager = new LessLoadedNElasticTreeManager(
+				new KmsManager() {
+					@Override
+					public List<Kms> getKmss() {
+						return kmss;
+					}
+				}, webRtcPoolSize);
+
+		String treeId = treeManager.createTree();
+		treeManager.setTreeSource(treeId, "fakeSdp");
+
+		long[] latencies = new long[NUM_JOINS];
+
+		for (int i = 0; i < NUM_JOINS; i++) {
+			long start = System.nanoTime();
+			treeManager.addTreeSink(treeId, "fakeSdp");
+			latencies[i] = System.nanoTime() - start;
+			delay(JOIN_PERIOD_MILLIS);
+		}
+
+		treeManager.destroy();
+
+		Arrays.sort(latencies);
+
+		System.out.println("Pool size " + webRtcPoolSize
+				+ ": join latency p50=" + percentile(latencies, 50) + "ms p90="
+				+ percentile(latencies, 90) + "ms p99="
+				+ percentile(latencies, 99) + "ms");
+	}
+
+	private static double percentile(long[] sortedLatencies, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0
+				* sortedLatencies.length) - 1;
+		return sortedLatencies[index] / 100000 / 10.0;
+	}
+}
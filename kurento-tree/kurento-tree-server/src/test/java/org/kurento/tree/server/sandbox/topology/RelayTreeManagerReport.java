@@ -0,0 +1,48 @@
+package org.kurento.tree.server.sandbox.topology;
+
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kmsmanager.FakeFixedKmsManager;
+import org.kurento.tree.server.kmsmanager.KmsManager;
+import org.kurento.tree.server.sandbox.OneSourceAddRemoveSinks;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+import org.kurento.tree.server.treemanager.RelayTreeManager;
+import org.kurento.tree.server.treemanager.TreeManager;
+
+public class RelayTreeManagerReport {
+
+	private static final int NUM_KMSS = 16;
+
+	public static void main(String[] args) {
+
+		KmsManager kmsManager = new FakeFixedKmsManager(NUM_KMSS);
+		printSourceEgress("LessLoadedNElasticTreeManager",
+				new LessLoadedNElasticTreeManager(kmsManager));
+
+		for (int degree = 2; degree <= 4; degree++) {
+			kmsManager = new FakeFixedKmsManager(NUM_KMSS);
+			printSourceEgress("RelayTreeManager degree " + degree,
+					new RelayTreeManager(kmsManager, degree, 3, 20));
+		}
+	}
+
+	private static void printSourceEgress(String name, TreeManager treeManager) {
+
+		new OneSourceAddRemoveSinks(1000, 5, 2).useTreeManager(treeManager);
+
+		// The source pipeline is the first one created in the tree
+		Pipeline sourcePipeline = null;
+		int numPipelines = 0;
+		for (Kms kms : treeManager.getKmsManager().getKmss()) {
+			for (Pipeline pipeline : kms.getPipelines()) {
+				if (sourcePipeline == null) {
+					sourcePipeline = pipeline;
+				}
+				numPipelines++;
+			}
+		}
+
+		System.out.println(name + ": " + numPipelines + " pipelines, "
+				+ sourcePipeline.getPlumbers().size() + " source plumbers");
+	}
+}
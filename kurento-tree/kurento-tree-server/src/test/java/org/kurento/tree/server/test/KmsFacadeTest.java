@@ -2,16 +2,28 @@ package org.kurento.tree.server.test;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 import org.kurento.tree.server.kms.Element;
 import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.KmsFutures;
+import org.kurento.tree.server.kms.MaxWebRtcLoadManager;
 import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.Plumber;
 import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kmsmanager.FakeFixedKmsManager;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+import org.kurento.tree.server.treemanager.TreeManager;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public class KmsFacadeTest {
 
@@ -41,4 +53,105 @@ public class KmsFacadeTest {
 		assertThat(master.getSinks(), is(Collections.<Element> emptyList()));
 
 	}
+
+	@Test
+	public void loadTest() {
+
+		FakeFixedKmsManager kmsManager = new FakeFixedKmsManager(3);
+		for (Kms kms : kmsManager.getKmss()) {
+			kms.setLoadManager(new MaxWebRtcLoadManager(2));
+		}
+
+		Kms kms0 = kmsManager.getKmss().get(0);
+		Kms kms1 = kmsManager.getKmss().get(1);
+		Kms kms2 = kmsManager.getKmss().get(2);
+
+		Pipeline pipeline = kms0.createPipeline();
+		WebRtc webRtc = pipeline.createWebRtc();
+		pipeline.link(kms1.createPipeline());
+		kms1.createPipeline().createWebRtc();
+
+		// Plumbers don't count as load
+		assertThat(kms0.getNumWebRtcs(), is(1));
+		assertThat(kms0.getLoad(), is(0.5));
+		assertThat(kms1.getNumWebRtcs(), is(1));
+
+		assertThat(kmsManager.getLessLoadedKms(), is(sameInstance(kms2)));
+		assertThat(kmsManager.getLessLoadedKms(kms2), is(sameInstance(kms0)));
+
+		pipeline.createWebRtc();
+		assertThat(kms0.allowMoreElements(), is(false));
+		assertThat(kms0.getLoad(), is(1.0));
+
+		webRtc.release();
+		assertThat(kms0.getNumWebRtcs(), is(1));
+		assertThat(kms0.allowMoreElements(), is(true));
+	}
+
+	@Test
+	public void asyncLinkTest() {
+
+		Pipeline sourcePipeline = new Kms().createPipeline();
+
+		List<ListenableFuture<Plumber[]>> links = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			links.add(sourcePipeline.linkAsync(new Kms().createPipeline()));
+		}
+
+		for (Plumber[] plumbers : KmsFutures.await(Futures.allAsList(links))) {
+			assertThat(plumbers[0].getPipeline(), is(sourcePipeline));
+			assertThat(plumbers[0].getLinkedTo(), is(sameInstance(plumbers[1])));
+		}
+
+		assertThat(sourcePipeline.getPlumbers().size(), is(3));
+	}
+
+	@Test
+	public void failedTreeCreationTest() {
+
+		// Pipeline creation fails in the last kms
+		FakeFixedKmsManager kmsManager = new FakeFixedKmsManager(2);
+		kmsManager.kmss.add(new Kms() {
+			@Override
+			protected ListenableFuture<Pipeline> newPipelineAsync() {
+				return Futures.immediateFailedFuture(new RuntimeException(
+						"Pipeline not created"));
+			}
+		});
+
+		assertTreeNotCreated(kmsManager);
+
+		// Link fails with the plumber of the last kms
+		kmsManager = new FakeFixedKmsManager(2);
+		kmsManager.kmss.add(new Kms() {
+			@Override
+			protected Pipeline newPipeline() {
+				return new Pipeline(this) {
+					@Override
+					protected ListenableFuture<Plumber> newPlumberAsync() {
+						return Futures.immediateFailedFuture(new RuntimeException(
+								"Plumber not created"));
+					}
+				};
+			}
+		});
+
+		assertTreeNotCreated(kmsManager);
+	}
+
+	private void assertTreeNotCreated(FakeFixedKmsManager kmsManager) {
+
+		TreeManager treeManager = new LessLoadedNElasticTreeManager(kmsManager);
+
+		try {
+			treeManager.createTree();
+			fail("RuntimeException should be thrown");
+		} catch (RuntimeException e) {
+			// Created pipelines are released
+		}
+
+		for (Kms kms : kmsManager.getKmss()) {
+			assertThat(kms.getPipelines().size(), is(0));
+		}
+	}
 }
@@ -0,0 +1,106 @@
+package org.kurento.tree.server.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.kurento.tree.client.TreeException;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kmsmanager.FakeFixedKmsManager;
+import org.kurento.tree.server.treemanager.RelayTreeManager;
+import org.kurento.tree.server.treemanager.TreeManager;
+
+public class RelayTreeManagerTest {
+
+	private static final int NUM_KMSS = 20;
+
+	private final FakeFixedKmsManager kmsManager = new FakeFixedKmsManager(
+			NUM_KMSS);
+
+	// Root kms, the less loaded one when the tree is created
+	private final Kms sourceKms = kmsManager.getKmss().get(0);
+
+	@Test
+	public void relayTreeTest() {
+
+		int degree = 3;
+		int maxDepth = 2;
+		int maxSinksPerRelay = 5;
+
+		TreeManager treeManager = new RelayTreeManager(kmsManager, degree,
+				maxDepth, maxSinksPerRelay);
+
+		String treeId = treeManager.createTree();
+		treeManager.setTreeSource(treeId, "fakeSdpOffer");
+
+		// 3 relays in the first level and 9 in the second one
+		int numRelays = degree + degree * degree;
+
+		List<String> sinkIds = new ArrayList<>();
+		for (int i = 0; i < numRelays * maxSinksPerRelay; i++) {
+			sinkIds.add(treeManager.addTreeSink(treeId, "fakeSdpOffer")
+					.getId());
+		}
+
+		assertEquals(numRelays + 1, countPipelines());
+		assertEquals(degree, getSourcePipeline().getPlumbers().size());
+
+		try {
+			treeManager.addTreeSink(treeId, "fakeSdpOffer");
+			fail("TreeException should be thrown");
+		} catch (TreeException e) {
+			// Max depth reached
+		}
+
+		// Relays are released as they drain
+		for (String sinkId : sinkIds) {
+			treeManager.removeTreeSink(treeId, sinkId);
+		}
+
+		assertEquals(1, countPipelines());
+		assertEquals(0, getSourcePipeline().getPlumbers().size());
+
+		treeManager.addTreeSink(treeId, "fakeSdpOffer");
+		assertEquals(2, countPipelines());
+
+		treeManager.releaseTree(treeId);
+		assertEquals(0, countPipelines());
+	}
+
+	@Test
+	public void sourceEgressTest() {
+
+		int degree = 2;
+
+		TreeManager treeManager = new RelayTreeManager(kmsManager, degree, 4,
+				1);
+
+		String treeId = treeManager.createTree();
+		treeManager.setTreeSource(treeId, "fakeSdpOffer");
+
+		for (int i = 0; i < 15; i++) {
+			treeManager.addTreeSink(treeId, "fakeSdpOffer");
+		}
+
+		// Source egress depends on the degree, not on the number of relays
+		assertEquals(16, countPipelines());
+		assertEquals(degree, getSourcePipeline().getPlumbers().size());
+	}
+
+	private Pipeline getSourcePipeline() {
+		return sourceKms.getPipelines().get(0);
+	}
+
+	private int countPipelines() {
+		int numPipelines = 0;
+		for (Kms kms : kmsManager.getKmss()) {
+			numPipelines += kms.getPipelines().size();
+		}
+		return numPipelines;
+	}
+
+}
@@ -0,0 +1,168 @@
+package org.kurento.tree.server.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.kurento.tree.client.TreeEndpoint;
+import org.kurento.tree.client.TreeException;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.MaxWebRtcLoadManager;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kmsmanager.FakeFixedKmsManager;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+import org.kurento.tree.server.treemanager.TreeManager;
+
+public class TreeManagerConcurrencyTest {
+
+	private static final int NUM_TREES = 10;
+	private static final int NUM_THREADS = 8;
+
+	private final ExecutorService executor = Executors
+			.newFixedThreadPool(NUM_THREADS);
+
+	private TreeManager createTreeManager(int numKmss, int maxWebRtcPerKms,
+			List<String> treeIds) {
+
+		FakeFixedKmsManager kmsManager = new FakeFixedKmsManager(numKmss);
+		for (Kms kms : kmsManager.getKmss()) {
+			kms.setLoadManager(new MaxWebRtcLoadManager(maxWebRtcPerKms));
+		}
+
+		TreeManager treeManager = new LessLoadedNElasticTreeManager(
+				kmsManager);
+
+		for (int i = 0; i < NUM_TREES; i++) {
+			String treeId = treeManager.createTree();
+			treeManager.setTreeSource(treeId, "fakeSdpOffer");
+			treeIds.add(treeId);
+		}
+
+		return treeManager;
+	}
+
+	@Test
+	public void addAndRemoveSinksTest() throws Exception {
+
+		final int numSinksPerTree = 200;
+
+		final List<String> treeIds = new ArrayList<>();
+		final TreeManager treeManager = createTreeManager(3, 10000, treeIds);
+
+		List<Future<Integer>> results = new ArrayList<>();
+
+		for (int i = 0; i < NUM_THREADS; i++) {
+			final int thread = i;
+			results.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+
+					int numSinks = 0;
+
+					for (int j = 0; j < numSinksPerTree; j++) {
+
+						String treeId = treeIds.get((thread + j) % NUM_TREES);
+						TreeEndpoint sink = treeManager.addTreeSink(treeId,
+								"fakeSdpOffer");
+
+						// Half of the sinks are removed while others are added
+						if (j % 2 == 0) {
+							treeManager.removeTreeSink(treeId, sink.getId());
+						} else {
+							numSinks++;
+						}
+					}
+
+					return numSinks;
+				}
+			}));
+		}
+
+		int numSinks = 0;
+		for (Future<Integer> result : results) {
+			numSinks += result.get(30, TimeUnit.SECONDS);
+		}
+
+		executor.shutdown();
+
+		// Each tree has a source in the first kms
+		assertEquals(NUM_TREES + numSinks,
+				countWebRtcs(treeManager.getKmsManager().getKmss()));
+	}
+
+	@Test
+	public void maxWebRtcsTest() throws Exception {
+
+		final int maxWebRtcPerKms = 50;
+
+		final List<String> treeIds = new ArrayList<>();
+		final TreeManager treeManager = createTreeManager(3, maxWebRtcPerKms,
+				treeIds);
+
+		final AtomicInteger numSinks = new AtomicInteger();
+		final AtomicInteger numRejected = new AtomicInteger();
+
+		List<Future<?>> results = new ArrayList<>();
+
+		for (int i = 0; i < NUM_THREADS; i++) {
+			final int thread = i;
+			results.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < maxWebRtcPerKms; j++) {
+						try {
+							treeManager.addTreeSink(
+									treeIds.get((thread + j) % NUM_TREES),
+									"fakeSdpOffer");
+							numSinks.incrementAndGet();
+						} catch (TreeException e) {
+							numRejected.incrementAndGet();
+						}
+					}
+				}
+			}));
+		}
+
+		for (Future<?> result : results) {
+			result.get(30, TimeUnit.SECONDS);
+		}
+
+		executor.shutdown();
+
+		// Sinks are created in the two non-source kmss, that are filled up
+		// without exceeding their capacity
+		assertEquals(2 * maxWebRtcPerKms, numSinks.get());
+		assertEquals(NUM_THREADS * maxWebRtcPerKms - numSinks.get(),
+				numRejected.get());
+
+		for (Kms kms : treeManager.getKmsManager().getKmss()) {
+			assertTrue(countWebRtcs(kms) <= maxWebRtcPerKms);
+		}
+	}
+
+	private int countWebRtcs(List<Kms> kmss) {
+		int numWebRtcs = 0;
+		for (Kms kms : kmss) {
+			numWebRtcs += countWebRtcs(kms);
+		}
+		return numWebRtcs;
+	}
+
+	private int countWebRtcs(Kms kms) {
+		int numWebRtcs = 0;
+		for (Pipeline pipeline : kms.getPipelines()) {
+			numWebRtcs += pipeline.getWebRtcs().size();
+		}
+		return numWebRtcs;
+	}
+
+}
@@ -0,0 +1,101 @@
+package org.kurento.tree.server.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.kurento.tree.server.kms.Kms;
+import org.kurento.tree.server.kms.MaxWebRtcLoadManager;
+import org.kurento.tree.server.kms.Pipeline;
+import org.kurento.tree.server.kms.Plumber;
+import org.kurento.tree.server.kms.WebRtc;
+import org.kurento.tree.server.kms.WebRtcPool;
+import org.kurento.tree.server.kmsmanager.FakeFixedKmsManager;
+import org.kurento.tree.server.treemanager.LessLoadedNElasticTreeManager;
+
+public class WebRtcPoolTest {
+
+	private static final long WINDOW_MILLIS = 200;
+
+	private final Kms kms = new Kms();
+	private final Pipeline pipeline = kms.createPipeline();
+	private final Plumber plumber = pipeline.createPlumber();
+
+	@Test
+	public void poolSizeTest() throws InterruptedException {
+
+		WebRtcPool pool = new WebRtcPool(pipeline, plumber, 3, WINDOW_MILLIS);
+
+		assertNull(pool.take());
+		assertNull(pool.take());
+
+		// Sized from the WebRtcs taken in the window
+		refill(pool);
+		assertEquals(2, pool.size());
+		assertEquals(2, kms.getNumWebRtcs());
+
+		WebRtc webRtc = pool.take();
+		assertNotNull(webRtc);
+		assertSame(plumber, webRtc.getSource());
+
+		assertNotNull(pool.take());
+		for (int i = 0; i < 4; i++) {
+			assertNull(pool.take());
+		}
+
+		// Limited to the max size
+		refill(pool);
+		assertEquals(3, pool.size());
+
+		// Trimmed when no WebRtc is taken in the window
+		Thread.sleep(2 * WINDOW_MILLIS);
+		assertFalse(pool.refill());
+		assertEquals(0, pool.size());
+
+		// Only the WebRtcs taken from the pool remain
+		assertEquals(2, kms.getNumWebRtcs());
+	}
+
+	@Test
+	public void maxWebRtcsTest() {
+
+		kms.setLoadManager(new MaxWebRtcLoadManager(2));
+
+		WebRtcPool pool = new WebRtcPool(pipeline, plumber, 3, WINDOW_MILLIS);
+
+		for (int i = 0; i < 3; i++) {
+			pool.take();
+		}
+
+		refill(pool);
+		assertEquals(2, pool.size());
+
+		pool.release();
+		assertEquals(0, kms.getNumWebRtcs());
+	}
+
+	@Test
+	public void addSinkAfterDestroyTest() {
+
+		LessLoadedNElasticTreeManager treeManager = new LessLoadedNElasticTreeManager(
+				new FakeFixedKmsManager(2), 3);
+
+		String treeId = treeManager.createTree();
+		treeManager.setTreeSource(treeId, "sdp");
+
+		// Pools are not refilled anymore, but sinks can still be added
+		treeManager.destroy();
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(treeManager.addTreeSink(treeId, "sdp"));
+		}
+	}
+
+	private void refill(WebRtcPool pool) {
+		while (pool.refill()) {
+		}
+	}
+
+}